@@ -1,8 +1,18 @@
 package edu.uwm.capstone;
 
 import edu.uwm.capstone.db.*;
+import edu.uwm.capstone.model.CacheVersion;
+import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.security.BoundedPasswordEncoder;
+import edu.uwm.capstone.security.LoginThrottle;
+import edu.uwm.capstone.security.TokenRevocations;
+import edu.uwm.capstone.service.SingleFlights;
+import edu.uwm.capstone.sql.dao.BaseDao;
+import edu.uwm.capstone.sql.dao.EntityCache;
+import edu.uwm.capstone.sql.dao.SnapshotCache;
 import edu.uwm.capstone.sql.statement.ISqlStatementsFileLoader;
 import edu.uwm.capstone.sql.statement.SqlStatementsFileLoader;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.apache.tomcat.jdbc.pool.DataSource;
 import org.apache.tomcat.jdbc.pool.PoolProperties;
 import org.flywaydb.core.Flyway;
@@ -12,13 +22,20 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.client.RestTemplate;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 @Configuration
 @ConfigurationProperties(prefix = "service")
 @EnableSwagger2
+@EnableTransactionManagement
 public class ApplicationConfig {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationConfig.class);
@@ -34,6 +51,26 @@ public class ApplicationConfig {
     protected boolean dbPoolLogAbandoned;
     protected long dbPoolMaxAge;
     protected String sqlStatementsResourceLocation;
+    protected int dbBatchSize = BaseDao.DEFAULT_BATCH_SIZE;
+    protected int dbFetchSize = BaseDao.DEFAULT_FETCH_SIZE;
+    protected long formDefCacheSize = EntityCache.DEFAULT_MAXIMUM_SIZE;
+    protected long userCacheSize = UserCache.DEFAULT_MAXIMUM_SIZE;
+    protected long userCacheNegativeTtlSeconds = UserCache.DEFAULT_NEGATIVE_TTL_SECONDS;
+    protected boolean cacheInvalidationEnabled = true;
+    protected long cacheStalenessBoundMillis = CacheInvalidationPoller.DEFAULT_STALENESS_BOUND_MILLIS;
+    protected List<String> singleFlightMethods = new ArrayList<>();
+    protected int passwordHashStrength = BoundedPasswordEncoder.DEFAULT_STRENGTH;
+    protected int passwordHashThreads;
+    protected int passwordHashQueueCapacity = BoundedPasswordEncoder.DEFAULT_QUEUE_CAPACITY;
+    protected int loginThrottleCells = LoginThrottle.DEFAULT_CELLS;
+    protected int loginThrottleFreeFailuresPerEmail = LoginThrottle.DEFAULT_FREE_FAILURES_PER_EMAIL;
+    protected int loginThrottleFreeFailuresPerAddress = LoginThrottle.DEFAULT_FREE_FAILURES_PER_ADDRESS;
+    protected long loginThrottleBaseDelayMillis = LoginThrottle.DEFAULT_BASE_DELAY_MILLIS;
+    protected long loginThrottleMaxDelayMillis = LoginThrottle.DEFAULT_MAX_DELAY_MILLIS;
+    protected long loginThrottleDecayMillis = LoginThrottle.DEFAULT_DECAY_MILLIS;
+    protected boolean tokenRevocationRefreshEnabled = true;
+    protected long tokenRevocationRefreshMillis = TokenRevocations.DEFAULT_REFRESH_MILLIS;
+    protected int tokenRevocationExpectedUsers = TokenRevocations.DEFAULT_EXPECTED_USERS;
     protected DataSource ds;
 
     @Bean
@@ -84,6 +121,11 @@ public class ApplicationConfig {
         return flyway;
     }
 
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new DataSourceTransactionManager(dataSource());
+    }
+
     @Bean
     public ISqlStatementsFileLoader sqlStatementsFileLoader() {
         SqlStatementsFileLoader loader = new SqlStatementsFileLoader();
@@ -97,15 +139,25 @@ public class ApplicationConfig {
         userDao.setDataSource(dataSource());
         userDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         userDao.setRowMapper(userDaoRowMapper());
+        userDao.setBatchSize(dbBatchSize);
+        userDao.setCacheVersionDao(cacheVersionDao());
+        userDao.setCache(new UserCache(userCacheSize, userCacheNegativeTtlSeconds));
         return userDao;
     }
 
+    @Bean
+    public MeterBinder userCacheMetrics() {
+        return userDao().getCache();
+    }
+
     @Bean
     public RoleDao roleDao() {
         RoleDao roleDao = new RoleDao();
         roleDao.setDataSource(dataSource());
         roleDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         roleDao.setRowMapper(roleDaoRowMapper());
+        roleDao.setBatchSize(dbBatchSize);
+        roleDao.setCacheVersionDao(cacheVersionDao());
         return roleDao;
     }
 
@@ -115,15 +167,24 @@ public class ApplicationConfig {
         formDefinitionDao.setDataSource(dataSource());
         formDefinitionDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         formDefinitionDao.setRowMapper(formDefinitionDaoRowMapper());
+        formDefinitionDao.setBatchSize(dbBatchSize);
+        formDefinitionDao.setCacheVersionDao(cacheVersionDao());
+        formDefinitionDao.setCacheSize(formDefCacheSize);
         return formDefinitionDao;
     }
 
+    @Bean
+    public MeterBinder formDefinitionCacheMetrics() {
+        return formDefinitionDao().getCache();
+    }
+
     @Bean
     public FieldDefinitionDao fieldDefinitionDao() {
         FieldDefinitionDao fieldDefinitionDao = new FieldDefinitionDao();
         fieldDefinitionDao.setDataSource(dataSource());
         fieldDefinitionDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         fieldDefinitionDao.setRowMapper(fieldDefinitionDaoRowMapper());
+        fieldDefinitionDao.setBatchSize(dbBatchSize);
         return fieldDefinitionDao;
     }
 
@@ -133,6 +194,8 @@ public class ApplicationConfig {
         formDao.setDataSource(dataSource());
         formDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         formDao.setRowMapper(formDaoRowMapper());
+        formDao.setBatchSize(dbBatchSize);
+        formDao.setFetchSize(dbFetchSize);
         return formDao;
     }
 
@@ -142,6 +205,7 @@ public class ApplicationConfig {
         fieldDao.setDataSource(dataSource());
         fieldDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         fieldDao.setRowMapper(fieldDaoRowMapper());
+        fieldDao.setBatchSize(dbBatchSize);
         return fieldDao;
     }
 
@@ -151,6 +215,9 @@ public class ApplicationConfig {
         degreeProgramDao.setDataSource(dataSource());
         degreeProgramDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         degreeProgramDao.setRowMapper(degreeProgramDaoRowMapper());
+        degreeProgramDao.setBatchSize(dbBatchSize);
+        degreeProgramDao.setCacheVersionDao(cacheVersionDao());
+        degreeProgramDao.setCatalogCache(degreeProgramCatalogCache());
         return degreeProgramDao;
     }
 
@@ -160,9 +227,110 @@ public class ApplicationConfig {
         degreeProgramStateDao.setDataSource(dataSource());
         degreeProgramStateDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
         degreeProgramStateDao.setRowMapper(degreeProgramStateDaoRowMapper());
+        degreeProgramStateDao.setBatchSize(dbBatchSize);
+        degreeProgramStateDao.setCacheVersionDao(cacheVersionDao());
+        degreeProgramStateDao.setCatalogCache(degreeProgramCatalogCache());
         return degreeProgramStateDao;
     }
 
+    @Bean
+    public SnapshotCache<DegreeProgramCatalog> degreeProgramCatalogCache() {
+        return new SnapshotCache<>("degree program catalog");
+    }
+
+    @Bean
+    public CacheVersionDao cacheVersionDao() {
+        CacheVersionDao cacheVersionDao = new CacheVersionDao();
+        cacheVersionDao.setDataSource(dataSource());
+        cacheVersionDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
+        cacheVersionDao.setRowMapper(cacheVersionDaoRowMapper());
+        return cacheVersionDao;
+    }
+
+    /**
+     * Evicts the entries cached by this node when another node writes them. Polling can be disabled, e.g. for tests
+     * that count statements, when only one node uses the database.
+     */
+    @Bean(destroyMethod = "stop")
+    public CacheInvalidationPoller cacheInvalidationPoller() {
+        CacheInvalidationPoller poller = new CacheInvalidationPoller(cacheVersionDao(), cacheStalenessBoundMillis);
+        UserCache userCache = userDao().getCache();
+        poller.register(CacheVersion.EntityType.USER, userCache::evict);
+        poller.register(CacheVersion.EntityType.ROLE, id -> roleDao().getCatalogCache().invalidate());
+        poller.register(CacheVersion.EntityType.DEGREE_PROGRAM, id -> degreeProgramCatalogCache().invalidate());
+        EntityCache<Long, FormDefinition> formDefinitionCache = formDefinitionDao().getCache();
+        poller.register(CacheVersion.EntityType.FORM_DEFINITION, id -> {
+            if (id == null) {
+                formDefinitionCache.invalidateAll();
+            } else {
+                formDefinitionCache.invalidate(id);
+            }
+        });
+        if (cacheInvalidationEnabled) {
+            poller.start();
+        }
+        return poller;
+    }
+
+    /**
+     * Coalesces concurrent identical reads of the service methods named in {@code service.single-flight-methods}.
+     */
+    @Bean
+    public SingleFlights singleFlights() {
+        return new SingleFlights(singleFlightMethods);
+    }
+
+    /**
+     * Hashes passwords on {@code service.password-hash-threads} threads, one per processor when 0, so that logins and
+     * password changes cannot take every request thread.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(passwordHashStrength, passwordHashThreads, passwordHashQueueCapacity);
+    }
+
+    /**
+     * Delays logins for emails and addresses with recent failures, before the user is read or its password hashed.
+     */
+    @Bean
+    public LoginThrottle loginThrottle() {
+        return new LoginThrottle(loginThrottleCells, loginThrottleFreeFailuresPerEmail, loginThrottleFreeFailuresPerAddress,
+                loginThrottleBaseDelayMillis, loginThrottleMaxDelayMillis, loginThrottleDecayMillis);
+    }
+
+    @Bean
+    public RevokedTokenDao revokedTokenDao() {
+        RevokedTokenDao revokedTokenDao = new RevokedTokenDao();
+        revokedTokenDao.setDataSource(dataSource());
+        revokedTokenDao.setSqlStatementsFileLoader(sqlStatementsFileLoader());
+        revokedTokenDao.setRowMapper(revokedTokenDaoRowMapper());
+        return revokedTokenDao;
+    }
+
+    /**
+     * Rejects revoked tokens from memory. Reading the revocations made by other nodes can be disabled, e.g. for tests
+     * that count statements, when only one node uses the database.
+     */
+    @Bean(destroyMethod = "stop")
+    public TokenRevocations tokenRevocations() {
+        TokenRevocations tokenRevocations = new TokenRevocations(revokedTokenDao(), tokenRevocationRefreshMillis,
+                tokenRevocationExpectedUsers);
+        if (tokenRevocationRefreshEnabled) {
+            tokenRevocations.start();
+        }
+        return tokenRevocations;
+    }
+
+    @Bean
+    public CacheVersionDaoRowMapper cacheVersionDaoRowMapper() {
+        return new CacheVersionDaoRowMapper();
+    }
+
+    @Bean
+    public RevokedTokenDaoRowMapper revokedTokenDaoRowMapper() {
+        return new RevokedTokenDaoRowMapper();
+    }
+
     @Bean
     public UserDaoRowMapper userDaoRowMapper() {
         return new UserDaoRowMapper();
@@ -279,6 +447,166 @@ public class ApplicationConfig {
         this.dbPoolMaxAge = dbPoolMaxAge;
     }
 
+    public int getDbBatchSize() {
+        return dbBatchSize;
+    }
+
+    public void setDbBatchSize(int dbBatchSize) {
+        this.dbBatchSize = dbBatchSize;
+    }
+
+    public int getDbFetchSize() {
+        return dbFetchSize;
+    }
+
+    public void setDbFetchSize(int dbFetchSize) {
+        this.dbFetchSize = dbFetchSize;
+    }
+
+    public long getFormDefCacheSize() {
+        return formDefCacheSize;
+    }
+
+    public void setFormDefCacheSize(long formDefCacheSize) {
+        this.formDefCacheSize = formDefCacheSize;
+    }
+
+    public long getUserCacheSize() {
+        return userCacheSize;
+    }
+
+    public void setUserCacheSize(long userCacheSize) {
+        this.userCacheSize = userCacheSize;
+    }
+
+    public long getUserCacheNegativeTtlSeconds() {
+        return userCacheNegativeTtlSeconds;
+    }
+
+    public void setUserCacheNegativeTtlSeconds(long userCacheNegativeTtlSeconds) {
+        this.userCacheNegativeTtlSeconds = userCacheNegativeTtlSeconds;
+    }
+
+    public boolean isCacheInvalidationEnabled() {
+        return cacheInvalidationEnabled;
+    }
+
+    public void setCacheInvalidationEnabled(boolean cacheInvalidationEnabled) {
+        this.cacheInvalidationEnabled = cacheInvalidationEnabled;
+    }
+
+    public long getCacheStalenessBoundMillis() {
+        return cacheStalenessBoundMillis;
+    }
+
+    public void setCacheStalenessBoundMillis(long cacheStalenessBoundMillis) {
+        this.cacheStalenessBoundMillis = cacheStalenessBoundMillis;
+    }
+
+    public List<String> getSingleFlightMethods() {
+        return singleFlightMethods;
+    }
+
+    public void setSingleFlightMethods(List<String> singleFlightMethods) {
+        this.singleFlightMethods = singleFlightMethods;
+    }
+
+    public int getPasswordHashStrength() {
+        return passwordHashStrength;
+    }
+
+    public void setPasswordHashStrength(int passwordHashStrength) {
+        this.passwordHashStrength = passwordHashStrength;
+    }
+
+    public int getPasswordHashThreads() {
+        return passwordHashThreads;
+    }
+
+    public void setPasswordHashThreads(int passwordHashThreads) {
+        this.passwordHashThreads = passwordHashThreads;
+    }
+
+    public int getPasswordHashQueueCapacity() {
+        return passwordHashQueueCapacity;
+    }
+
+    public void setPasswordHashQueueCapacity(int passwordHashQueueCapacity) {
+        this.passwordHashQueueCapacity = passwordHashQueueCapacity;
+    }
+
+    public int getLoginThrottleCells() {
+        return loginThrottleCells;
+    }
+
+    public void setLoginThrottleCells(int loginThrottleCells) {
+        this.loginThrottleCells = loginThrottleCells;
+    }
+
+    public int getLoginThrottleFreeFailuresPerEmail() {
+        return loginThrottleFreeFailuresPerEmail;
+    }
+
+    public void setLoginThrottleFreeFailuresPerEmail(int loginThrottleFreeFailuresPerEmail) {
+        this.loginThrottleFreeFailuresPerEmail = loginThrottleFreeFailuresPerEmail;
+    }
+
+    public int getLoginThrottleFreeFailuresPerAddress() {
+        return loginThrottleFreeFailuresPerAddress;
+    }
+
+    public void setLoginThrottleFreeFailuresPerAddress(int loginThrottleFreeFailuresPerAddress) {
+        this.loginThrottleFreeFailuresPerAddress = loginThrottleFreeFailuresPerAddress;
+    }
+
+    public long getLoginThrottleBaseDelayMillis() {
+        return loginThrottleBaseDelayMillis;
+    }
+
+    public void setLoginThrottleBaseDelayMillis(long loginThrottleBaseDelayMillis) {
+        this.loginThrottleBaseDelayMillis = loginThrottleBaseDelayMillis;
+    }
+
+    public long getLoginThrottleMaxDelayMillis() {
+        return loginThrottleMaxDelayMillis;
+    }
+
+    public void setLoginThrottleMaxDelayMillis(long loginThrottleMaxDelayMillis) {
+        this.loginThrottleMaxDelayMillis = loginThrottleMaxDelayMillis;
+    }
+
+    public long getLoginThrottleDecayMillis() {
+        return loginThrottleDecayMillis;
+    }
+
+    public void setLoginThrottleDecayMillis(long loginThrottleDecayMillis) {
+        this.loginThrottleDecayMillis = loginThrottleDecayMillis;
+    }
+
+    public boolean isTokenRevocationRefreshEnabled() {
+        return tokenRevocationRefreshEnabled;
+    }
+
+    public void setTokenRevocationRefreshEnabled(boolean tokenRevocationRefreshEnabled) {
+        this.tokenRevocationRefreshEnabled = tokenRevocationRefreshEnabled;
+    }
+
+    public long getTokenRevocationRefreshMillis() {
+        return tokenRevocationRefreshMillis;
+    }
+
+    public void setTokenRevocationRefreshMillis(long tokenRevocationRefreshMillis) {
+        this.tokenRevocationRefreshMillis = tokenRevocationRefreshMillis;
+    }
+
+    public int getTokenRevocationExpectedUsers() {
+        return tokenRevocationExpectedUsers;
+    }
+
+    public void setTokenRevocationExpectedUsers(int tokenRevocationExpectedUsers) {
+        this.tokenRevocationExpectedUsers = tokenRevocationExpectedUsers;
+    }
+
     public String getSqlStatementsResourceLocation() {
         return sqlStatementsResourceLocation;
     }
@@ -1,16 +1,21 @@
 package edu.uwm.capstone.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.uwm.capstone.model.Field;
 import edu.uwm.capstone.model.Form;
 import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.model.FormFilter;
 import edu.uwm.capstone.model.User;
 import edu.uwm.capstone.service.FormService;
 import io.swagger.annotations.ApiOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import springfox.documentation.annotations.ApiIgnore;
 
 import javax.servlet.http.HttpServletResponse;
@@ -26,14 +31,17 @@ public class FormRestController {
     static final String FORM_PANTHER_ID_PATH = FORM_PATH + "panther_id/";
     static final String FORM_FORM_DEF_PATH = FORM_PATH + "formDef/";
     static final String FORM_APPROVAL_PATH = FORM_PATH + "approve/";
+    static final String FORM_EXPORT_PATH = "/export";
 
     private static final Logger LOG = LoggerFactory.getLogger(FormRestController.class);
 
     private final FormService formService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FormRestController(FormService formService) {
+    public FormRestController(FormService formService, ObjectMapper objectMapper) {
         this.formService = formService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -52,7 +60,8 @@ public class FormRestController {
     }
 
     /**
-     * Get a {@link Form} by its Id.
+     * Get a {@link Form} by its Id. Users without {@code READ_ALL_FORMS} can only read their own forms, which is
+     * checked on the form that was read.
      *
      * @param formId   id of the {@link Form} to read
      * @param response {@link HttpServletResponse} that is sent back
@@ -61,20 +70,25 @@ public class FormRestController {
      */
     @ApiOperation(value = "Read Form by ID")
     @GetMapping(value = FORM_PATH + "{formId}")
+    @PostAuthorize("returnObject == null or hasAuthority('READ_ALL_FORMS') or @ownership.isSelf(returnObject.userId)")
     public Form readById(@PathVariable Long formId, @ApiIgnore HttpServletResponse response) throws IOException {
         return RestControllerUtil.runCallable(() -> formService.read(formId), response, LOG);
     }
 
     /**
-     * Gets all {@link Form}s.
+     * Gets one page of all {@link Form}s. If there are more matching forms, a {@code Link} header points to the
+     * next page.
      *
+     * @param filter   {@link FormFilter} built from the query parameters
+     * @param response {@link HttpServletResponse} that is sent back
      * @return list of {@link Form}s retrieved from the database
+     * @throws IOException if error response cannot be created
      */
     @ApiOperation(value = "Read All Forms")
     @GetMapping(value = FORM_PATH)
     @PreAuthorize("hasAuthority('READ_ALL_FORMS')")
-    public List<Form> readAll() {
-        return formService.readAll();
+    public List<Form> readAll(FormFilter filter, @ApiIgnore HttpServletResponse response) throws IOException {
+        return RestControllerUtil.runCallable(() -> RestControllerUtil.writePage(formService.readPage(filter), response), response, LOG);
     }
 
     /**
@@ -91,27 +105,57 @@ public class FormRestController {
     }
 
     /**
-     * Gets all {@link Form}s that have a {@link Form#getFormDefId()} = formDefId.
+     * Gets one page of the {@link Form}s that have a {@link Form#getFormDefId()} = formDefId. If there are more
+     * matching forms, a {@code Link} header points to the next page.
      *
      * @param formDefId id of the {@link FormDefinition}
+     * @param filter    {@link FormFilter} built from the query parameters
+     * @param response  {@link HttpServletResponse} that is sent back
      * @return list of {@link Form}s retrieved from the database
+     * @throws IOException if error response cannot be created
      */
     @ApiOperation(value = "Read All Forms by Form Definition ID")
     @GetMapping(value = FORM_FORM_DEF_PATH + "{formDefId}")
-    public List<Form> readAllByFormDefId(@PathVariable Long formDefId) {
-        return formService.readAllByFormDefId(formDefId);
+    public List<Form> readAllByFormDefId(@PathVariable Long formDefId, FormFilter filter, @ApiIgnore HttpServletResponse response) throws IOException {
+        filter.setFormDefId(formDefId);
+        return RestControllerUtil.runCallable(() -> RestControllerUtil.writePage(formService.readPage(filter), response), response, LOG);
     }
 
     /**
-     * Gets all {@link Form}s that have a {@link Form#getUserId()} = userId.
+     * Exports every {@link Form} that has a {@link Form#getFormDefId()} = formDefId as a JSON array. The forms are
+     * written as they are read from the database, so the export is not paged and its memory use does not grow
+     * with the number of forms.
      *
-     * @param userId id of the {@link User}
+     * @param formDefId id of the {@link FormDefinition}
+     * @param response  {@link HttpServletResponse} that is sent back
+     * @return {@link StreamingResponseBody} writing the {@link Form}s
+     * @throws IOException if error response cannot be created
+     */
+    @ApiOperation(value = "Export All Forms by Form Definition ID")
+    @GetMapping(value = FORM_FORM_DEF_PATH + "{formDefId}" + FORM_EXPORT_PATH, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @PreAuthorize("hasAuthority('READ_ALL_FORMS')")
+    public StreamingResponseBody exportByFormDefId(@PathVariable Long formDefId, @ApiIgnore HttpServletResponse response) throws IOException {
+        return RestControllerUtil.runCallable(() ->
+                RestControllerUtil.writeJsonArray(formService.streamAllByFormDefId(formDefId), Form.class, objectMapper), response, LOG);
+    }
+
+    /**
+     * Gets one page of the {@link Form}s that have a {@link Form#getUserId()} = userId. If there are more
+     * matching forms, a {@code Link} header points to the next page. Users without {@code READ_ALL_FORMS} can only
+     * read their own forms.
+     *
+     * @param userId   id of the {@link User}
+     * @param filter   {@link FormFilter} built from the query parameters
+     * @param response {@link HttpServletResponse} that is sent back
      * @return list of {@link Form}s retrieved from the database
+     * @throws IOException if error response cannot be created
      */
     @ApiOperation(value = "Read All Forms by User ID")
     @GetMapping(value = FORM_USER_PATH + "{userId}")
-    public List<Form> readAllByUserId(@PathVariable Long userId) {
-        return formService.readAllByUserId(userId);
+    @PreAuthorize("hasAuthority('READ_ALL_FORMS') or @ownership.isSelf(#userId)")
+    public List<Form> readAllByUserId(@PathVariable Long userId, FormFilter filter, @ApiIgnore HttpServletResponse response) throws IOException {
+        filter.setUserId(userId);
+        return RestControllerUtil.runCallable(() -> RestControllerUtil.writePage(formService.readPage(filter), response), response, LOG);
     }
 
     /**
@@ -1,14 +1,27 @@
 package edu.uwm.capstone.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.uwm.capstone.model.Page;
 import edu.uwm.capstone.service.exception.EntityNotFoundException;
 import org.slf4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 class RestControllerUtil {
 
+    static final String AFTER_ID_PARAM = "afterId";
+
     private RestControllerUtil() {
     } // removes sonarqube code smell
 
@@ -30,6 +43,39 @@ class RestControllerUtil {
         }
     }
 
+    /**
+     * Returns the items of the provided {@link Page} and, if there is a next page, adds a {@code Link} header
+     * pointing to it that repeats the current request with the {@code afterId} parameter replaced.
+     */
+    static <T> List<T> writePage(Page<T> page, HttpServletResponse response) {
+        if (page.getNextAfterId() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam(AFTER_ID_PARAM, page.getNextAfterId())
+                    .toUriString();
+            response.addHeader(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return page.getItems();
+    }
+
+    /**
+     * Returns a {@link StreamingResponseBody} that writes the items of the provided stream as a JSON array through a
+     * {@link JsonGenerator} as they are consumed, flushing only when the generator's buffer fills. The stream is
+     * consumed and closed within the body, so a stream that takes its connection lazily, such as
+     * {@link edu.uwm.capstone.db.FormDao#streamAllByFormDefId}, holds it only while the body is written.
+     */
+    static <T> StreamingResponseBody writeJsonArray(Stream<T> items, Class<T> type, ObjectMapper objectMapper) {
+        ObjectWriter writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (Stream<T> stream = items; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                for (Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                    writer.writeValue(generator, iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+
     static void runRunnable(Runnable runnable, HttpServletResponse response, Logger log) throws IOException {
         try {
             runnable.run();
@@ -1,6 +1,7 @@
 package edu.uwm.capstone.controller;
 
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.model.UserFilter;
 import edu.uwm.capstone.service.UserService;
 import io.swagger.annotations.ApiOperation;
 import org.slf4j.Logger;
@@ -48,7 +49,7 @@ public class UserRestController {
     }
 
     /**
-     * Get a {@link User} by its Id.
+     * Get a {@link User} by its Id. Users without {@code READ_ALL_USERS} can only read themselves.
      *
      * @param userId   id of the {@link User} to read
      * @param response {@link HttpServletResponse} that is sent back
@@ -57,6 +58,7 @@ public class UserRestController {
      */
     @ApiOperation(value = "Read User by ID")
     @GetMapping(value = USER_PATH + "{userId}")
+    @PreAuthorize("hasAuthority('READ_ALL_USERS') or @ownership.isSelf(#userId)")
     public User readById(@PathVariable Long userId, @ApiIgnore HttpServletResponse response) throws IOException {
         return RestControllerUtil.runCallable(() -> userService.read(userId), response, LOG);
     }
@@ -90,15 +92,19 @@ public class UserRestController {
     }
 
     /**
-     * Gets all the {@link User}s.
+     * Gets one page of the {@link User}s. If there are more matching users, a {@code Link} header points to the
+     * next page.
      *
+     * @param filter   {@link UserFilter} built from the query parameters
+     * @param response {@link HttpServletResponse} that is sent back
      * @return list of {@link User}s retrieved from the database
+     * @throws IOException if error response cannot be created
      */
     @ApiOperation(value = "Read All Users")
     @GetMapping(value = USER_PATH)
     @PreAuthorize("hasAuthority('READ_ALL_USERS')")
-    public List<User> readAll() {
-        return userService.readAll();
+    public List<User> readAll(UserFilter filter, @ApiIgnore HttpServletResponse response) throws IOException {
+        return RestControllerUtil.runCallable(() -> RestControllerUtil.writePage(userService.readPage(filter), response), response, LOG);
     }
 
     /**
@@ -0,0 +1,212 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.CacheVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Evicts entries from the caches of this node when another node writes the cached entities.
+ * <p>
+ * Every write to a cached entity is recorded by {@link CacheVersionDao#bump} in the same transaction. The poller
+ * reads the versions newer than the last one it saw every half of the staleness bound and passes the id of each
+ * written entity, or null for a whole entity type, to the eviction callbacks registered for its type. Versions are
+ * assigned when a transaction inserts them but become visible when it commits, so versions skipped by a poll are
+ * read again until they appear or, for transactions that rolled back, until {@link #GAP_TIMEOUT_MILLIS} passes.
+ * <p>
+ * If the versions cannot be read for longer than the staleness bound, every cache is cleared after each failed poll,
+ * so no node serves an entry older than the bound from its caches.
+ */
+public class CacheInvalidationPoller {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheInvalidationPoller.class);
+
+    public static final long DEFAULT_STALENESS_BOUND_MILLIS = 1000;
+
+    static final int POLL_LIMIT = 1000;
+    static final int MAX_GAPS = 1000;
+    static final long GAP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    static final long PRUNE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final CacheVersionDao cacheVersionDao;
+    private final long stalenessBoundMillis;
+    private final LongSupplier clock;
+    private final Map<CacheVersion.EntityType, List<Consumer<Long>>> evictions = new EnumMap<>(CacheVersion.EntityType.class);
+
+    /**
+     * Versions that were skipped by a poll, with the time they were first skipped.
+     */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    private long lastVersion = -1;
+    private long lastPollMillis;
+    private long lastPruneMillis;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param cacheVersionDao      {@link CacheVersionDao}
+     * @param stalenessBoundMillis longest time a write made by another node may go unnoticed
+     */
+    public CacheInvalidationPoller(CacheVersionDao cacheVersionDao, long stalenessBoundMillis) {
+        this(cacheVersionDao, stalenessBoundMillis, System::currentTimeMillis);
+    }
+
+    CacheInvalidationPoller(CacheVersionDao cacheVersionDao, long stalenessBoundMillis, LongSupplier clock) {
+        if (stalenessBoundMillis <= 0) {
+            throw new IllegalArgumentException("Cache staleness bound must be positive");
+        }
+        this.cacheVersionDao = cacheVersionDao;
+        this.stalenessBoundMillis = stalenessBoundMillis;
+        this.clock = clock;
+        for (CacheVersion.EntityType entityType : CacheVersion.EntityType.values()) {
+            evictions.put(entityType, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Register a callback that evicts entities of the given type from a local cache.
+     *
+     * @param entityType type of the cached entities
+     * @param eviction   receives the id of a written entity, or null if every entity of the type must be evicted
+     */
+    public void register(CacheVersion.EntityType entityType, Consumer<Long> eviction) {
+        evictions.get(entityType).add(eviction);
+    }
+
+    /**
+     * Start polling on a background thread.
+     */
+    public synchronized void start() {
+        if (executor != null) return;
+
+        LOG.info("Polling cache versions every {} ms", Math.max(1, stalenessBoundMillis / 2));
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::pollOrEvictAll, 0, Math.max(1, stalenessBoundMillis / 2), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop polling.
+     */
+    public synchronized void stop() {
+        if (executor == null) return;
+
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    /**
+     * Read the versions written since the last poll and evict the written entities. The first poll only records the
+     * latest version and clears every cache, since entries may have been cached before this node started polling.
+     */
+    public synchronized void poll() {
+        long now = clock.getAsLong();
+        if (lastVersion < 0) {
+            lastVersion = cacheVersionDao.readLatestVersion();
+            lastPollMillis = now;
+            lastPruneMillis = now;
+            evictAll();
+            return;
+        }
+
+        pollGaps(now);
+
+        List<CacheVersion> versions;
+        do {
+            versions = cacheVersionDao.readAfter(lastVersion, POLL_LIMIT);
+            for (CacheVersion version : versions) {
+                addGaps(version.getId(), now);
+                lastVersion = version.getId();
+                evict(version);
+            }
+        } while (versions.size() == POLL_LIMIT);
+
+        if (now - lastPruneMillis >= PRUNE_INTERVAL_MILLIS) {
+            lastPruneMillis = now;
+            int pruned = cacheVersionDao.deleteCreatedBefore(LocalDateTime.now().minus(RETENTION_MILLIS, ChronoUnit.MILLIS));
+            LOG.debug("Pruned {} cache versions", pruned);
+        }
+        lastPollMillis = now;
+    }
+
+    /**
+     * @return the latest version this node has seen, or -1 before the first poll
+     */
+    public synchronized long getLastVersion() {
+        return lastVersion;
+    }
+
+    void pollOrEvictAll() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                long sinceLastPoll = clock.getAsLong() - lastPollMillis;
+                if (lastVersion < 0 || sinceLastPoll > stalenessBoundMillis) {
+                    LOG.warn("Cache versions could not be read for {} ms, clearing every cache", sinceLastPoll, e);
+                    evictAll();
+                } else {
+                    LOG.debug("Failed to read cache versions", e);
+                }
+            }
+        }
+    }
+
+    private void pollGaps(long now) {
+        if (gaps.isEmpty()) return;
+
+        for (CacheVersion version : cacheVersionDao.readByIds(new ArrayList<>(gaps.keySet()))) {
+            gaps.remove(version.getId());
+            evict(version);
+        }
+        gaps.values().removeIf(skipped -> now - skipped > GAP_TIMEOUT_MILLIS);
+    }
+
+    private void addGaps(long version, long now) {
+        if (version - lastVersion - 1 + gaps.size() > MAX_GAPS) {
+            LOG.warn("Skipped more than {} cache versions, clearing every cache", MAX_GAPS);
+            gaps.clear();
+            evictAll();
+            return;
+        }
+        for (long skipped = lastVersion + 1; skipped < version; skipped++) {
+            gaps.put(skipped, now);
+        }
+    }
+
+    private void evict(CacheVersion version) {
+        LOG.trace("Evicting {} {}", version.getEntityType(), version.getEntityId());
+        for (Consumer<Long> eviction : evictions.get(version.getEntityType())) {
+            eviction.accept(version.getEntityId());
+        }
+    }
+
+    private void evictAll() {
+        for (List<Consumer<Long>> typeEvictions : evictions.values()) {
+            for (Consumer<Long> eviction : typeEvictions) {
+                eviction.accept(null);
+            }
+        }
+    }
+
+    Map<Long, Long> gaps() {
+        return Collections.unmodifiableMap(gaps);
+    }
+}
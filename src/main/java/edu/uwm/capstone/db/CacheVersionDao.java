@@ -0,0 +1,157 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.CacheVersion;
+import edu.uwm.capstone.sql.dao.BaseDao;
+import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.exception.DaoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Records writes to cached entities in the cache_versions table. DAOs that cache entities call {@link #bump} with
+ * every write, on the same connection and therefore in the same transaction, and the
+ * {@link CacheInvalidationPoller} of every node reads the new versions to evict its local copies.
+ */
+public class CacheVersionDao extends BaseDao<Long, CacheVersion> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheVersionDao.class);
+
+    /**
+     * Record a write to an entity.
+     *
+     * @param entityType type of the written entity
+     * @param entityId   id of the written entity, or null if every entity of the type must be evicted
+     * @return the recorded {@link CacheVersion}
+     */
+    public CacheVersion bump(CacheVersion.EntityType entityType, Long entityId) {
+        return create(CacheVersion.builder().entityType(entityType).entityId(entityId).build());
+    }
+
+    /**
+     * Create a {@link CacheVersion} object.
+     *
+     * @param cacheVersion {@link CacheVersion}
+     * @return {@link CacheVersion}
+     */
+    @Override
+    public CacheVersion create(CacheVersion cacheVersion) {
+        if (cacheVersion == null) {
+            throw new DaoException("Request to create a new cache version received null");
+        } else if (cacheVersion.getId() != null) {
+            throw new DaoException("When creating a new cache version the id should be null, but was set to " + cacheVersion.getId());
+        }
+
+        LOG.trace("Creating cache version {}", cacheVersion);
+
+        cacheVersion.setCreatedDate(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int result = this.jdbcTemplate.update(sql("createCacheVersion"),
+                new MapSqlParameterSource(rowMapper.mapObject(cacheVersion)), keyHolder, new String[]{BaseRowMapper.BaseColumnType.ID.name()});
+
+        if (result != 1) {
+            throw new DaoException(String.format("Failed attempt to create cache version %s - affected %s rows", cacheVersion.toString(), result));
+        }
+
+        cacheVersion.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        return cacheVersion;
+    }
+
+    /**
+     * Retrieve a {@link CacheVersion} object by its version.
+     *
+     * @param version
+     * @return {@link CacheVersion}
+     */
+    @Override
+    public CacheVersion read(Long version) {
+        LOG.trace("Reading cache version {}", version);
+        try {
+            return (CacheVersion) this.jdbcTemplate.queryForObject(sql("readCacheVersion"), new MapSqlParameterSource("id", version), rowMapper);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the {@link CacheVersion}s newer than the given version, oldest first.
+     *
+     * @param afterVersion last version already seen
+     * @param limit        maximum number of versions to return
+     * @return list of {@link CacheVersion}s
+     */
+    @SuppressWarnings("unchecked")
+    public List<CacheVersion> readAfter(long afterVersion, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after_id", afterVersion)
+                .addValue("limit", limit);
+        return this.jdbcTemplate.query(sql("readCacheVersionsAfter"), params, (RowMapper<CacheVersion>) rowMapper);
+    }
+
+    /**
+     * Returns the {@link CacheVersion}s with the given versions that exist.
+     *
+     * @param versions versions to read
+     * @return list of {@link CacheVersion}s
+     */
+    @SuppressWarnings("unchecked")
+    public List<CacheVersion> readByIds(Collection<Long> versions) {
+        if (versions.isEmpty()) return Collections.emptyList();
+        return this.jdbcTemplate.query(sql("readCacheVersionsByIds"), new MapSqlParameterSource("ids", versions),
+                (RowMapper<CacheVersion>) rowMapper);
+    }
+
+    /**
+     * @return the newest version, or 0 if no write has been recorded
+     */
+    public long readLatestVersion() {
+        Long latest = this.jdbcTemplate.queryForObject(sql("readLatestCacheVersion"), new MapSqlParameterSource(), Long.class);
+        return latest == null ? 0 : latest;
+    }
+
+    /**
+     * Cache versions are never modified.
+     *
+     * @throws DaoException always
+     */
+    @Override
+    public CacheVersion update(CacheVersion cacheVersion) {
+        throw new DaoException("Cache versions cannot be updated");
+    }
+
+    /**
+     * Delete a {@link CacheVersion} object by its version.
+     *
+     * @param version
+     */
+    @Override
+    public void delete(Long version) {
+        LOG.trace("Deleting cache version {}", version);
+        int result = this.jdbcTemplate.update(sql("deleteCacheVersion"), new MapSqlParameterSource("id", version));
+        if (result != 1) {
+            throw new DaoException(String.format("Failed attempt to delete cache version %s affected %s rows", version, result));
+        }
+    }
+
+    /**
+     * Delete the {@link CacheVersion}s recorded before the given time.
+     *
+     * @param before
+     * @return number of deleted versions
+     */
+    public int deleteCreatedBefore(LocalDateTime before) {
+        LOG.trace("Deleting cache versions created before {}", before);
+        return this.jdbcTemplate.update(sql("deleteCacheVersionsCreatedBefore"),
+                new MapSqlParameterSource("created_date", BaseRowMapper.javaTimeFromDate(before)));
+    }
+}
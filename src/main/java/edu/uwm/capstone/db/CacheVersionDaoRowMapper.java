@@ -0,0 +1,52 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.CacheVersion;
+import edu.uwm.capstone.sql.dao.BaseRowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static edu.uwm.capstone.db.CacheVersionDaoRowMapper.CacheVersionColumnType.ENTITY_ID;
+import static edu.uwm.capstone.db.CacheVersionDaoRowMapper.CacheVersionColumnType.ENTITY_TYPE;
+import static edu.uwm.capstone.sql.dao.BaseRowMapper.BaseColumnType.CREATED_DATE;
+import static edu.uwm.capstone.sql.dao.BaseRowMapper.BaseColumnType.ID;
+
+public class CacheVersionDaoRowMapper extends BaseRowMapper<CacheVersion> {
+
+    public enum CacheVersionColumnType {
+        ENTITY_TYPE(),
+        ENTITY_ID();
+
+        private String columnName;
+
+        CacheVersionColumnType() {
+            columnName = name().toLowerCase();
+        }
+
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    @Override
+    public Map<String, Object> mapObject(CacheVersion object) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(ID.getColumnName(), object.getId());
+        map.put(ENTITY_TYPE.getColumnName(), object.getEntityType() == null ? null : object.getEntityType().name());
+        map.put(ENTITY_ID.getColumnName(), object.getEntityId());
+        map.put(CREATED_DATE.getColumnName(), javaTimeFromDate(object.getCreatedDate()));
+        return map;
+    }
+
+    @Override
+    public CacheVersion mapRow(ResultSet rs, int rowNum) throws SQLException {
+        CacheVersion cacheVersion = new CacheVersion();
+        cacheVersion.setId(rs.getLong(ID.getColumnName()));
+        cacheVersion.setEntityType(CacheVersion.EntityType.valueOf(rs.getString(ENTITY_TYPE.getColumnName())));
+        cacheVersion.setEntityId((Long) rs.getObject(ENTITY_ID.getColumnName()));
+        cacheVersion.setCreatedDate(dateFromJavaTime(rs.getObject(CREATED_DATE.getColumnName())));
+        return cacheVersion;
+    }
+}
@@ -0,0 +1,114 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.DegreeProgram;
+import edu.uwm.capstone.model.DegreeProgramState;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of every {@link DegreeProgram} and {@link DegreeProgramState}, indexed by id and, for degree
+ * programs, by name.
+ * <p>
+ * The entities held by the catalog are never handed out; every accessor returns copies.
+ */
+public final class DegreeProgramCatalog {
+
+    private final Map<Long, DegreeProgram> programsById;
+    private final Map<String, DegreeProgram> programsByName;
+    private final Map<Long, DegreeProgramState> statesById;
+    private final Map<Long, String> programNamesByStateId;
+
+    /**
+     * @param programs every degree program with its states, in the order they are returned by {@link #readAll()}
+     */
+    DegreeProgramCatalog(List<DegreeProgram> programs) {
+        Map<Long, DegreeProgram> byId = new LinkedHashMap<>();
+        Map<String, DegreeProgram> byName = new HashMap<>();
+        Map<Long, DegreeProgramState> states = new HashMap<>();
+        Map<Long, String> programNames = new HashMap<>();
+        for (DegreeProgram program : programs) {
+            DegreeProgram entry = copyOf(program);
+            byId.put(entry.getId(), entry);
+            byName.put(entry.getName(), entry);
+            for (DegreeProgramState state : entry) {
+                states.put(state.getId(), state);
+                programNames.put(state.getId(), entry.getName());
+            }
+        }
+        this.programsById = Collections.unmodifiableMap(byId);
+        this.programsByName = Collections.unmodifiableMap(byName);
+        this.statesById = Collections.unmodifiableMap(states);
+        this.programNamesByStateId = Collections.unmodifiableMap(programNames);
+    }
+
+    /**
+     * @param id
+     * @return a copy of the degree program with the given id, or null if it does not exist
+     */
+    public DegreeProgram read(Long id) {
+        DegreeProgram program = programsById.get(id);
+        return program == null ? null : copyOf(program);
+    }
+
+    /**
+     * @param name
+     * @return a copy of the degree program with the given name, or null if it does not exist
+     */
+    public DegreeProgram readByName(String name) {
+        DegreeProgram program = programsByName.get(name);
+        return program == null ? null : copyOf(program);
+    }
+
+    /**
+     * @return copies of every degree program
+     */
+    public List<DegreeProgram> readAll() {
+        return programsById.values().stream().map(DegreeProgramCatalog::copyOf).collect(Collectors.toList());
+    }
+
+    /**
+     * @param stateId
+     * @return a copy of the degree program state with the given id, or null if it does not exist
+     */
+    public DegreeProgramState readState(Long stateId) {
+        DegreeProgramState state = statesById.get(stateId);
+        return state == null ? null : copyOf(state);
+    }
+
+    /**
+     * @param stateId
+     * @return name of the degree program the state with the given id belongs to, or null if it does not exist
+     */
+    public String degreeProgramName(Long stateId) {
+        return programNamesByStateId.get(stateId);
+    }
+
+    /**
+     * Returns a copy of the given {@link DegreeProgram} with copies of its {@link DegreeProgramState}s.
+     *
+     * @param program {@link DegreeProgram}
+     * @return copy of the degree program
+     */
+    public static DegreeProgram copyOf(DegreeProgram program) {
+        List<DegreeProgramState> states = program.getDegreeProgramStates() == null ? null :
+                program.getDegreeProgramStates().stream().map(DegreeProgramCatalog::copyOf).collect(Collectors.toList());
+        DegreeProgram copy = new DegreeProgram(program.getName(), program.getDescription(), states);
+        copy.setId(program.getId());
+        copy.setCreatedDate(program.getCreatedDate());
+        copy.setUpdatedDate(program.getUpdatedDate());
+        return copy;
+    }
+
+    private static DegreeProgramState copyOf(DegreeProgramState state) {
+        DegreeProgramState copy = new DegreeProgramState(state.getDegreeProgramId(), state.getName(), state.getDescription(), state.isInitial());
+        copy.setId(state.getId());
+        copy.setCreatedDate(state.getCreatedDate());
+        copy.setUpdatedDate(state.getUpdatedDate());
+        return copy;
+    }
+}
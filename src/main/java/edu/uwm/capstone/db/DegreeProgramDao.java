@@ -1,19 +1,23 @@
 package edu.uwm.capstone.db;
 
+import edu.uwm.capstone.model.CacheVersion;
 import edu.uwm.capstone.model.DegreeProgram;
 import edu.uwm.capstone.model.DegreeProgramState;
+import edu.uwm.capstone.sql.dao.AggregateLoader;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.dao.SnapshotCache;
 import edu.uwm.capstone.sql.exception.DaoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 
@@ -24,6 +28,9 @@ public class DegreeProgramDao extends BaseDao<Long, DegreeProgram> {
 
     private static final Logger LOG = LoggerFactory.getLogger(DegreeProgramDao.class);
 
+    private SnapshotCache<DegreeProgramCatalog> catalogCache = new SnapshotCache<>("degree program catalog");
+    private CacheVersionDao cacheVersionDao;
+
     @Override
     public DegreeProgram create(DegreeProgram dp) {
         if(dp == null) {
@@ -48,47 +55,74 @@ public class DegreeProgramDao extends BaseDao<Long, DegreeProgram> {
 
         Long id = keyHolder.getKey().longValue();
         dp.setId(id);
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
 
         // Create degree program states
         for(DegreeProgramState dps: dp) {
             dps.setDegreeProgramId(dp.getId());
-            degreeProgramStateDao.create(dps);
         }
+        degreeProgramStateDao.createAll(dp.getDegreeProgramStates());
         return dp;
     }
 
     @Override
     public DegreeProgram read(Long id) {
         LOG.trace("Reading degree program {}", id);
-        try {
-            DegreeProgram dp =  (DegreeProgram) jdbcTemplate.queryForObject(sql("readDegreeProgramById"),
-                    new MapSqlParameterSource("id", id), rowMapper);
-            dp.setDegreeProgramStates(degreeProgramStateDao.readAllStatesByDegreeProgramId(dp.getId()));
-            return dp;
-        } catch(EmptyResultDataAccessException e) {
-            return null;
-        }
+        return catalog().read(id);
     }
 
     public DegreeProgram readByName(String name) {
         LOG.trace("Reading degree program {}", name);
-        try {
-            DegreeProgram dp = (DegreeProgram) jdbcTemplate.queryForObject(sql("readDegreeProgramByName"),
-                    new MapSqlParameterSource("name", name), rowMapper);
-            dp.setDegreeProgramStates(degreeProgramStateDao.readAllStatesByDegreeProgramId(dp.getId()));
-            return dp;
-        } catch(EmptyResultDataAccessException e) {
-            return null;
-        }
+        return catalog().readByName(name);
     }
 
     public List<DegreeProgram> readAll() {
         LOG.trace("Reading all degree programs");
-        List<DegreeProgram> degreePrograms = jdbcTemplate.query(sql("readAllDegreePrograms"), rowMapper);
-        for(DegreeProgram dp: degreePrograms) {
-            dp.setDegreeProgramStates(degreeProgramStateDao.readAllStatesByDegreeProgramId(dp.getId()));
-        }
-        return degreePrograms;
+        return catalog().readAll();
+    }
+
+    /**
+     * Returns the {@link DegreeProgramCatalog} holding every degree program and its states. The catalog is read with
+     * two queries the first time it is needed and again after a degree program or state is written.
+     *
+     * @return DegreeProgramCatalog
+     */
+    public DegreeProgramCatalog catalog() {
+        return catalogCache.get(() -> {
+            LOG.trace("Reading degree program catalog");
+            return new DegreeProgramCatalog(degreeProgramLoader().load(sql("readAllDegreePrograms")));
+        });
+    }
+
+    /**
+     * Shares the cache of the {@link DegreeProgramCatalog} with the {@link DegreeProgramStateDao}, whose writes
+     * invalidate it as well.
+     *
+     * @param catalogCache
+     */
+    public void setCatalogCache(SnapshotCache<DegreeProgramCatalog> catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    /**
+     * Returns an {@link AggregateLoader} that reads {@link DegreeProgram}s together with all of their
+     * {@link DegreeProgramState}s in two queries.
+     *
+     * @return AggregateLoader for degree programs
+     */
+    @SuppressWarnings("unchecked")
+    private AggregateLoader<Long, DegreeProgram, DegreeProgramState> degreeProgramLoader() {
+        return AggregateLoader.<Long, DegreeProgram, DegreeProgramState>builder()
+                .jdbcTemplate(jdbcTemplate)
+                .parentMapper((RowMapper<DegreeProgram>) rowMapper)
+                .parentKey(DegreeProgram::getId)
+                .childStatement(sql("readDegreeProgramStatesByDegreeProgramIds"))
+                .childKeysParameter("degree_program_ids")
+                .childMapper((RowMapper<DegreeProgramState>) degreeProgramStateDao.getRowMapper())
+                .childParentKey(DegreeProgramState::getDegreeProgramId)
+                .assembler(DegreeProgram::setDegreeProgramStates)
+                .build();
     }
 
     @Override
@@ -105,6 +139,8 @@ public class DegreeProgramDao extends BaseDao<Long, DegreeProgram> {
         dp.setUpdatedDate(LocalDateTime.now());
         int result = jdbcTemplate.update(sql("updateDegreeProgramById"),
                 new MapSqlParameterSource(rowMapper.mapObject(dp)));
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
         if(result != 1) {
             throw new DaoException(String.format("Failed attempt to update degree program %s - %s rows affected.",
                     dp.toString(), result));
@@ -112,19 +148,23 @@ public class DegreeProgramDao extends BaseDao<Long, DegreeProgram> {
 
         HashSet<Long> fieldDefIdsAssociatedWithOldFormDef = new HashSet<>(degreeProgramStateDao.readAllStatesIdsByDegreeProgramId(dp.getId()));
 
+        List<DegreeProgramState> statesToCreate = new ArrayList<>();
+        List<DegreeProgramState> statesToUpdate = new ArrayList<>();
         Long fieldDefId;
         for (DegreeProgramState dps : dp) {
             fieldDefId = dps.getId();
             if (fieldDefId == null) {                                              // create new field def if has null id
                 dps.setDegreeProgramId(dp.getId());
-                degreeProgramStateDao.create(dps);
+                statesToCreate.add(dps);
             } else if (fieldDefIdsAssociatedWithOldFormDef.contains(fieldDefId)) { // update field def if it's connected to formDef
                 fieldDefIdsAssociatedWithOldFormDef.remove(fieldDefId);
-                degreeProgramStateDao.update(dps);
+                statesToUpdate.add(dps);
             }
         }
 
-        fieldDefIdsAssociatedWithOldFormDef.forEach(fdId -> degreeProgramStateDao.delete(fdId)); // remove old field defs
+        degreeProgramStateDao.createAll(statesToCreate);
+        degreeProgramStateDao.updateAll(statesToUpdate);
+        degreeProgramStateDao.deleteAll(fieldDefIdsAssociatedWithOldFormDef); // remove old field defs
         return dp;
     }
 
@@ -135,16 +175,24 @@ public class DegreeProgramDao extends BaseDao<Long, DegreeProgram> {
         }
         LOG.trace("Deleting degree program {}", id);
 
-        List<DegreeProgramState> dpStates = degreeProgramStateDao.readAllStatesByDegreeProgramId(id);
-        for (DegreeProgramState degreeProgramState : dpStates) {
-            degreeProgramStateDao.delete(degreeProgramState.getId());
-        }
+        degreeProgramStateDao.deleteAll(degreeProgramStateDao.readAllStatesIdsByDegreeProgramId(id));
 
         int result = jdbcTemplate.update(sql("deleteDegreeProgramById"),
                 new MapSqlParameterSource("id", id));
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
         if (result != 1) {
             throw new DaoException(String.format("Failed attempt to delete degree program %s - %s rows affected.",
                     id, result));
         }
     }
+
+    /**
+     * Sets the {@link CacheVersionDao} that records every write, so that other nodes evict their cached copies.
+     *
+     * @param cacheVersionDao {@link CacheVersionDao}
+     */
+    public void setCacheVersionDao(CacheVersionDao cacheVersionDao) {
+        this.cacheVersionDao = cacheVersionDao;
+    }
 }
@@ -1,8 +1,11 @@
 package edu.uwm.capstone.db;
 
+import edu.uwm.capstone.model.CacheVersion;
 import edu.uwm.capstone.model.DegreeProgramState;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.dao.BatchStatements;
+import edu.uwm.capstone.sql.dao.SnapshotCache;
 import edu.uwm.capstone.sql.exception.DaoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +15,7 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -19,20 +23,25 @@ public class DegreeProgramStateDao extends BaseDao<Long, DegreeProgramState> {
 
     private static final Logger LOG = LoggerFactory.getLogger(DegreeProgramStateDao.class);
 
+    private SnapshotCache<DegreeProgramCatalog> catalogCache = new SnapshotCache<>("degree program catalog");
+    private CacheVersionDao cacheVersionDao;
+
+    private final BatchStatements<DegreeProgramState> batchStatements = BatchStatements.<DegreeProgramState>builder()
+            .createStatement("createDegreeProgramState")
+            .updateStatement("updateDegreeProgramStateById")
+            .deleteStatement("deleteDegreeProgramStateById")
+            .parameters(dpState -> new MapSqlParameterSource(rowMapper.mapObject(dpState)))
+            .idSetter((dpState, id) -> dpState.setId(id.longValue()))
+            .beforeCreate(this::prepareCreate)
+            .beforeUpdate(this::prepareUpdate)
+            .build();
+
     @Override
     public DegreeProgramState create(DegreeProgramState dpState) {
-        if(dpState == null) {
-            throw new DaoException("Request to create a new degree program state received null.");
-        }
-        else if(dpState.getId() != null) {
-            throw new DaoException("When creating a new degree program state, the id should be null, but was set to " + dpState.getId());
-        } else if (dpState.getDegreeProgramId() == null) {
-            throw new DaoException("When creating a new degree program state, the degree program id should not be null.");
-        }
+        prepareCreate(dpState);
 
         LOG.trace("Creating degree program state {}", dpState);
 
-        dpState.setCreatedDate(LocalDateTime.now());
         KeyHolder keyHolder = new GeneratedKeyHolder();
         int result = jdbcTemplate.update(sql("createDegreeProgramState"),
                 new MapSqlParameterSource(rowMapper.mapObject(dpState)),
@@ -45,6 +54,8 @@ public class DegreeProgramStateDao extends BaseDao<Long, DegreeProgramState> {
 
         Long id = keyHolder.getKey().longValue();
         dpState.setId(id);
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
         return dpState;
     }
 
@@ -86,18 +97,14 @@ public class DegreeProgramStateDao extends BaseDao<Long, DegreeProgramState> {
 
     @Override
     public DegreeProgramState update(DegreeProgramState dpState) {
-        if(dpState == null) {
-            throw new DaoException("Request to update a degree program state received null.");
-        }
-        else if (dpState.getId() == null) {
-            throw new DaoException("When updating a degree program state, the id should not be null.");
-        }
+        prepareUpdate(dpState);
 
         LOG.trace("Updating a degree program state {}", dpState);
 
-        dpState.setUpdatedDate(LocalDateTime.now());
         int result = jdbcTemplate.update(sql("updateDegreeProgramStateById"),
                 new MapSqlParameterSource(rowMapper.mapObject(dpState)));
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
         if(result != 1) {
             throw new DaoException(String.format("Failed attempt to update degree program state %s - %s rows affected.",
                     dpState.toString(), result));
@@ -112,9 +119,90 @@ public class DegreeProgramStateDao extends BaseDao<Long, DegreeProgramState> {
         LOG.trace("Deleting degree program state {}", id);
         int result = jdbcTemplate.update(sql("deleteDegreeProgramStateById"),
                 new MapSqlParameterSource("id", id));
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
         if(result != 1) {
             throw new DaoException(String.format("Failed attempt to delete a degree program %s - %s rows affected.",
                     id, result));
         }
     }
+
+    /**
+     * Creates the given degree program states with JDBC batches and invalidates the catalog once for all of them.
+     */
+    @Override
+    public List<DegreeProgramState> createAll(List<DegreeProgramState> dpStates) {
+        super.createAll(dpStates);
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
+        return dpStates;
+    }
+
+    /**
+     * Updates the given degree program states with JDBC batches and invalidates the catalog once for all of them.
+     */
+    @Override
+    public List<DegreeProgramState> updateAll(List<DegreeProgramState> dpStates) {
+        super.updateAll(dpStates);
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
+        return dpStates;
+    }
+
+    /**
+     * Deletes the degree program states with the given ids with JDBC batches and invalidates the catalog once for
+     * all of them.
+     */
+    @Override
+    public void deleteAll(Collection<Long> ids) {
+        super.deleteAll(ids);
+        catalogCache.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.DEGREE_PROGRAM, null);
+    }
+
+    @Override
+    protected BatchStatements<DegreeProgramState> batchStatements() {
+        return batchStatements;
+    }
+
+    /**
+     * Shares the cache of the {@link DegreeProgramCatalog} with the {@link DegreeProgramDao}, so that writes of
+     * degree program states invalidate it.
+     *
+     * @param catalogCache
+     */
+    public void setCatalogCache(SnapshotCache<DegreeProgramCatalog> catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    private void prepareCreate(DegreeProgramState dpState) {
+        if(dpState == null) {
+            throw new DaoException("Request to create a new degree program state received null.");
+        }
+        else if(dpState.getId() != null) {
+            throw new DaoException("When creating a new degree program state, the id should be null, but was set to " + dpState.getId());
+        } else if (dpState.getDegreeProgramId() == null) {
+            throw new DaoException("When creating a new degree program state, the degree program id should not be null.");
+        }
+        dpState.setCreatedDate(LocalDateTime.now());
+    }
+
+    private void prepareUpdate(DegreeProgramState dpState) {
+        if(dpState == null) {
+            throw new DaoException("Request to update a degree program state received null.");
+        }
+        else if (dpState.getId() == null) {
+            throw new DaoException("When updating a degree program state, the id should not be null.");
+        }
+        dpState.setUpdatedDate(LocalDateTime.now());
+    }
+
+    /**
+     * Sets the {@link CacheVersionDao} that records every write, so that other nodes evict their cached copies.
+     *
+     * @param cacheVersionDao {@link CacheVersionDao}
+     */
+    public void setCacheVersionDao(CacheVersionDao cacheVersionDao) {
+        this.cacheVersionDao = cacheVersionDao;
+    }
 }
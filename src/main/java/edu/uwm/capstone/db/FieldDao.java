@@ -3,6 +3,7 @@ package edu.uwm.capstone.db;
 import edu.uwm.capstone.model.Field;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.dao.BatchStatements;
 import edu.uwm.capstone.sql.exception.DaoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,21 +17,23 @@ import java.util.Collections;
 import java.util.List;
 public class FieldDao extends BaseDao<Long, Field>{
     private static final Logger LOG = LoggerFactory.getLogger(FieldDao.class);
+
+    private final BatchStatements<Field> batchStatements = BatchStatements.<Field>builder()
+            .createStatement("createField")
+            .updateStatement("updateField")
+            .deleteStatement("deleteField")
+            .parameters(field -> new MapSqlParameterSource(rowMapper.mapObject(field)))
+            .idSetter((field, id) -> field.setId(id.longValue()))
+            .beforeCreate(this::prepareCreate)
+            .beforeUpdate(this::prepareUpdate)
+            .build();
+
     @Override
     public Field create(Field field) {
-        if (field == null) {
-            throw new DaoException("field cannot be null");
-        } else if (field.getId() != null) {
-            throw new DaoException("When creating a new field, the id should be null, but was set to " + field.getId());
-        } else if (field.getFormId() == null) {
-            throw new DaoException("When creating a new field, the form id should not be null");
-        } else if (field.getFieldDefId() == null) {
-            throw new DaoException("When creating a new field, the field definition should not be null");
-        }
+        prepareCreate(field);
 
         LOG.trace("Creating field {}", field);
 
-        field.setCreatedDate(LocalDateTime.now());
         KeyHolder keyHolder = new GeneratedKeyHolder();
         int result = this.jdbcTemplate.update(sql("createField"),
                 new MapSqlParameterSource(rowMapper.mapObject(field)), keyHolder, new String[]{BaseRowMapper.BaseColumnType.ID.name()});
@@ -64,17 +67,10 @@ public class FieldDao extends BaseDao<Long, Field>{
 
     @Override
     public Field update(Field field) {
-        if (field == null) {
-            throw new DaoException("field cannot be null");
-        } else if (field.getId() == null) {
-            throw new DaoException("When updating a field, the id should not be null");
-        }  else if (field.getFormId() == null) {
-            throw new DaoException("When updating a field, the form id should not be null");
-        }
+        prepareUpdate(field);
 
         LOG.trace("Updating field {}", field);
 
-        field.setUpdatedDate(LocalDateTime.now());
         int result = this.jdbcTemplate.update(sql("updateField"), new MapSqlParameterSource(rowMapper.mapObject(field)));
         if (result != 1) {
             throw new DaoException(String.format("Failed attempt to update field %s - affected %s rows", field.toString(), result));
@@ -95,4 +91,33 @@ public class FieldDao extends BaseDao<Long, Field>{
         LOG.trace("Deleting fields with form id {}", id);
         this.jdbcTemplate.update(sql("deleteFieldsByFormId"), new MapSqlParameterSource("form_id", id));
     }
+
+    @Override
+    protected BatchStatements<Field> batchStatements() {
+        return batchStatements;
+    }
+
+    private void prepareCreate(Field field) {
+        if (field == null) {
+            throw new DaoException("field cannot be null");
+        } else if (field.getId() != null) {
+            throw new DaoException("When creating a new field, the id should be null, but was set to " + field.getId());
+        } else if (field.getFormId() == null) {
+            throw new DaoException("When creating a new field, the form id should not be null");
+        } else if (field.getFieldDefId() == null) {
+            throw new DaoException("When creating a new field, the field definition should not be null");
+        }
+        field.setCreatedDate(LocalDateTime.now());
+    }
+
+    private void prepareUpdate(Field field) {
+        if (field == null) {
+            throw new DaoException("field cannot be null");
+        } else if (field.getId() == null) {
+            throw new DaoException("When updating a field, the id should not be null");
+        }  else if (field.getFormId() == null) {
+            throw new DaoException("When updating a field, the form id should not be null");
+        }
+        field.setUpdatedDate(LocalDateTime.now());
+    }
 }
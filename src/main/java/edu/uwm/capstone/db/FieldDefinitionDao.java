@@ -3,6 +3,7 @@ package edu.uwm.capstone.db;
 import edu.uwm.capstone.model.FieldDefinition;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.dao.BatchStatements;
 import edu.uwm.capstone.sql.exception.DaoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +19,16 @@ import java.util.List;
 public class FieldDefinitionDao extends BaseDao<Long, FieldDefinition> {
     private static final Logger LOG = LoggerFactory.getLogger(FieldDefinitionDao.class);
 
+    private final BatchStatements<FieldDefinition> batchStatements = BatchStatements.<FieldDefinition>builder()
+            .createStatement("createFieldDef")
+            .updateStatement("updateFieldDef")
+            .deleteStatement("deleteFieldDef")
+            .parameters(fieldDef -> new MapSqlParameterSource(rowMapper.mapObject(fieldDef)))
+            .idSetter((fieldDef, id) -> fieldDef.setId(id.longValue()))
+            .beforeCreate(this::prepareCreate)
+            .beforeUpdate(this::prepareUpdate)
+            .build();
+
     /**
      * Given an instantiated {@link FieldDefinition} object, creates a field definition.
      *
@@ -26,17 +37,10 @@ public class FieldDefinitionDao extends BaseDao<Long, FieldDefinition> {
      */
     @Override
     public FieldDefinition create(FieldDefinition fieldDef) {
-        if (fieldDef == null) {
-            throw new DaoException("field definition cannot be null");
-        } else if (fieldDef.getId() != null) {
-            throw new DaoException("When creating a new field definition the id should be null, but was set to " + fieldDef.getId());
-        } else if (fieldDef.getFormDefId() == null) {
-            throw new DaoException("When creating a new field definition the form definition id should not be null");
-        }
+        prepareCreate(fieldDef);
 
         LOG.trace("Creating field definition {}", fieldDef);
 
-        fieldDef.setCreatedDate(LocalDateTime.now());
         KeyHolder keyHolder = new GeneratedKeyHolder();
         int result = this.jdbcTemplate.update(sql("createFieldDef"),
                 new MapSqlParameterSource(rowMapper.mapObject(fieldDef)), keyHolder, new String[]{BaseRowMapper.BaseColumnType.ID.name()});
@@ -104,15 +108,10 @@ public class FieldDefinitionDao extends BaseDao<Long, FieldDefinition> {
      */
     @Override
     public FieldDefinition update(FieldDefinition fieldDef) {
-        if (fieldDef == null) {
-            throw new DaoException("field definition cannot be null");
-        } else if (fieldDef.getId() == null) {
-            throw new DaoException("When updating a field definition, the id should not be null");
-        }
+        prepareUpdate(fieldDef);
 
         LOG.trace("Updating field definition {}", fieldDef);
 
-        fieldDef.setUpdatedDate(LocalDateTime.now());
         int result = this.jdbcTemplate.update(sql("updateFieldDef"), new MapSqlParameterSource(rowMapper.mapObject(fieldDef)));
         if (result != 1) {
             throw new DaoException(String.format("Failed attempt to update field definition %s - affected %s rows", fieldDef.toString(), result));
@@ -146,4 +145,29 @@ public class FieldDefinitionDao extends BaseDao<Long, FieldDefinition> {
             throw new DaoException(String.format("Failed attempt to delete field definitions with form def id %s affected %s rows", id, result));
         }
     }
+
+    @Override
+    protected BatchStatements<FieldDefinition> batchStatements() {
+        return batchStatements;
+    }
+
+    private void prepareCreate(FieldDefinition fieldDef) {
+        if (fieldDef == null) {
+            throw new DaoException("field definition cannot be null");
+        } else if (fieldDef.getId() != null) {
+            throw new DaoException("When creating a new field definition the id should be null, but was set to " + fieldDef.getId());
+        } else if (fieldDef.getFormDefId() == null) {
+            throw new DaoException("When creating a new field definition the form definition id should not be null");
+        }
+        fieldDef.setCreatedDate(LocalDateTime.now());
+    }
+
+    private void prepareUpdate(FieldDefinition fieldDef) {
+        if (fieldDef == null) {
+            throw new DaoException("field definition cannot be null");
+        } else if (fieldDef.getId() == null) {
+            throw new DaoException("When updating a field definition, the id should not be null");
+        }
+        fieldDef.setUpdatedDate(LocalDateTime.now());
+    }
 }
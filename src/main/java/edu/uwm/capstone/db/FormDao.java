@@ -1,22 +1,27 @@
 package edu.uwm.capstone.db;
 import edu.uwm.capstone.model.Field;
 import edu.uwm.capstone.model.Form;
+import edu.uwm.capstone.model.FormFilter;
+import edu.uwm.capstone.sql.dao.AggregateLoader;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
 import edu.uwm.capstone.sql.exception.DaoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FormDao extends BaseDao<Long, Form>{
     private static final Logger LOG = LoggerFactory.getLogger(FormDao.class);
@@ -24,7 +29,15 @@ public class FormDao extends BaseDao<Long, Form>{
     @Autowired
     private FieldDao fieldDao;
 
+    /**
+     * Create a {@link Form} and its {@link Field}s. Runs in a transaction so that a failure to create any of the
+     * fields also rolls back the form.
+     *
+     * @param form {@link Form}
+     * @return {@link Form}
+     */
     @Override
+    @Transactional
     public Form create(Form form) {
         if (form == null) {
             throw new DaoException("form cannot be null");
@@ -49,16 +62,10 @@ public class FormDao extends BaseDao<Long, Form>{
 
         Long id = keyHolder.getKey().longValue();
         form.setId(id);
-        try {                       // TODO there may be a better way to do this
-            for (Field fd : form) {
-                fd.setFormId(id);
-                fieldDao.create(fd);
-            }
-        } catch (DaoException | DataIntegrityViolationException e) {
-            // need to remove the form if creating any of the fields fails
-            delete(id);
-            throw e;
+        for (Field fd : form) {
+            fd.setFormId(id);
         }
+        fieldDao.createAll(form.getFields());
         return form;
     }
 
@@ -74,43 +81,124 @@ public class FormDao extends BaseDao<Long, Form>{
         }
     }
 
+    /**
+     * Returns true if a {@link Form} with the given id exists, without reading it.
+     *
+     * @param id id of the form
+     * @return true if the form exists
+     */
+    public boolean exists(Long id) {
+        LOG.trace("Checking that form {} exists", id);
+        return queryForExists(sql("existsForm"), new MapSqlParameterSource("id", id));
+    }
+
+    /**
+     * Returns true if any {@link Form} uses the given form definition, without reading the forms.
+     *
+     * @param formDefId id of the form definition
+     * @return true if at least one form uses the form definition
+     */
+    public boolean existsByFormDefId(Long formDefId) {
+        LOG.trace("Checking for forms with form definition id {}", formDefId);
+        return queryForExists(sql("existsFormByFormDefId"), new MapSqlParameterSource("form_def_id", formDefId));
+    }
+
     public List<Form> readAll() {
         LOG.trace("Reading all form");
-        List<Form> forms = this.jdbcTemplate.query(sql("readAllForms"), rowMapper);
-        // uncomment this to return forms with their fields
-        for (Form fd : forms) {
-            fd.setFields(fieldDao.readFieldsByFormId(fd.getId()));
-        }
-        return forms;
+        return formLoader().load(sql("readAllForms"));
     }
 
     public List<Form> readAllByUserId(Long userId) {
         LOG.trace("Reading all forms by user id {}", userId);
-        List<Form> forms = this.jdbcTemplate.query(sql("readAllFormsByUserId"), new MapSqlParameterSource("user_id", userId), rowMapper);
-        // uncomment this to return forms with their fields
-        for (Form fd : forms) {
-            fd.setFields(fieldDao.readFieldsByFormId(fd.getId()));
-        }
-        return forms;
+        return formLoader().load(sql("readAllFormsByUserId"), new MapSqlParameterSource("user_id", userId));
     }
 
     public List<Form> readAllByFormDefId(Long formDefId) {
         LOG.trace("Reading all forms by form definition id {}", formDefId);
-        List<Form> forms = this.jdbcTemplate.query(sql("readAllFormsByFormDefId"), new MapSqlParameterSource("form_def_id", formDefId), rowMapper);
-        // uncomment this to return forms with their fields
-        for (Form fd : forms) {
-            fd.setFields(fieldDao.readFieldsByFormId(fd.getId()));
-        }
-        return forms;
+        return formLoader().load(sql("readAllFormsByFormDefId"), new MapSqlParameterSource("form_def_id", formDefId));
     }
 
     public List<Form> readAllByPantherId(String pantherId) {
         LOG.trace("Reading all forms by user's Panther ID.");
-        List<Form> forms = this.jdbcTemplate.query(sql("readAllFormsByPantherId"), new MapSqlParameterSource("panther_id", pantherId), rowMapper);
-        for (Form fd : forms) {
-            fd.setFields(fieldDao.readFieldsByFormId(fd.getId()));
+        return formLoader().load(sql("readAllFormsByPantherId"), new MapSqlParameterSource("panther_id", pantherId));
+    }
+
+    /**
+     * Returns a lazily consumed stream of the {@link Form}s with the given form definition id, ordered by id, each
+     * with all of its {@link Field}s. Forms are read from a streaming result set and their fields are loaded for
+     * one chunk of forms at a time, so memory use does not grow with the number of forms.
+     * The stream takes a connection when it is first consumed and holds it until it is closed.
+     *
+     * @param formDefId id of the form definition
+     * @return stream of {@link Form}s
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<Form> streamAllByFormDefId(Long formDefId) {
+        LOG.trace("Streaming all forms by form definition id {}", formDefId);
+        Stream<Form> forms = queryForStream(sql("readAllFormsByFormDefId"),
+                new MapSqlParameterSource("form_def_id", formDefId), (RowMapper<Form>) rowMapper);
+        return formLoader().assemble(forms);
+    }
+
+    /**
+     * Returns the {@link Form}s matching the provided {@link FormFilter}, ordered by id and starting after
+     * {@link FormFilter#getAfterId()}.
+     *
+     * @param filter {@link FormFilter}
+     * @param limit  maximum number of forms to return
+     * @return list of {@link Form}s
+     */
+    public List<Form> readPage(FormFilter filter, int limit) {
+        LOG.trace("Reading {} forms matching {}", limit, filter);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return formLoader().load(pageStatement(filter, limit, params), params);
+    }
+
+    /**
+     * Builds the statement reading a page of {@link Form}s with a condition for each filter that is set, so that
+     * the user, form definition and approval filters use their (column, id) indexes.
+     *
+     * @param filter {@link FormFilter}
+     * @param limit  maximum number of forms to return
+     * @param params receives the parameters of the statement
+     * @return the statement
+     */
+    String pageStatement(FormFilter filter, int limit, MapSqlParameterSource params) {
+        StringBuilder statement = new StringBuilder(sql("readFormsPage").trim());
+        params.addValue("after_id", filter.getAfterId() == null ? 0L : filter.getAfterId());
+        and(statement, params, "forms.user_id = :user_id", "user_id", filter.getUserId());
+        and(statement, params, "forms.form_def_id = :form_def_id", "form_def_id", filter.getFormDefId());
+        if (filter.getApproval() == FormFilter.Approval.PENDING) {
+            statement.append("\n  AND forms.approved IS NULL");
+        } else if (filter.getApproval() != null) {
+            and(statement, params, "forms.approved = :approved", "approved", filter.getApproval() == FormFilter.Approval.APPROVED);
         }
-        return forms;
+        and(statement, params, "forms.created_date >= :created_from", "created_from", BaseRowMapper.javaTimeFromDate(filter.getCreatedFrom()));
+        and(statement, params, "forms.created_date < :created_to", "created_to", BaseRowMapper.javaTimeFromDate(filter.getCreatedTo()));
+        and(statement, params, "forms.updated_date >= :updated_from", "updated_from", BaseRowMapper.javaTimeFromDate(filter.getUpdatedFrom()));
+        and(statement, params, "forms.updated_date < :updated_to", "updated_to", BaseRowMapper.javaTimeFromDate(filter.getUpdatedTo()));
+        params.addValue("limit", limit);
+        return statement.append("\nORDER BY forms.id\nLIMIT :limit").toString();
+    }
+
+    /**
+     * Returns an {@link AggregateLoader} that reads {@link Form}s together with all of their {@link Field}s
+     * in two queries.
+     *
+     * @return AggregateLoader for forms
+     */
+    @SuppressWarnings("unchecked")
+    private AggregateLoader<Long, Form, Field> formLoader() {
+        return AggregateLoader.<Long, Form, Field>builder()
+                .jdbcTemplate(jdbcTemplate)
+                .parentMapper((RowMapper<Form>) rowMapper)
+                .parentKey(Form::getId)
+                .childStatement(sql("readFieldsByFormIds"))
+                .childKeysParameter("form_ids")
+                .childMapper((RowMapper<Field>) fieldDao.getRowMapper())
+                .childParentKey(Field::getFormId)
+                .assembler(Form::setFields)
+                .build();
     }
 
     @Override
@@ -131,15 +219,17 @@ public class FormDao extends BaseDao<Long, Form>{
 
         HashSet<Long> fieldIdsAssociatedWithOldForm = fieldDao.readFieldsByFormId(form.getId()).stream().map(Field::getId).collect(Collectors.toCollection(HashSet::new));
 
+        List<Field> fieldsToCreate = new ArrayList<>();
+        List<Field> fieldsToUpdate = new ArrayList<>();
         Long fieldId;
         for (Field f : form) {
             fieldId = f.getId();
             if (fieldId == null) {                                              // create new field if has null id
                 f.setFormId(form.getId());
-                fieldDao.create(f);
+                fieldsToCreate.add(f);
             } else if (fieldIdsAssociatedWithOldForm.contains(fieldId)) {       // update field if it's connected to form
                 fieldIdsAssociatedWithOldForm.remove(fieldId);
-                fieldDao.update(f);
+                fieldsToUpdate.add(f);
             }
         }
 
@@ -147,7 +237,9 @@ public class FormDao extends BaseDao<Long, Form>{
         //  or we may want to prevent a field update failure...
         //  this would normally be done in the service layer, but idk if we should do it here too
 
-        fieldIdsAssociatedWithOldForm.forEach(fId -> fieldDao.delete(fId));
+        fieldDao.createAll(fieldsToCreate);
+        fieldDao.updateAll(fieldsToUpdate);
+        fieldDao.deleteAll(fieldIdsAssociatedWithOldForm);
         return form;
     }
 
@@ -162,18 +254,25 @@ public class FormDao extends BaseDao<Long, Form>{
         }
     }
 
+    /**
+     * Sets the approval of the {@link Form} with the given id. The form is only read for the response once the
+     * update has found it.
+     *
+     * @param id         id of the {@link Form}
+     * @param isApproved approval to set
+     * @return the updated {@link Form}, or null if no form has the given id
+     */
     public Form approve(Long id, boolean isApproved) {
-        LOG.trace(isApproved ? "Approving" : "Rejecting" + "form %s", id);
-        Form thisForm = read(id);
-        thisForm.setApproved(isApproved);
-
+        LOG.trace("{} form {}", isApproved ? "Approving" : "Rejecting", id);
         int result = this.jdbcTemplate.update(sql("updateApproval"), new MapSqlParameterSource("id", id).
                 addValue("approved", isApproved));
 
-        if (result != 1) {
-            throw new DaoException(String.format("Failed attempt to delete form %s affected %s rows", id, result));
+        if (result == 0) {
+            return null;
+        } else if (result != 1) {
+            throw new DaoException(String.format("Failed attempt to change approval of form %s affected %s rows", id, result));
         }
 
-        return thisForm;
+        return read(id);
     }
 }
@@ -1,28 +1,38 @@
 package edu.uwm.capstone.db;
 
+import edu.uwm.capstone.model.CacheVersion;
 import edu.uwm.capstone.model.FieldDefinition;
 import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.sql.dao.AggregateLoader;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.dao.EntityCache;
 import edu.uwm.capstone.sql.exception.DaoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class FormDefinitionDao extends BaseDao<Long, FormDefinition> {
     private static final Logger LOG = LoggerFactory.getLogger(FormDefinitionDao.class);
 
+    public static final String CACHE_NAME = "formDefinitions";
+
     @Autowired
     private FieldDefinitionDao fieldDefinitionDao;
 
+    private EntityCache<Long, FormDefinition> cache = new EntityCache<>(CACHE_NAME, EntityCache.DEFAULT_MAXIMUM_SIZE, FormDefinitionDao::copyOf);
+    private CacheVersionDao cacheVersionDao;
+
     /**
      * Given an instantiated {@link FormDefinition}, sets the create date and inserts a new record in the database.
      *
@@ -50,42 +60,59 @@ public class FormDefinitionDao extends BaseDao<Long, FormDefinition> {
         formDef.setId(id);
         for (FieldDefinition fd : formDef) {
             fd.setFormDefId(id);
-            fieldDefinitionDao.create(fd);
         }
+        fieldDefinitionDao.createAll(formDef.getFieldDefs());
+        cache.invalidate(id);
+        cacheVersionDao.bump(CacheVersion.EntityType.FORM_DEFINITION, id);
         return formDef;
     }
 
     /**
-     * Returns a {@link FormDefinition} with the given ID from database.
+     * Returns a {@link FormDefinition} with the given ID from the cache, reading it from the database if it is not
+     * cached. The returned form definition is a copy whose field definitions cannot be modified.
      *
      * @param id
      * @return
      */
     @Override
     public FormDefinition read(Long id) {
-        LOG.trace("Reading form definition {}", id);
-        try {
-            FormDefinition formDef = (FormDefinition) this.jdbcTemplate.queryForObject(sql("readFormDef"), new MapSqlParameterSource("id", id), rowMapper);
-            formDef.setFieldDefs(fieldDefinitionDao.readFieldDefsByFormDefId(id));
-            return formDef;
-        } catch (EmptyResultDataAccessException | NullPointerException e) {
-            return null;
-        }
+        return cache.get(id, key -> {
+            LOG.trace("Reading form definition {}", key);
+            return formDefinitionLoader().loadOne(sql("readFormDef"), new MapSqlParameterSource("id", key));
+        });
     }
 
     /**
-     * Returns all {@link FormDefinition} objects from the database.
+     * Returns all {@link FormDefinition} objects from the cache, reading them from the database if they are not
+     * cached. The returned form definitions are copies whose field definitions cannot be modified.
      *
      * @return List of FormDefinitions
      */
     public List<FormDefinition> readAll() {
-        LOG.trace("Reading all form definitions");
-        List<FormDefinition> formDefinitions = this.jdbcTemplate.query(sql("readAllFormDefs"), rowMapper);
-        // uncomment this to return form definitions with their field definitions
-        for (FormDefinition fd : formDefinitions) {
-            fd.setFieldDefs(fieldDefinitionDao.readFieldDefsByFormDefId(fd.getId()));
-        }
-        return formDefinitions;
+        return cache.getAll(() -> {
+            LOG.trace("Reading all form definitions");
+            return formDefinitionLoader().load(sql("readAllFormDefs"));
+        }, FormDefinition::getId);
+    }
+
+    /**
+     * Returns an {@link AggregateLoader} that reads {@link FormDefinition}s together with all of their
+     * {@link FieldDefinition}s in two queries.
+     *
+     * @return AggregateLoader for form definitions
+     */
+    @SuppressWarnings("unchecked")
+    private AggregateLoader<Long, FormDefinition, FieldDefinition> formDefinitionLoader() {
+        return AggregateLoader.<Long, FormDefinition, FieldDefinition>builder()
+                .jdbcTemplate(jdbcTemplate)
+                .parentMapper((RowMapper<FormDefinition>) rowMapper)
+                .parentKey(FormDefinition::getId)
+                .childStatement(sql("readFieldDefsByFormDefIds"))
+                .childKeysParameter("form_def_ids")
+                .childMapper((RowMapper<FieldDefinition>) fieldDefinitionDao.getRowMapper())
+                .childParentKey(FieldDefinition::getFormDefId)
+                .assembler(FormDefinition::setFieldDefs)
+                .build();
     }
 
     /**
@@ -111,19 +138,25 @@ public class FormDefinitionDao extends BaseDao<Long, FormDefinition> {
 
         HashSet<Long> fieldDefIdsAssociatedWithOldFormDef = new HashSet<>(fieldDefinitionDao.readFieldDefIdsByFormDefId(formDef.getId()));
 
+        List<FieldDefinition> fieldDefsToCreate = new ArrayList<>();
+        List<FieldDefinition> fieldDefsToUpdate = new ArrayList<>();
         Long fieldDefId;
         for (FieldDefinition fd : formDef) {
             fieldDefId = fd.getId();
             if (fieldDefId == null) {                                              // create new field def if has null id
                 fd.setFormDefId(formDef.getId());
-                fieldDefinitionDao.create(fd);
+                fieldDefsToCreate.add(fd);
             } else if (fieldDefIdsAssociatedWithOldFormDef.contains(fieldDefId)) { // update field def if it's connected to formDef
                 fieldDefIdsAssociatedWithOldFormDef.remove(fieldDefId);
-                fieldDefinitionDao.update(fd);
+                fieldDefsToUpdate.add(fd);
             }
         }
 
-        fieldDefIdsAssociatedWithOldFormDef.forEach(fdId -> fieldDefinitionDao.delete(fdId)); // remove old field defs
+        fieldDefinitionDao.createAll(fieldDefsToCreate);
+        fieldDefinitionDao.updateAll(fieldDefsToUpdate);
+        fieldDefinitionDao.deleteAll(fieldDefIdsAssociatedWithOldFormDef); // remove old field defs
+        cache.invalidate(formDef.getId());
+        cacheVersionDao.bump(CacheVersion.EntityType.FORM_DEFINITION, formDef.getId());
         return formDef;
     }
 
@@ -137,9 +170,58 @@ public class FormDefinitionDao extends BaseDao<Long, FormDefinition> {
         LOG.trace("Deleting form definition {}", id);
         fieldDefinitionDao.deleteFieldDefsByFromDefId(id);
         int result = this.jdbcTemplate.update(sql("deleteFormDef"), new MapSqlParameterSource("id", id));
+        cache.invalidate(id);
+        cacheVersionDao.bump(CacheVersion.EntityType.FORM_DEFINITION, id);
 
         if (result != 1) {
             throw new DaoException(String.format("Failed attempt to delete form definition %s affected %s rows", id, result));
         }
     }
+
+    /**
+     * Replaces the cache of form definitions with an empty one holding at most the given number of form definitions.
+     *
+     * @param maximumSize
+     */
+    public void setCacheSize(long maximumSize) {
+        cache = new EntityCache<>(CACHE_NAME, maximumSize, FormDefinitionDao::copyOf);
+    }
+
+    public EntityCache<Long, FormDefinition> getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns a copy of the given {@link FormDefinition} with copies of its {@link FieldDefinition}s in a new list, so
+     * that callers may modify the copy without changing the cached form definition.
+     *
+     * @param formDef
+     * @return
+     */
+    public static FormDefinition copyOf(FormDefinition formDef) {
+        List<FieldDefinition> fieldDefs = null;
+        if (formDef.getFieldDefs() != null) {
+            fieldDefs = formDef.getFieldDefs().stream().map(fd -> {
+                FieldDefinition copy = new FieldDefinition(fd.getFormDefId(), fd.getLabel(), fd.getFieldIndex(), fd.getInputType(), fd.getDataType());
+                copy.setId(fd.getId());
+                copy.setCreatedDate(fd.getCreatedDate());
+                copy.setUpdatedDate(fd.getUpdatedDate());
+                return copy;
+            }).collect(Collectors.toCollection(ArrayList::new));
+        }
+        FormDefinition copy = new FormDefinition(formDef.getName(), fieldDefs);
+        copy.setId(formDef.getId());
+        copy.setCreatedDate(formDef.getCreatedDate());
+        copy.setUpdatedDate(formDef.getUpdatedDate());
+        return copy;
+    }
+
+    /**
+     * Sets the {@link CacheVersionDao} that records every write, so that other nodes evict their cached copies.
+     *
+     * @param cacheVersionDao {@link CacheVersionDao}
+     */
+    public void setCacheVersionDao(CacheVersionDao cacheVersionDao) {
+        this.cacheVersionDao = cacheVersionDao;
+    }
 }
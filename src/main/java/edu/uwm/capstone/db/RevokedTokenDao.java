@@ -0,0 +1,124 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.RevokedToken;
+import edu.uwm.capstone.sql.dao.BaseDao;
+import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.exception.DaoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Records token revocations in the revoked_tokens table, from which
+ * {@link edu.uwm.capstone.security.TokenRevocations} of every node reads the revocations it has not seen yet.
+ */
+public class RevokedTokenDao extends BaseDao<Long, RevokedToken> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RevokedTokenDao.class);
+
+    /**
+     * Create a {@link RevokedToken} object. Its created date is set to now, which revokes the tokens of its user
+     * issued before.
+     *
+     * @param revokedToken {@link RevokedToken}
+     * @return {@link RevokedToken}
+     */
+    @Override
+    public RevokedToken create(RevokedToken revokedToken) {
+        if (revokedToken == null) {
+            throw new DaoException("Request to create a new revoked token received null");
+        } else if (revokedToken.getId() != null) {
+            throw new DaoException("When creating a new revoked token the id should be null, but was set to " + revokedToken.getId());
+        }
+
+        LOG.trace("Creating revoked token {}", revokedToken);
+
+        revokedToken.setCreatedDate(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int result = this.jdbcTemplate.update(sql("createRevokedToken"),
+                new MapSqlParameterSource(rowMapper.mapObject(revokedToken)), keyHolder, new String[]{BaseRowMapper.BaseColumnType.ID.name()});
+
+        if (result != 1) {
+            throw new DaoException(String.format("Failed attempt to create revoked token %s - affected %s rows", revokedToken.toString(), result));
+        }
+
+        revokedToken.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        return revokedToken;
+    }
+
+    /**
+     * Retrieve a {@link RevokedToken} object by its id.
+     *
+     * @param id
+     * @return {@link RevokedToken}
+     */
+    @Override
+    public RevokedToken read(Long id) {
+        LOG.trace("Reading revoked token {}", id);
+        try {
+            return (RevokedToken) this.jdbcTemplate.queryForObject(sql("readRevokedToken"), new MapSqlParameterSource("id", id), rowMapper);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the {@link RevokedToken}s created after the given time that have not expired at the other given time,
+     * oldest first.
+     *
+     * @param after        time after which the revocations were created, or null for every revocation
+     * @param notExpiredAt time at which the revocations must not have expired
+     * @return list of {@link RevokedToken}s
+     */
+    @SuppressWarnings("unchecked")
+    public List<RevokedToken> readCreatedAfter(LocalDateTime after, LocalDateTime notExpiredAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("created_date", after == null ? 0L : BaseRowMapper.javaTimeFromDate(after))
+                .addValue("expires_date", BaseRowMapper.javaTimeFromDate(notExpiredAt));
+        return this.jdbcTemplate.query(sql("readRevokedTokensCreatedAfter"), params, (RowMapper<RevokedToken>) rowMapper);
+    }
+
+    /**
+     * Revoked tokens are never modified.
+     *
+     * @throws DaoException always
+     */
+    @Override
+    public RevokedToken update(RevokedToken revokedToken) {
+        throw new DaoException("Revoked tokens cannot be updated");
+    }
+
+    /**
+     * Delete a {@link RevokedToken} object by its id.
+     *
+     * @param id
+     */
+    @Override
+    public void delete(Long id) {
+        LOG.trace("Deleting revoked token {}", id);
+        int result = this.jdbcTemplate.update(sql("deleteRevokedToken"), new MapSqlParameterSource("id", id));
+        if (result != 1) {
+            throw new DaoException(String.format("Failed attempt to delete revoked token %s affected %s rows", id, result));
+        }
+    }
+
+    /**
+     * Delete the {@link RevokedToken}s that expired before the given time.
+     *
+     * @param before
+     * @return number of deleted revoked tokens
+     */
+    public int deleteExpiredBefore(LocalDateTime before) {
+        LOG.trace("Deleting revoked tokens expired before {}", before);
+        return this.jdbcTemplate.update(sql("deleteRevokedTokensExpiredBefore"),
+                new MapSqlParameterSource("expires_date", BaseRowMapper.javaTimeFromDate(before)));
+    }
+}
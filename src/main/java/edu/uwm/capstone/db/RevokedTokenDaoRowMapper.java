@@ -0,0 +1,52 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.RevokedToken;
+import edu.uwm.capstone.sql.dao.BaseRowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static edu.uwm.capstone.db.RevokedTokenDaoRowMapper.RevokedTokenColumnType.EXPIRES_DATE;
+import static edu.uwm.capstone.db.RevokedTokenDaoRowMapper.RevokedTokenColumnType.USER_ID;
+import static edu.uwm.capstone.sql.dao.BaseRowMapper.BaseColumnType.CREATED_DATE;
+import static edu.uwm.capstone.sql.dao.BaseRowMapper.BaseColumnType.ID;
+
+public class RevokedTokenDaoRowMapper extends BaseRowMapper<RevokedToken> {
+
+    public enum RevokedTokenColumnType {
+        USER_ID(),
+        EXPIRES_DATE();
+
+        private String columnName;
+
+        RevokedTokenColumnType() {
+            columnName = name().toLowerCase();
+        }
+
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    @Override
+    public Map<String, Object> mapObject(RevokedToken object) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(ID.getColumnName(), object.getId());
+        map.put(USER_ID.getColumnName(), object.getUserId());
+        map.put(EXPIRES_DATE.getColumnName(), javaTimeFromDate(object.getExpiresDate()));
+        map.put(CREATED_DATE.getColumnName(), javaTimeFromDate(object.getCreatedDate()));
+        return map;
+    }
+
+    @Override
+    public RevokedToken mapRow(ResultSet rs, int rowNum) throws SQLException {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setId(rs.getLong(ID.getColumnName()));
+        revokedToken.setUserId(rs.getLong(USER_ID.getColumnName()));
+        revokedToken.setExpiresDate(dateFromJavaTime(rs.getObject(EXPIRES_DATE.getColumnName())));
+        revokedToken.setCreatedDate(dateFromJavaTime(rs.getObject(CREATED_DATE.getColumnName())));
+        return revokedToken;
+    }
+}
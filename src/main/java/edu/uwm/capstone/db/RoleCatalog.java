@@ -0,0 +1,113 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.Role;
+import edu.uwm.capstone.security.Authorities;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of every {@link Role} and its {@link Authorities}, indexed by role id and by role name.
+ * <p>
+ * The roles held by the catalog are never handed out; every accessor returns copies.
+ */
+public final class RoleCatalog {
+
+    private final Map<Long, Role> rolesById;
+    private final Map<String, Role> rolesByName;
+    private final Map<Long, Long> authorityMasksById;
+
+    /**
+     * @param roles every role with its authorities, in the order they are returned by {@link #readAll()}
+     */
+    RoleCatalog(List<Role> roles) {
+        Map<Long, Role> byId = new LinkedHashMap<>();
+        Map<String, Role> byName = new HashMap<>();
+        Map<Long, Long> masks = new HashMap<>();
+        for (Role role : roles) {
+            Role entry = copyOf(role, role.getAuthorities() == null ? Collections.emptySet() : role.getAuthorities());
+            byId.put(entry.getId(), entry);
+            byName.put(entry.getName(), entry);
+            masks.put(entry.getId(), Authorities.toMask(entry.getAuthorities()));
+        }
+        this.rolesById = Collections.unmodifiableMap(byId);
+        this.rolesByName = Collections.unmodifiableMap(byName);
+        this.authorityMasksById = Collections.unmodifiableMap(masks);
+    }
+
+    /**
+     * @param roleId
+     * @return a copy of the role with the given id, or null if it does not exist
+     */
+    public Role read(Long roleId) {
+        Role role = rolesById.get(roleId);
+        return role == null ? null : copyOf(role, role.getAuthorities());
+    }
+
+    /**
+     * @param roleName
+     * @return a copy of the role with the given name, or null if it does not exist
+     */
+    public Role readByName(String roleName) {
+        Role role = rolesByName.get(roleName);
+        return role == null ? null : copyOf(role, role.getAuthorities());
+    }
+
+    /**
+     * @return copies of every role
+     */
+    public List<Role> readAll() {
+        return rolesById.values().stream()
+                .map(role -> copyOf(role, role.getAuthorities()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param roleName
+     * @return true if a role with the given name exists
+     */
+    public boolean contains(String roleName) {
+        return rolesByName.containsKey(roleName);
+    }
+
+    /**
+     * @param roleId
+     * @return name of the role with the given id, or null if it does not exist
+     */
+    public String name(Long roleId) {
+        Role role = rolesById.get(roleId);
+        return role == null ? null : role.getName();
+    }
+
+    /**
+     * Returns the union of the authorities of the roles with the given ids, the bitwise OR of their authority masks.
+     * Ids of roles that do not exist are ignored.
+     *
+     * @param roleIds
+     * @return a new, modifiable set of authorities
+     */
+    public EnumSet<Authorities> authorities(Collection<Long> roleIds) {
+        long mask = 0;
+        for (Long roleId : roleIds) {
+            mask |= authorityMasksById.getOrDefault(roleId, 0L);
+        }
+        return Authorities.fromMask(mask);
+    }
+
+    private static Role copyOf(Role role, Set<Authorities> authorities) {
+        EnumSet<Authorities> copy = EnumSet.noneOf(Authorities.class);
+        copy.addAll(authorities);
+        Role result = new Role(role.getName(), role.getDescription(), copy);
+        result.setId(role.getId());
+        result.setCreatedDate(role.getCreatedDate());
+        result.setUpdatedDate(role.getUpdatedDate());
+        return result;
+    }
+}
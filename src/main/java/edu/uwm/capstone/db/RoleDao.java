@@ -1,28 +1,30 @@
 package edu.uwm.capstone.db;
 
-import com.google.common.collect.Sets;
+import edu.uwm.capstone.model.CacheVersion;
 import edu.uwm.capstone.model.Role;
-import edu.uwm.capstone.security.Authorities;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
+import edu.uwm.capstone.sql.dao.SnapshotCache;
 import edu.uwm.capstone.sql.exception.DaoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 public class RoleDao extends BaseDao<Long, Role> {
 
     private static final Logger LOG = LoggerFactory.getLogger(RoleDao.class);
 
+    private final SnapshotCache<RoleCatalog> catalog = new SnapshotCache<>("role catalog");
+    private CacheVersionDao cacheVersionDao;
+
     /**
      * Create a {@link Role} object.
      *
@@ -50,14 +52,8 @@ public class RoleDao extends BaseDao<Long, Role> {
 
         Long id = Objects.requireNonNull(keyHolder.getKey()).longValue();
         role.setId(id);
-
-        try {
-            if (!role.getAuthorities().isEmpty())
-                jdbcTemplate.batchUpdate(sql("createRoleAuthority"),
-                        getRoleAuthoritiesBatchArgs(role.getAuthorities(), role.getId()));
-        } catch (Exception e) {
-            throw new DaoException("failed to create role authorities", e);
-        }
+        catalog.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.ROLE, null);
 
         return role;
     }
@@ -71,17 +67,7 @@ public class RoleDao extends BaseDao<Long, Role> {
     @Override
     public Role read(Long roleId) {
         LOG.trace("Reading role {}", roleId);
-        try {
-            Role role = (Role) this.jdbcTemplate.queryForObject(sql("readRoleById"), new MapSqlParameterSource("id", roleId), rowMapper);
-
-            if (role != null)
-                setRoleAuthorities(role);
-
-            return role;
-
-        } catch (NullPointerException | EmptyResultDataAccessException e) {
-            return null;
-        }
+        return catalog().read(roleId);
     }
 
     /**
@@ -91,12 +77,7 @@ public class RoleDao extends BaseDao<Long, Role> {
      */
     public List<Role> readAll() {
         LOG.trace("Reading all roles");
-        List<Role> roles = this.jdbcTemplate.query(sql("readAllRoles"), rowMapper);
-
-        for (Role role : roles)
-            setRoleAuthorities(role);
-
-        return roles;
+        return catalog().readAll();
     }
 
     /**
@@ -107,24 +88,35 @@ public class RoleDao extends BaseDao<Long, Role> {
      */
     public Role readByName(String roleName) {
         LOG.trace("Reading role with name {}", roleName);
-        try {
-            Role role = (Role) this.jdbcTemplate.queryForObject(sql("readRoleByName"), new MapSqlParameterSource("role_name", roleName), rowMapper);
-
-            if (role != null)
-                setRoleAuthorities(role);
+        return catalog().readByName(roleName);
+    }
 
-            return role;
+    /**
+     * Count how many of the given role names belong to an existing {@link Role}.
+     *
+     * @param roleNames names of the roles
+     * @return number of distinct names that exist
+     */
+    public long countByNames(Collection<String> roleNames) {
+        LOG.trace("Counting roles with names {}", roleNames);
+        if (roleNames.isEmpty()) return 0;
+        return queryForCount(sql("countRolesByNames"), new MapSqlParameterSource("role_names", roleNames));
+    }
 
-        } catch (EmptyResultDataAccessException e) {
-            return null;
-        }
+    /**
+     * Returns the {@link RoleCatalog} holding every role and its authorities. The catalog is read with one query the
+     * first time it is needed and again after a role is created, updated or deleted.
+     *
+     * @return {@link RoleCatalog}
+     */
+    public RoleCatalog catalog() {
+        return catalog.get(this::readCatalog);
     }
 
-    private void setRoleAuthorities(Role role) {
-        role.setAuthorities(Sets.newHashSet(jdbcTemplate.queryForList(sql("readRoleAuthoritiesByRoleId"),
-                new MapSqlParameterSource("role_id", role.getId()),
-                Authorities.class))
-        );
+    @SuppressWarnings("unchecked")
+    private RoleCatalog readCatalog() {
+        LOG.trace("Reading role catalog");
+        return new RoleCatalog(this.jdbcTemplate.query(sql("readAllRoles"), (RowMapper<Role>) rowMapper));
     }
 
     /**
@@ -148,46 +140,12 @@ public class RoleDao extends BaseDao<Long, Role> {
         if (result != 1) {
             throw new DaoException(String.format("Failed attempt to update role %s - affected %s rows", role.toString(), result));
         }
-
-        Set<Authorities> authoritiesToDelete = read(role.getId()).getAuthorities();
-        Set<Authorities> authoritiesToCreate = new HashSet<>();
-
-        for (Authorities authority : role.getAuthorities()) {
-            if (!authoritiesToDelete.contains(authority))
-                authoritiesToCreate.add(authority);
-            else
-                authoritiesToDelete.remove(authority);
-        }
-
-        try {
-            if (!authoritiesToCreate.isEmpty())
-                jdbcTemplate.batchUpdate(sql("createRoleAuthority"),
-                        getRoleAuthoritiesBatchArgs(authoritiesToCreate, role.getId()));
-
-            if (!authoritiesToDelete.isEmpty())
-                jdbcTemplate.batchUpdate(sql("deleteRoleAuthorityByNameAndRoleId"),
-                        getRoleAuthoritiesBatchArgs(authoritiesToDelete, role.getId()));
-        } catch (Exception e) {
-            throw new DaoException("failed to update role authorities", e);
-        }
+        catalog.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.ROLE, null);
 
         return role;
     }
 
-    private MapSqlParameterSource[] getRoleAuthoritiesBatchArgs(Set<Authorities> authorities, Long roleId) {
-        MapSqlParameterSource[] batchArgs = new MapSqlParameterSource[authorities.size()];
-
-        int i = 0;
-        for (Authorities roleAuthority : authorities) {
-            MapSqlParameterSource src = new MapSqlParameterSource();
-            src.addValue("authority", roleAuthority.toString());
-            src.addValue("role_id", roleId);
-            batchArgs[i++] = src;
-        }
-
-        return batchArgs;
-    }
-
     /**
      * Delete a {@link Role} object by its Id.
      *
@@ -198,10 +156,24 @@ public class RoleDao extends BaseDao<Long, Role> {
     public void delete(Long roleId) {
         LOG.trace("Deleting role {}", roleId);
         this.jdbcTemplate.update(sql("deleteUserRolesByRoleId"), new MapSqlParameterSource("role_id", roleId));
-        this.jdbcTemplate.update(sql("deleteRoleAuthoritiesByRoleId"), new MapSqlParameterSource("role_id", roleId));
         int result = this.jdbcTemplate.update(sql("deleteRole"), new MapSqlParameterSource("id", roleId));
+        catalog.invalidate();
+        cacheVersionDao.bump(CacheVersion.EntityType.ROLE, null);
         if (result != 1) {
             throw new DaoException(String.format("Failed attempt to delete role %s affected %s rows", roleId, result));
         }
     }
+
+    public SnapshotCache<RoleCatalog> getCatalogCache() {
+        return catalog;
+    }
+
+    /**
+     * Sets the {@link CacheVersionDao} that records every write, so that other nodes evict their cached copies.
+     *
+     * @param cacheVersionDao {@link CacheVersionDao}
+     */
+    public void setCacheVersionDao(CacheVersionDao cacheVersionDao) {
+        this.cacheVersionDao = cacheVersionDao;
+    }
 }
@@ -1,6 +1,7 @@
 package edu.uwm.capstone.db;
 
 import edu.uwm.capstone.model.Role;
+import edu.uwm.capstone.security.Authorities;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
 
 import java.sql.ResultSet;
@@ -8,6 +9,7 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
+import static edu.uwm.capstone.db.RoleDaoRowMapper.RoleColumnType.AUTHORITIES;
 import static edu.uwm.capstone.db.RoleDaoRowMapper.RoleColumnType.DESCRIPTION;
 import static edu.uwm.capstone.db.RoleDaoRowMapper.RoleColumnType.NAME;
 import static edu.uwm.capstone.sql.dao.BaseRowMapper.BaseColumnType.*;
@@ -16,7 +18,8 @@ public class RoleDaoRowMapper extends BaseRowMapper<Role> {
 
     public enum RoleColumnType {
         NAME(),
-        DESCRIPTION();
+        DESCRIPTION(),
+        AUTHORITIES();
 
         private String columnName;
 
@@ -35,6 +38,7 @@ public class RoleDaoRowMapper extends BaseRowMapper<Role> {
         map.put(ID.getColumnName(), object.getId());
         map.put(NAME.getColumnName(), object.getName());
         map.put(DESCRIPTION.getColumnName(), object.getDescription());
+        map.put(AUTHORITIES.getColumnName(), Authorities.toMask(object.getAuthorities()));
         map.put(CREATED_DATE.getColumnName(), javaTimeFromDate(object.getCreatedDate()));
         map.put(UPDATED_DATE.getColumnName(), javaTimeFromDate(object.getUpdatedDate()));
         return map;
@@ -46,6 +50,7 @@ public class RoleDaoRowMapper extends BaseRowMapper<Role> {
         folder.setId(rs.getLong(ID.getColumnName()));
         folder.setName(rs.getString(NAME.getColumnName()));
         folder.setDescription(rs.getString(DESCRIPTION.getColumnName()));
+        folder.setAuthorities(Authorities.fromMask(rs.getLong(AUTHORITIES.getColumnName())));
         folder.setCreatedDate(dateFromJavaTime(rs.getObject(CREATED_DATE.getColumnName())));
         folder.setUpdatedDate(dateFromJavaTime(rs.getObject(UPDATED_DATE.getColumnName())));
         return folder;
@@ -0,0 +1,310 @@
+package edu.uwm.capstone.db;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.sql.dao.TransactionalInvalidation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of {@link User} rows that can be looked up by id, email or panther id.
+ * <p>
+ * Each user is cached once, by id, together with the ids of its roles; emails and panther ids are aliases of that
+ * id, so invalidating a user removes it under every key. Role names, authorities and the current state are not
+ * cached but resolved from the {@link RoleCatalog} and {@link DegreeProgramCatalog} on every read, so changes to
+ * roles and degree programs never leave stale users behind.
+ * <p>
+ * Lookups that find no user are remembered for a short time as negative entries. Writes must call
+ * {@link #invalidate}, which also drops negative entries for the written user's keys. A transaction that wrote a
+ * user bypasses the cache until it completes, and the user is invalidated again when it does, see
+ * {@link TransactionalInvalidation}.
+ */
+public class UserCache implements MeterBinder {
+
+    public static final String CACHE_NAME = "users";
+    public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+    public static final long DEFAULT_NEGATIVE_TTL_SECONDS = 5;
+
+    /**
+     * Key types a user can be looked up by.
+     */
+    enum KeyType {
+        ID, EMAIL, PANTHER_ID;
+
+        private String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Cached row of a user and the ids of its roles. Neither is ever modified once cached.
+     */
+    static final class Entry {
+        private final User user;
+        private final List<Long> roleIds;
+
+        Entry(User user, List<Long> roleIds) {
+            this.user = user;
+            this.roleIds = Collections.unmodifiableList(roleIds);
+        }
+
+        User getUser() {
+            return user;
+        }
+
+        List<Long> getRoleIds() {
+            return roleIds;
+        }
+    }
+
+    private final Cache<Long, Entry> usersById;
+    private final Cache<String, Long> idsByEmail;
+    private final Cache<String, Long> idsByPantherId;
+    private final Cache<String, Boolean> negatives;
+    private final Map<KeyType, LongAdder> hits = new EnumMap<>(KeyType.class);
+    private final Map<KeyType, LongAdder> misses = new EnumMap<>(KeyType.class);
+    private final TransactionalInvalidation invalidation = new TransactionalInvalidation(CACHE_NAME);
+    private volatile Timer loadTimer;
+
+    /**
+     * @param maximumSize        maximum number of cached users
+     * @param negativeTtlSeconds number of seconds a lookup that found no user is remembered
+     */
+    public UserCache(long maximumSize, long negativeTtlSeconds) {
+        if (maximumSize < 0 || negativeTtlSeconds < 0) {
+            throw new IllegalArgumentException("User cache size and negative entry ttl must not be negative");
+        }
+        this.usersById = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .removalListener(this::removeAliases)
+                .build();
+        this.idsByEmail = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.idsByPantherId = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.negatives = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(negativeTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        for (KeyType keyType : KeyType.values()) {
+            hits.put(keyType, new LongAdder());
+            misses.put(keyType, new LongAdder());
+        }
+    }
+
+    /**
+     * @param id     id of the user
+     * @param loader reads the user with the given id, returning null if it does not exist
+     * @return cached entry of the user, or null if it does not exist
+     */
+    public Entry getById(Long id, Function<Long, Entry> loader) {
+        return get(KeyType.ID, id, id, loader);
+    }
+
+    /**
+     * @param email  email of the user
+     * @param loader reads the user with the given email, returning null if it does not exist
+     * @return cached entry of the user, or null if it does not exist
+     */
+    public Entry getByEmail(String email, Function<String, Entry> loader) {
+        return get(KeyType.EMAIL, email, idsByEmail.getIfPresent(email), loader);
+    }
+
+    /**
+     * @param pantherId panther id of the user
+     * @param loader    reads the user with the given panther id, returning null if it does not exist
+     * @return cached entry of the user, or null if it does not exist
+     */
+    public Entry getByPantherId(String pantherId, Function<String, Entry> loader) {
+        return get(KeyType.PANTHER_ID, pantherId, idsByPantherId.getIfPresent(pantherId), loader);
+    }
+
+    /**
+     * Invalidates the user with the given id under every key, and the negative entries of the given keys.
+     *
+     * @param id        id of the user that was written
+     * @param email     email the user was written with, or null
+     * @param pantherId panther id the user was written with, or null
+     */
+    public void invalidate(Long id, String email, String pantherId) {
+        invalidation.invalidate(() -> clear(id, email, pantherId));
+    }
+
+    /**
+     * Evicts a user written by another node. Its email and panther id are not known here, so every negative entry
+     * is evicted as well.
+     *
+     * @param id id of the written user, or null to evict every user
+     */
+    public void evict(Long id) {
+        if (id == null) {
+            invalidateAll();
+            return;
+        }
+        invalidation.invalidateNow(() -> {
+            clear(id, null, null);
+            negatives.invalidateAll();
+        });
+    }
+
+    /**
+     * Invalidates every cached user and negative entry.
+     */
+    public void invalidateAll() {
+        invalidation.invalidateNow(() -> {
+            usersById.invalidateAll();
+            idsByEmail.invalidateAll();
+            idsByPantherId.invalidateAll();
+            negatives.invalidateAll();
+        });
+    }
+
+    /**
+     * @return number of cached users
+     */
+    public long size() {
+        return usersById.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (KeyType keyType : KeyType.values()) {
+            FunctionCounter.builder("cache.lookups", hits.get(keyType), LongAdder::doubleValue)
+                    .tags("cache", CACHE_NAME, "key", keyType.tag(), "result", "hit")
+                    .description("Lookups of users that were answered from the cache, including negative entries")
+                    .register(registry);
+            FunctionCounter.builder("cache.lookups", misses.get(keyType), LongAdder::doubleValue)
+                    .tags("cache", CACHE_NAME, "key", keyType.tag(), "result", "miss")
+                    .description("Lookups of users that had to read the database")
+                    .register(registry);
+        }
+        Gauge.builder("cache.hit.ratio", this, UserCache::hitRatio)
+                .tags("cache", CACHE_NAME)
+                .description("Share of user lookups answered from the cache")
+                .register(registry);
+        Gauge.builder("cache.size", usersById, Cache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", usersById, cache -> cache.stats().evictionCount())
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        loadTimer = Timer.builder("cache.load.duration")
+                .tags("cache", CACHE_NAME)
+                .description("Time spent reading users missing from the cache")
+                .register(registry);
+    }
+
+    private double hitRatio() {
+        double hitCount = hits.values().stream().mapToLong(LongAdder::sum).sum();
+        double missCount = misses.values().stream().mapToLong(LongAdder::sum).sum();
+        return hitCount + missCount == 0 ? 0 : hitCount / (hitCount + missCount);
+    }
+
+    private <K> Entry get(KeyType keyType, K key, Long cachedId, Function<K, Entry> loader) {
+        if (invalidation.inWritingTransaction()) {
+            // this transaction wrote users that other threads must not see before it commits
+            return loader.apply(key);
+        }
+
+        String negativeKey = negativeKey(keyType, key);
+        if (negatives.getIfPresent(negativeKey) != null) {
+            hits.get(keyType).increment();
+            return null;
+        }
+        if (cachedId != null) {
+            Entry entry = usersById.getIfPresent(cachedId);
+            if (entry != null && matches(keyType, key, entry.getUser())) {
+                hits.get(keyType).increment();
+                return entry;
+            }
+        }
+        misses.get(keyType).increment();
+
+        long loadVersion = invalidation.version();
+        long start = System.nanoTime();
+        Entry loaded = loader.apply(key);
+        Timer timer = loadTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (loaded == null) {
+            negatives.put(negativeKey, Boolean.TRUE);
+        } else {
+            put(loaded);
+        }
+        if (invalidation.changedSince(loadVersion)) {
+            invalidation.invalidateNow(() -> {
+                negatives.invalidate(negativeKey);
+                if (loaded != null) {
+                    clear(loaded.getUser().getId(), null, null);
+                }
+            });
+        }
+        return loaded;
+    }
+
+    private void put(Entry entry) {
+        User user = entry.getUser();
+        usersById.put(user.getId(), entry);
+        if (user.getEmail() != null) {
+            idsByEmail.put(user.getEmail(), user.getId());
+        }
+        if (user.getPantherId() != null) {
+            idsByPantherId.put(user.getPantherId(), user.getId());
+        }
+    }
+
+    private void clear(Long id, String email, String pantherId) {
+        if (id != null) {
+            usersById.invalidate(id);
+            negatives.invalidate(negativeKey(KeyType.ID, id));
+        }
+        if (email != null) {
+            idsByEmail.invalidate(email);
+            negatives.invalidate(negativeKey(KeyType.EMAIL, email));
+        }
+        if (pantherId != null) {
+            idsByPantherId.invalidate(pantherId);
+            negatives.invalidate(negativeKey(KeyType.PANTHER_ID, pantherId));
+        }
+    }
+
+    private void removeAliases(RemovalNotification<Long, Entry> removal) {
+        User user = removal.getValue().getUser();
+        if (user.getEmail() != null) {
+            idsByEmail.asMap().remove(user.getEmail(), removal.getKey());
+        }
+        if (user.getPantherId() != null) {
+            idsByPantherId.asMap().remove(user.getPantherId(), removal.getKey());
+        }
+    }
+
+    private static boolean matches(KeyType keyType, Object key, User user) {
+        switch (keyType) {
+            case EMAIL:
+                return Objects.equals(key, user.getEmail());
+            case PANTHER_ID:
+                return Objects.equals(key, user.getPantherId());
+            default:
+                return Objects.equals(key, user.getId());
+        }
+    }
+
+    private static String negativeKey(KeyType keyType, Object key) {
+        return keyType.tag() + ':' + key;
+    }
+}
@@ -1,7 +1,10 @@
 package edu.uwm.capstone.db;
 
+import edu.uwm.capstone.model.CacheVersion;
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.model.UserFilter;
 import edu.uwm.capstone.security.Authorities;
+import edu.uwm.capstone.sql.dao.AggregateLoader;
 import edu.uwm.capstone.sql.dao.BaseDao;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
 import edu.uwm.capstone.sql.exception.DaoException;
@@ -9,25 +12,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.util.Assert;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class UserDao extends BaseDao<Long, User> {
 
     private static final Logger LOG = LoggerFactory.getLogger(UserDao.class);
 
     @Autowired
-    private DegreeProgramStateDao degreeProgramStateDao;
+    private DegreeProgramDao degreeProgramDao;
+
+    @Autowired
+    private RoleDao roleDao;
 
     private static final String USER_ID_KEY = "user_id";
+    private static final String ROLE_ID_KEY = "role_id";
+
+    private UserCache cache = new UserCache(UserCache.DEFAULT_MAXIMUM_SIZE, UserCache.DEFAULT_NEGATIVE_TTL_SECONDS);
+    private CacheVersionDao cacheVersionDao;
 
     /**
      * Create a {@link User} object.
@@ -56,6 +73,8 @@ public class UserDao extends BaseDao<Long, User> {
 
         Long id = Objects.requireNonNull(keyHolder.getKey()).longValue();
         user.setId(id);
+        cache.invalidate(id, user.getEmail(), user.getPantherId());
+        cacheVersionDao.bump(CacheVersion.EntityType.USER, id);
 
         try {
             if (!user.getRoleNames().isEmpty())
@@ -68,7 +87,8 @@ public class UserDao extends BaseDao<Long, User> {
     }
 
     /**
-     * Retrieve a {@link User} object by its Id.
+     * Retrieve a {@link User} object by its Id from the {@link UserCache}, reading it from the database if it is not
+     * cached.
      *
      * @param userId
      * @return {@link User}
@@ -76,16 +96,44 @@ public class UserDao extends BaseDao<Long, User> {
     @Override
     public User read(Long userId) {
         LOG.trace("Reading user {}", userId);
-        try {
-            User user = (User) this.jdbcTemplate.queryForObject(sql("readUser"), new MapSqlParameterSource("id", userId), rowMapper);
+        return resolve(cache.getById(userId, id -> readEntry(sql("readUser"), new MapSqlParameterSource("id", id))));
+    }
 
-            setUserRolesAndAuthorities(user);
-            setUserCurrentState(user);
-            return user;
+    /**
+     * Returns true if a {@link User} with the given id exists, without reading its roles or current state.
+     *
+     * @param userId id of the user
+     * @return true if the user exists
+     */
+    public boolean exists(Long userId) {
+        LOG.trace("Checking that user {} exists", userId);
+        return queryForExists(sql("existsUser"), new MapSqlParameterSource("id", userId));
+    }
 
-        } catch (EmptyResultDataAccessException e) {
-            return null;
-        }
+    /**
+     * Returns true if a {@link User} other than the one with the given id is registered with the given email.
+     *
+     * @param email  email to look up
+     * @param userId id of the user to ignore, or null to consider every user
+     * @return true if another user has the email
+     */
+    public boolean existsOtherByEmail(String email, Long userId) {
+        LOG.trace("Checking whether a user other than {} has email {}", userId, email);
+        return queryForExists(sql("existsOtherUserByEmail"), new MapSqlParameterSource("email", email)
+                .addValue("id", userId == null ? 0L : userId));
+    }
+
+    /**
+     * Returns true if a {@link User} other than the one with the given id is registered with the given panther id.
+     *
+     * @param pantherId panther id to look up
+     * @param userId    id of the user to ignore, or null to consider every user
+     * @return true if another user has the panther id
+     */
+    public boolean existsOtherByPantherId(String pantherId, Long userId) {
+        LOG.trace("Checking whether a user other than {} has panther id {}", userId, pantherId);
+        return queryForExists(sql("existsOtherUserByPantherId"), new MapSqlParameterSource("panther_id", pantherId)
+                .addValue("id", userId == null ? 0L : userId));
     }
 
     /**
@@ -95,75 +143,187 @@ public class UserDao extends BaseDao<Long, User> {
      */
     public List<User> readAll() {
         LOG.trace("Reading all users");
-        List<User> users = this.jdbcTemplate.query(sql("readAllUsers"), rowMapper);
+        return hydrate(this.jdbcTemplate.query(sql("readAllUsers"), rowMapper));
+    }
 
+    /**
+     * Returns the {@link User}s matching the provided {@link UserFilter}, ordered by id and starting after
+     * {@link UserFilter#getAfterId()}.
+     *
+     * @param filter {@link UserFilter}
+     * @param limit  maximum number of users to return
+     * @return list of {@link User}s
+     */
+    public List<User> readPage(UserFilter filter, int limit) {
+        LOG.trace("Reading {} users matching {}", limit, filter);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return hydrate(this.jdbcTemplate.query(pageStatement(filter, limit, params), params, rowMapper));
+    }
+
+    /**
+     * Builds the statement reading a page of {@link User}s with a condition for each filter that is set, so that
+     * the id range is not hidden behind optional predicates.
+     *
+     * @param filter {@link UserFilter}
+     * @param limit  maximum number of users to return
+     * @param params receives the parameters of the statement
+     * @return the statement
+     */
+    String pageStatement(UserFilter filter, int limit, MapSqlParameterSource params) {
+        StringBuilder statement = new StringBuilder(sql("readUsersPage").trim());
+        params.addValue("after_id", filter.getAfterId() == null ? 0L : filter.getAfterId());
+        and(statement, params, "created_date >= :created_from", "created_from", BaseRowMapper.javaTimeFromDate(filter.getCreatedFrom()));
+        and(statement, params, "created_date < :created_to", "created_to", BaseRowMapper.javaTimeFromDate(filter.getCreatedTo()));
+        and(statement, params, "updated_date >= :updated_from", "updated_from", BaseRowMapper.javaTimeFromDate(filter.getUpdatedFrom()));
+        and(statement, params, "updated_date < :updated_to", "updated_to", BaseRowMapper.javaTimeFromDate(filter.getUpdatedTo()));
+        params.addValue("limit", limit);
+        return statement.append("\nORDER BY id\nLIMIT :limit").toString();
+    }
+
+    /**
+     * Populate the role names, authorities, current state and degree program name of the provided {@link User}s.
+     * One query reads the role ids, which are resolved to names and authorities with the {@link RoleCatalog}. The
+     * current states and degree program names are resolved with the {@link DegreeProgramCatalog}.
+     *
+     * @param users {@link User}s read from the users table
+     * @return the same list of {@link User}s
+     */
+    public List<User> hydrate(List<User> users) {
+        if (users.isEmpty()) return users;
+
+        RoleCatalog roleCatalog = roleDao.catalog();
+        DegreeProgramCatalog degreeProgramCatalog = degreeProgramDao.catalog();
+        Map<Long, User> usersById = new HashMap<>();
         for (User user : users) {
-            setUserRolesAndAuthorities(user);
-            setUserCurrentState(user);
+            user.setRoleNames(new HashSet<>());
+            user.setAuthorities(EnumSet.noneOf(Authorities.class));
+            usersById.put(user.getId(), user);
+            setUserCurrentState(user, degreeProgramCatalog);
         }
 
+        queryInChunks(sql("readRoleIdsByUserIds"), "user_ids", new ArrayList<>(usersById.keySet()),
+                (rs) -> {
+                    User user = usersById.get(rs.getLong(USER_ID_KEY));
+                    Long roleId = rs.getLong(ROLE_ID_KEY);
+                    String roleName = roleCatalog.name(roleId);
+                    if (roleName != null) {
+                        user.getRoleNames().add(roleName);
+                        user.getAuthorities().addAll(roleCatalog.authorities(Collections.singleton(roleId)));
+                    }
+                });
+
         return users;
     }
 
+    private void queryInChunks(String statement, String keysParameter, List<Long> keys, RowCallbackHandler handler) {
+        for (int from = 0; from < keys.size(); from += AggregateLoader.DEFAULT_CHUNK_SIZE) {
+            List<Long> chunk = keys.subList(from, Math.min(from + AggregateLoader.DEFAULT_CHUNK_SIZE, keys.size()));
+            this.jdbcTemplate.query(statement, new MapSqlParameterSource(keysParameter, chunk), handler);
+        }
+    }
+
     /**
-     * Retrieve a {@link User} object by its email.
+     * Retrieve a {@link User} object by its email from the {@link UserCache}, reading it from the database if it is
+     * not cached.
      *
      * @param email
      * @return {@link User}
      */
     public User readByEmail(String email) {
         LOG.trace("Reading user with email {}", email);
-        try {
-            User user = (User) this.jdbcTemplate.queryForObject(sql("readUserByEmail"), new MapSqlParameterSource("email", email), rowMapper);
-
-            setUserRolesAndAuthorities(user);
-            setUserCurrentState(user);
-            return user;
+        return resolve(cache.getByEmail(email, key -> readEntry(sql("readUserByEmail"), new MapSqlParameterSource("email", key))));
+    }
 
+    /**
+     * Retrieve the credentials of the {@link User} with the provided email in one statement, for checking its password
+     * on login. The user only carries its id, email, password hash, account flags and authorities; its names, role
+     * names and current state are not read. The {@link UserCache} is bypassed so that a changed password or a locked
+     * account takes effect on the next login.
+     *
+     * @param email
+     * @return {@link User} with only its credentials, or null if no user has the email
+     */
+    public User readCredentialsByEmail(String email) {
+        LOG.trace("Reading credentials of user with email {}", email);
+        try {
+            return this.jdbcTemplate.queryForObject(sql("readUserCredentialsByEmail"), new MapSqlParameterSource("email", email),
+                    ((UserDaoRowMapper) rowMapper)::mapCredentialsRow);
         } catch (EmptyResultDataAccessException e) {
             return null;
         }
     }
 
     /**
-     * Retrieve a {@link User} object by its panther id.
+     * Retrieve a {@link User} object by its panther id from the {@link UserCache}, reading it from the database if it
+     * is not cached.
      *
      * @param pantherId
      * @return {@link User}
      */
     public User readByPantherId(String pantherId) {
         LOG.trace("Reading user with panther id {}", pantherId);
-        try {
-            User user = (User) this.jdbcTemplate.queryForObject(sql("readUserByPantherId"),
-                    new MapSqlParameterSource("panther_id", pantherId), rowMapper);
-
-            setUserRolesAndAuthorities(user);
-            setUserCurrentState(user);
-            return user;
+        return resolve(cache.getByPantherId(pantherId,
+                key -> readEntry(sql("readUserByPantherId"), new MapSqlParameterSource("panther_id", key))));
+    }
 
+    private UserCache.Entry readEntry(String statement, MapSqlParameterSource params) {
+        try {
+            User user = (User) this.jdbcTemplate.queryForObject(statement, params, rowMapper);
+            return new UserCache.Entry(user, readRoleIds(user.getId()));
         } catch (EmptyResultDataAccessException e) {
             return null;
         }
     }
 
-    private void setUserRolesAndAuthorities(User user) {
-        HashSet<String> roleNames = new HashSet<>();
-        HashSet<Authorities> authorities = new HashSet<>();
+    /**
+     * Copies the cached user and resolves its role names, authorities, current state and degree program name.
+     */
+    private User resolve(UserCache.Entry entry) {
+        if (entry == null) return null;
+
+        User user = copyOf(entry.getUser());
+        RoleCatalog roleCatalog = roleDao.catalog();
+        user.setRoleNames(roleNames(roleCatalog, entry.getRoleIds()));
+        user.setAuthorities(roleCatalog.authorities(entry.getRoleIds()));
+        setUserCurrentState(user);
+        return user;
+    }
+
+    private static User copyOf(User user) {
+        User copy = User.builder()
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .password(user.getPassword())
+                .pantherId(user.getPantherId())
+                .email(user.getEmail())
+                .currentStateId(user.getCurrentStateId())
+                .enabled(user.getEnabled())
+                .credentialsNonExpired(user.isCredentialsNonExpired())
+                .accountNonExpired(user.isAccountNonExpired())
+                .accountNonLocked(user.isAccountNonLocked())
+                .build();
+        copy.setId(user.getId());
+        copy.setCreatedDate(user.getCreatedDate());
+        copy.setUpdatedDate(user.getUpdatedDate());
+        return copy;
+    }
 
-        this.jdbcTemplate.query(sql("readRoleAuthoritiesByUserId"),
-                new MapSqlParameterSource(USER_ID_KEY, user.getId()),
-                (rs) -> {
-                    // TODO may not want to hardcode these column names here
-                    roleNames.add(rs.getString("name"));
-                    authorities.add(Authorities.valueOf(rs.getString("authority")));
-                });
-        user.setRoleNames(roleNames);
-        user.setAuthorities(authorities);
+    private static Set<String> roleNames(RoleCatalog roleCatalog, List<Long> roleIds) {
+        return roleIds.stream().map(roleCatalog::name).filter(Objects::nonNull).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private List<Long> readRoleIds(Long userId) {
+        return this.jdbcTemplate.queryForList(sql("readRoleIdsByUserId"), new MapSqlParameterSource(USER_ID_KEY, userId), Long.class);
     }
 
     private void setUserCurrentState(User user) {
+        setUserCurrentState(user, degreeProgramDao.catalog());
+    }
+
+    private static void setUserCurrentState(User user, DegreeProgramCatalog degreeProgramCatalog) {
         if (user.getCurrentStateId() == null) return;
-        user.setCurrentState(degreeProgramStateDao.read(user.getCurrentStateId()));
+        user.setCurrentState(degreeProgramCatalog.readState(user.getCurrentStateId()));
+        user.setDegreeProgramName(degreeProgramCatalog.degreeProgramName(user.getCurrentStateId()));
     }
 
     private MapSqlParameterSource[] getUserRolesBatchArgs(Set<String> roleNames, Long userId) {
@@ -202,7 +362,7 @@ public class UserDao extends BaseDao<Long, User> {
             throw new DaoException(String.format("Failed attempt to update user %s - affected %s rows", user.toString(), result));
         }
 
-        Set<String> userRolesToDelete = read(user.getId()).getRoleNames();
+        Set<String> userRolesToDelete = roleNames(roleDao.catalog(), readRoleIds(user.getId()));
         Set<String> userRolesToCreate = new HashSet<>();
 
         for (String roleName : user.getRoleNames()) {
@@ -224,6 +384,8 @@ public class UserDao extends BaseDao<Long, User> {
             throw new DaoException("Failed to update user roles", e);
         }
 
+        cache.invalidate(user.getId(), user.getEmail(), user.getPantherId());
+        cacheVersionDao.bump(CacheVersion.EntityType.USER, user.getId());
         return user;
     }
 
@@ -245,9 +407,40 @@ public class UserDao extends BaseDao<Long, User> {
             throw new DaoException(String.format("Failed attempt to update user %s - affected %s rows", existingUser.toString(), result));
         }
 
+        cache.invalidate(existingUser.getId(), existingUser.getEmail(), existingUser.getPantherId());
+        cacheVersionDao.bump(CacheVersion.EntityType.USER, existingUser.getId());
         return existingUser;
     }
 
+    /**
+     * Replace the password hash of the provided {@link User}, leaving the rest of the user untouched.
+     *
+     * @param user     {@link User}
+     * @param password new password hash
+     * @return {@link User} with the new password hash
+     */
+    public User updatePassword(User user, String password) {
+        Assert.notNull(user, "User cannot be null");
+        Assert.notNull(user.getId(), "User Id cannot be null");
+
+        LOG.trace("Updating password of user {}", user.getId());
+        user.setPassword(password);
+        user.setUpdatedDate(LocalDateTime.now());
+        MapSqlParameterSource parameters = new MapSqlParameterSource("id", user.getId())
+                .addValue(UserDaoRowMapper.UserColumnType.PASSWORD.getColumnName(), password)
+                .addValue(BaseRowMapper.BaseColumnType.UPDATED_DATE.getColumnName(),
+                        BaseRowMapper.javaTimeFromDate(user.getUpdatedDate()));
+        int result = this.jdbcTemplate.update(sql("updateUserPassword"), parameters);
+
+        if (result != 1) {
+            throw new DaoException(String.format("Failed attempt to update password of user %s - affected %s rows", user.getId(), result));
+        }
+
+        cache.invalidate(user.getId(), user.getEmail(), user.getPantherId());
+        cacheVersionDao.bump(CacheVersion.EntityType.USER, user.getId());
+        return user;
+    }
+
     /**
      * Delete a {@link User} object by its Id.
      *
@@ -262,5 +455,29 @@ public class UserDao extends BaseDao<Long, User> {
         if (result != 1) {
             throw new DaoException(String.format("Failed attempt to delete user %s affected %s rows", userId, result));
         }
+        cache.invalidate(userId, null, null);
+        cacheVersionDao.bump(CacheVersion.EntityType.USER, userId);
+    }
+
+    /**
+     * Replaces the cache of users with the provided one.
+     *
+     * @param cache {@link UserCache}
+     */
+    public void setCache(UserCache cache) {
+        this.cache = cache;
+    }
+
+    public UserCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Sets the {@link CacheVersionDao} that records every write, so that other nodes evict their cached copies.
+     *
+     * @param cacheVersionDao {@link CacheVersionDao}
+     */
+    public void setCacheVersionDao(CacheVersionDao cacheVersionDao) {
+        this.cacheVersionDao = cacheVersionDao;
     }
 }
@@ -1,6 +1,7 @@
 package edu.uwm.capstone.db;
 
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.security.Authorities;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
 
 import java.sql.ResultSet;
@@ -23,7 +24,8 @@ public class UserDaoRowMapper extends BaseRowMapper<User> {
         IS_ACCOUNT_NON_EXPIRED(),
         IS_ACCOUNT_NON_LOCKED(),
         CURRENT_STATE_ID(),
-        IS_CREDENTIALS_NON_EXPIRED();
+        IS_CREDENTIALS_NON_EXPIRED(),
+        AUTHORITIES();
 
         private String columnName;
 
@@ -74,4 +76,20 @@ public class UserDaoRowMapper extends BaseRowMapper<User> {
         return folder;
     }
 
+    /**
+     * Maps a row of {@code readUserCredentialsByEmail} to a {@link User} that only carries what is needed to check its
+     * password: id, email, password hash, account flags and the authorities of all its roles.
+     */
+    public User mapCredentialsRow(ResultSet rs, int rowNum) throws SQLException {
+        User user = new User();
+        user.setId(rs.getLong(ID.getColumnName()));
+        user.setEmail(rs.getString(EMAIL.getColumnName()));
+        user.setPassword(rs.getString(PASSWORD.getColumnName()));
+        user.setEnabled(rs.getBoolean(ENABLED.getColumnName()));
+        user.setAccountNonExpired(rs.getBoolean(IS_ACCOUNT_NON_EXPIRED.getColumnName()));
+        user.setAccountNonLocked(rs.getBoolean(IS_ACCOUNT_NON_LOCKED.getColumnName()));
+        user.setCredentialsNonExpired(rs.getBoolean(IS_CREDENTIALS_NON_EXPIRED.getColumnName()));
+        user.setAuthorities(Authorities.fromMask(rs.getLong(AUTHORITIES.getColumnName())));
+        return user;
+    }
 }
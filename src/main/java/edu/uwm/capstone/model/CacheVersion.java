@@ -0,0 +1,35 @@
+package edu.uwm.capstone.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A write to a cached entity, recorded so that every node can evict its local copy. The id is the version; versions
+ * increase with every write.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheVersion extends BaseEntity {
+
+    /**
+     * Types of cached entities.
+     */
+    public enum EntityType {
+        USER,
+        ROLE,
+        FORM_DEFINITION,
+        DEGREE_PROGRAM
+    }
+
+    private EntityType entityType;
+
+    /**
+     * Id of the written entity, or null if every entity of the type must be evicted.
+     */
+    private Long entityId;
+
+}
@@ -0,0 +1,47 @@
+package edu.uwm.capstone.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter and keyset paging parameters for listing {@link Form}s. Null values are not filtered on.
+ * Date ranges include the start and exclude the end.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FormFilter {
+
+    /**
+     * Approval states of a {@link Form}. A form is pending until it is approved or rejected.
+     */
+    public enum Approval {
+        APPROVED,
+        REJECTED,
+        PENDING
+    }
+
+    private Long afterId;
+    private Integer limit;
+    private Long userId;
+    private Long formDefId;
+    private Approval approval;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedTo;
+}
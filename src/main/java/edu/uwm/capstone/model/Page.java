@@ -0,0 +1,58 @@
+package edu.uwm.capstone.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset paginated listing. Entities are ordered by id and the next page starts after
+ * {@link #nextAfterId}, which is null when there are no more pages.
+ *
+ * @param <T> entity type
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Page<T> {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private Long nextAfterId;
+
+    /**
+     * Returns the page size to use for the requested limit: {@link #DEFAULT_LIMIT} when no limit was requested,
+     * and at most {@link #MAX_LIMIT}.
+     *
+     * @param limit requested page size, may be null
+     * @return page size
+     */
+    public static int limit(Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        Assert.isTrue(limit > 0, "Page limit must be positive");
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Build a page from rows read with a limit of one more than the page size, so the extra row tells whether
+     * there is a next page.
+     *
+     * @param rows  rows read, at most limit + 1
+     * @param limit page size
+     * @param id    function returning the id of a row
+     * @param <T>   entity type
+     * @return page
+     */
+    public static <T> Page<T> of(List<T> rows, int limit, Function<T, Long> id) {
+        if (rows.size() <= limit) return new Page<>(rows, null);
+
+        List<T> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, id.apply(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,26 @@
+package edu.uwm.capstone.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revokes every token issued to a user before the created date of the revocation, e.g. because the user was disabled.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken extends BaseEntity {
+
+    private Long userId;
+
+    /**
+     * Time after which every token revoked by this revocation has expired.
+     */
+    private LocalDateTime expiresDate;
+
+}
@@ -1,6 +1,5 @@
 package edu.uwm.capstone.model;
 
-import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import edu.uwm.capstone.security.Authorities;
 import io.swagger.annotations.ApiModelProperty;
@@ -19,11 +18,6 @@ import java.util.Set;
 @JsonIgnoreProperties(value = {"username", "currentStateId"}, ignoreUnknown = true)
 public class User extends BaseEntity implements UserDetails {
 
-    @JsonFilter("JWTFilter")
-    // filters out properties for serialization except for "firstName", "lastName", "pantherId", "email", "enabled", "roleNames", "authorities"
-    public static class UserJWTMixIn {
-    }
-
     private String firstName;
     private String lastName;
     private String password;
@@ -2,6 +2,15 @@ package edu.uwm.capstone.security;
 
 import org.springframework.security.core.GrantedAuthority;
 
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * Authorities granted to users through their roles.
+ * <p>
+ * Sets of authorities are encoded as bitmasks by {@link #ordinal()}, both in tokens and in the authorities column of
+ * roles, so new authorities must be added at the end and no more than {@value #MAX_AUTHORITIES} can exist.
+ */
 public enum Authorities implements GrantedAuthority {
 
     CREATE_FORM_DEF,    // can use @PreAuthorize
@@ -22,9 +31,46 @@ public enum Authorities implements GrantedAuthority {
     DELETE_USER,        // can use @PreAuthorize
     DELETE_ROLE;        // can use @PreAuthorize
 
+    public static final int MAX_AUTHORITIES = Long.SIZE;
+
+    private static final Authorities[] VALUES = values();
+
     @Override
     public String getAuthority() {
         return toString();
     }
 
+    /**
+     * Encodes the given authorities as a bitmask in which bit {@link #ordinal()} is set for each authority.
+     *
+     * @param authorities authorities to encode, may be null
+     * @return bitmask of the authorities
+     */
+    public static long toMask(Collection<Authorities> authorities) {
+        long mask = 0;
+        if (authorities != null) {
+            for (Authorities authority : authorities) {
+                mask |= 1L << authority.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Decodes a bitmask created by {@link #toMask}. Bits that do not belong to an authority are ignored.
+     *
+     * @param mask bitmask of authorities
+     * @return set of the authorities in the bitmask
+     */
+    public static EnumSet<Authorities> fromMask(long mask) {
+        EnumSet<Authorities> authorities = EnumSet.noneOf(Authorities.class);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int ordinal = Long.numberOfTrailingZeros(bits);
+            if (ordinal < VALUES.length) {
+                authorities.add(VALUES[ordinal]);
+            }
+        }
+        return authorities;
+    }
+
 }
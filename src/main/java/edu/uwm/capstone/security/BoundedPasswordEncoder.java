@@ -0,0 +1,165 @@
+package edu.uwm.capstone.security;
+
+import edu.uwm.capstone.service.exception.ServiceException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hashes and checks passwords with BCrypt on a dedicated pool of threads, so that no more BCrypt rounds run at once
+ * than there are threads in the pool, however many requests log in or change a password. Callers wait for their
+ * hash; when more than the queue capacity are already waiting, the call fails. Hashing a password fails with a
+ * {@link ServiceException}; checking one, which only happens on login, fails with an
+ * {@link AuthenticationServiceException}, so that the login is rejected as unavailable without counting as a
+ * failed login.
+ * <p>
+ * Hashes created with a lower cost than the configured strength are reported by {@link #upgradeEncoding}, so that
+ * they are replaced with a new hash the next time their user logs in.
+ * <p>
+ * The pool is published as {@code executor.*} metrics tagged {@code name=password.encoder}, the time spent per
+ * operation as {@code password.encoder.duration} and rejected calls as {@code password.encoder.rejected}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    public static final int DEFAULT_STRENGTH = 10;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    static final String EXECUTOR_NAME = "password.encoder";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+
+    /**
+     * @param strength      BCrypt cost of new hashes
+     * @param threads       number of threads that hash passwords, or 0 for one per available processor
+     * @param queueCapacity number of calls that may wait for a thread
+     */
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this(new BCryptPasswordEncoder(strength), strength, threads, queueCapacity);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.delegate = delegate;
+        this.strength = strength;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-encoder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword), encodeTimer, ServiceException::new);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer, AuthenticationServiceException::new);
+    }
+
+    /**
+     * @param encodedPassword hash of a password
+     * @return true if the hash was created with a lower BCrypt cost than the configured strength
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    /**
+     * Stop the threads that hash passwords.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return number of calls rejected because the queue was full
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    int poolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    int queuedCount() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(registry);
+        encodeTimer = Timer.builder("password.encoder.duration")
+                .tag("operation", "encode")
+                .description("Time spent hashing passwords, including the wait for a thread")
+                .register(registry);
+        matchesTimer = Timer.builder("password.encoder.duration")
+                .tag("operation", "matches")
+                .description("Time spent checking passwords, including the wait for a thread")
+                .register(registry);
+        FunctionCounter.builder("password.encoder.rejected", rejected, LongAdder::doubleValue)
+                .description("Calls rejected because too many passwords were waiting to be hashed")
+                .register(registry);
+    }
+
+    private <T> T call(Callable<T> task, Timer timer, BiFunction<String, Throwable, RuntimeException> failure) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw failure.apply("Too many passwords are being hashed, try again later", e);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw failure.apply("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw failure.apply("Failed to hash a password", e.getCause());
+        } finally {
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -1,41 +1,56 @@
 package edu.uwm.capstone.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
-import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import edu.uwm.capstone.model.User;
 import edu.uwm.capstone.security.exception.JWTAuthenticationException;
+import edu.uwm.capstone.security.exception.LoginThrottledException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
 import static edu.uwm.capstone.security.SecurityConstants.*;
 
+/**
+ * Exchanges the credentials posted to {@link SecurityConstants#AUTHENTICATE_URL} for a token.
+ * <p>
+ * The token carries the id of the user as its subject, the email of the user and the authorities of the user as a
+ * bitmask created by {@link Authorities#toMask}.
+ * <p>
+ * Logins for an email or from an address that failed too often recently are rejected by the {@link LoginThrottle}
+ * with {@code 429 Too Many Requests} and a {@code Retry-After} header, before the user is read or its password hashed.
+ * Logins that cannot be checked because too many passwords are being hashed are rejected with
+ * {@code 503 Service Unavailable} and are not counted as failures by the {@link LoginThrottle}.
+ */
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
     private AuthenticationManager authenticationManager;
-    private ObjectMapper jwtUserSubjectMapper;
+    private ObjectMapper credentialsMapper;
+    private Algorithm algorithm;
+    private LoginThrottle loginThrottle;
 
-    public JWTAuthenticationFilter(String processUrl, AuthenticationManager authenticationManager) {
+    public JWTAuthenticationFilter(String processUrl, AuthenticationManager authenticationManager, LoginThrottle loginThrottle) {
         this.authenticationManager = authenticationManager;
+        this.loginThrottle = loginThrottle;
         setFilterProcessesUrl(processUrl);
 
-        // create object mapper with mixin
-        jwtUserSubjectMapper = new ObjectMapper().addMixIn(User.class, User.UserJWTMixIn.class);
-
-        // set filter provider (for serialization) to JWTFilter
-        jwtUserSubjectMapper.setFilterProvider(new SimpleFilterProvider().addFilter("JWTFilter",
-                SimpleBeanPropertyFilter.filterOutAllExcept("id", "firstName", "lastName", "pantherId", "email", "enabled", "roleNames", "authorities")));
-
+        credentialsMapper = new ObjectMapper();
+        algorithm = HMAC512(SECRET.getBytes());
     }
 
     @Override
@@ -44,14 +59,25 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         try {
 
             // TODO use basic authorization in authorization header instead of sending credentials in body?
-            User userCredentials = jwtUserSubjectMapper.readValue(req.getInputStream(), User.class);
+            User userCredentials = credentialsMapper.readValue(req.getInputStream(), User.class);
+            // the address of the client, read from X-Forwarded-For when the request came through a trusted proxy
+            String address = req.getRemoteAddr();
+            loginThrottle.check(userCredentials.getEmail(), address);
 
-            return authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            userCredentials.getEmail(),
-                            userCredentials.getPassword(),
-                            new ArrayList<>())
-            );
+            try {
+                return authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                userCredentials.getEmail(),
+                                userCredentials.getPassword(),
+                                new ArrayList<>())
+                );
+            } catch (AuthenticationServiceException e) {
+                // the password could not be checked, which says nothing about the credentials
+                throw e;
+            } catch (AuthenticationException e) {
+                loginThrottle.failed(userCredentials.getEmail(), address);
+                throw e;
+            }
         } catch (IOException e) {
             throw new JWTAuthenticationException(e);
         }
@@ -65,11 +91,35 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
 
         User user = (User) auth.getPrincipal();
 
+        long now = System.currentTimeMillis();
         String token = JWT.create()
-                .withSubject(jwtUserSubjectMapper.writeValueAsString(user))
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(HMAC512(SECRET.getBytes()));
+                .withSubject(String.valueOf(user.getId()))
+                .withClaim(EMAIL_CLAIM, user.getEmail())
+                .withClaim(AUTHORITIES_CLAIM, Authorities.toMask(user.getAuthorities()))
+                // revocations reject the tokens issued before them
+                .withIssuedAt(new Date(now))
+                .withExpiresAt(new Date(now + EXPIRATION_TIME))
+                .sign(algorithm);
 
         res.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest req,
+                                              HttpServletResponse res,
+                                              AuthenticationException failed) throws IOException, ServletException {
+        if (failed instanceof LoginThrottledException) {
+            long retryAfterMillis = ((LoginThrottledException) failed).getRetryAfterMillis();
+            res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999))));
+            // sendError would dispatch to /error, which rejects the unauthenticated request with 403
+            res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        if (failed instanceof AuthenticationServiceException) {
+            res.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            res.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        super.unsuccessfulAuthentication(req, res, failed);
+    }
+}
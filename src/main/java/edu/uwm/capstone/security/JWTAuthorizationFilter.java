@@ -1,11 +1,17 @@
 package edu.uwm.capstone.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import edu.uwm.capstone.model.User;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
@@ -14,16 +20,58 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import static edu.uwm.capstone.security.SecurityConstants.*;
 
+/**
+ * Authenticates requests that carry a bearer token issued by {@link JWTAuthenticationFilter}.
+ * <p>
+ * Tokens carry the email and the authority bitmask of the user as claims, which are decoded without parsing JSON.
+ * Tokens issued before that format embed the user as JSON in their subject; they are accepted until they expire,
+ * after which {@link #legacyAuthentication} can be removed.
+ * <p>
+ * The id of the user the token was issued to is set as the {@link TokenDetails} of the authentication, so that
+ * {@link Ownership} can recognize the resources of the user without reading it.
+ * <p>
+ * Verified tokens are cached by their signature until they expire, so a client that repeats its token skips the HMAC
+ * verification and the parsing of the user in the token subject. A cached entry is only used for the exact token it
+ * was verified for, and holds the immutable parts of the authentication, from which each request gets its own.
+ * <p>
+ * Every request, including those with a cached token, is checked against the in-memory {@link TokenRevocations}.
+ * Tokens issued before their issue time was added as a claim are treated as issued {@link SecurityConstants#EXPIRATION_TIME}
+ * before they expire.
+ */
 public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 
-    private ObjectMapper jwtUserSubjectMapper;
+    static final long DEFAULT_MAXIMUM_CACHE_SIZE = 10_000;
 
-    public JWTAuthorizationFilter(AuthenticationManager authManager) {
+    private final JWTVerifier verifier;
+    private final ObjectMapper jwtUserSubjectMapper;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final TokenRevocations tokenRevocations;
+    private final LongSupplier clock;
+
+    public JWTAuthorizationFilter(AuthenticationManager authManager, TokenRevocations tokenRevocations) {
+        this(authManager, tokenRevocations, DEFAULT_MAXIMUM_CACHE_SIZE, System::currentTimeMillis);
+    }
+
+    JWTAuthorizationFilter(AuthenticationManager authManager, TokenRevocations tokenRevocations,
+                           long maximumCacheSize, LongSupplier clock) {
         super(authManager);
+        this.tokenRevocations = tokenRevocations;
+        verifier = JWT.require(Algorithm.HMAC512(SECRET.getBytes())).build();
         jwtUserSubjectMapper = new ObjectMapper();
+        verifiedTokens = CacheBuilder.newBuilder()
+                .maximumSize(maximumCacheSize)
+                .expireAfterWrite(EXPIRATION_TIME, TimeUnit.MILLISECONDS)
+                .build();
+        this.clock = clock;
     }
 
     @Override
@@ -46,18 +94,30 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
     private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest request) {
         String token = request.getHeader(HEADER_STRING);
         if (token != null) {
+            token = token.replace(TOKEN_PREFIX, "");
+            String signature = token.substring(token.lastIndexOf('.') + 1);
+            VerifiedToken cached = verifiedTokens.getIfPresent(signature);
+            if (cached != null) {
+                if (cached.token.equals(token) && clock.getAsLong() < cached.expiresAtMillis) {
+                    return revoked(cached) ? null : cached.authentication();
+                }
+                verifiedTokens.invalidate(signature);
+            }
+
             try {
                 // parse the token.
-                String userJSON = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
-                        .build()
-                        .verify(token.replace(TOKEN_PREFIX, ""))
-                        .getSubject();
-
-                if (userJSON != null) {
-                    User user = jwtUserSubjectMapper.readValue(userJSON, User.class);
-                    return new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword(), user.getAuthorities());
+                DecodedJWT jwt = verifier.verify(token);
+                VerifiedToken verified = jwt.getClaim(AUTHORITIES_CLAIM).isNull()
+                        ? legacyToken(token, jwt)
+                        : verifiedToken(token, jwt);
+
+                if (verified == null) {
+                    return null;
                 }
-                return null;
+                if (jwt.getExpiresAt() != null) {
+                    verifiedTokens.put(signature, verified);
+                }
+                return revoked(verified) ? null : verified.authentication();
 
             } catch (IOException e) {
                 return null;
@@ -65,4 +125,88 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    private static long issuedAtMillis(DecodedJWT jwt) {
+        if (jwt.getIssuedAt() != null) {
+            return jwt.getIssuedAt().getTime();
+        }
+        return jwt.getExpiresAt() == null ? Long.MIN_VALUE : jwt.getExpiresAt().getTime() - EXPIRATION_TIME;
+    }
+
+    private static long expiresAtMillis(DecodedJWT jwt) {
+        return jwt.getExpiresAt() == null ? Long.MAX_VALUE : jwt.getExpiresAt().getTime();
+    }
+
+    private boolean revoked(VerifiedToken verified) {
+        return tokenRevocations.isRevoked(verified.userId, verified.issuedAtMillis);
+    }
+
+    private static VerifiedToken verifiedToken(String token, DecodedJWT jwt) {
+        Claim authorities = jwt.getClaim(AUTHORITIES_CLAIM);
+        if (authorities.asLong() == null) {
+            return null;
+        }
+        return new VerifiedToken(token, expiresAtMillis(jwt), issuedAtMillis(jwt), jwt.getClaim(EMAIL_CLAIM).asString(),
+                null, Authorities.fromMask(authorities.asLong()), userId(jwt.getSubject()));
+    }
+
+    private static Long userId(String subject) {
+        try {
+            return subject == null ? null : Long.valueOf(subject);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private VerifiedToken legacyToken(String token, DecodedJWT jwt) throws IOException {
+        String userJSON = jwt.getSubject();
+        if (userJSON == null) {
+            return null;
+        }
+        User user = jwtUserSubjectMapper.readValue(userJSON, User.class);
+        return new VerifiedToken(token, expiresAtMillis(jwt), issuedAtMillis(jwt), user.getUsername(),
+                user.getPassword(), user.getAuthorities(), user.getId());
+    }
+
+    /**
+     * @return number of verified tokens in the cache
+     */
+    long cacheSize() {
+        return verifiedTokens.size();
+    }
+
+    /**
+     * A token that passed verification and the parts of the {@link UsernamePasswordAuthenticationToken} built from it.
+     * Authentications are mutable, so every request is handed a new one and entries never share one between threads.
+     */
+    private static final class VerifiedToken {
+
+        private final String token;
+        private final long expiresAtMillis;
+        private final long issuedAtMillis;
+        private final String principal;
+        private final String credentials;
+        private final List<GrantedAuthority> authorities;
+        private final Long userId;
+
+        private VerifiedToken(String token, long expiresAtMillis, long issuedAtMillis, String principal,
+                              String credentials, Collection<? extends GrantedAuthority> authorities, Long userId) {
+            this.token = token;
+            this.expiresAtMillis = expiresAtMillis;
+            this.issuedAtMillis = issuedAtMillis;
+            this.principal = principal;
+            this.credentials = credentials;
+            this.authorities = authorities == null
+                    ? Collections.emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(authorities));
+            this.userId = userId;
+        }
+
+        private UsernamePasswordAuthenticationToken authentication() {
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(principal, credentials, authorities);
+            authentication.setDetails(new TokenDetails(userId));
+            return authentication;
+        }
+    }
+}
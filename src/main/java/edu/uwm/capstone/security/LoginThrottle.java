@@ -0,0 +1,213 @@
+package edu.uwm.capstone.security;
+
+import edu.uwm.capstone.security.exception.LoginThrottledException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.util.Assert;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts failed logins by email and by client address, and rejects further logins with exponentially growing waits
+ * once either has failed too often, before the user is read or its password is hashed.
+ * <p>
+ * The failures are counted in a fixed number of cells per key type, so memory does not grow with the number of
+ * emails or addresses that are tried. Each key is counted in two cells chosen by different hashes and its count is
+ * the lower of the two, so a key is only throttled by the failures of other keys if it collides with them in both
+ * cells. A cell packs the failure count and the time of the last failure into one {@code long} that is updated with
+ * compare-and-set, and its count is forgotten once no failure has been recorded in it for the decay time. Successful
+ * logins are not recorded: a cell is shared by every key that hashes to it, so resetting it on the success of one key
+ * would also forget the failures of the others.
+ * <p>
+ * Rejected logins are published as {@code login.throttle.rejected} and failed logins as
+ * {@code login.throttle.failures}, both tagged with the key type {@code email} or {@code address}.
+ */
+public class LoginThrottle implements MeterBinder {
+
+    public static final int DEFAULT_CELLS = 1 << 14;
+    public static final int DEFAULT_FREE_FAILURES_PER_EMAIL = 5;
+    public static final int DEFAULT_FREE_FAILURES_PER_ADDRESS = 20;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 1000;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 15 * 60 * 1000L;
+    public static final long DEFAULT_DECAY_MILLIS = 15 * 60 * 1000L;
+
+    private static final int COUNT_BITS = 16;
+    private static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private final FailureCounter emails;
+    private final FailureCounter addresses;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long decayMillis;
+    private final LongSupplier clock;
+
+    /**
+     * @param cells                  number of cells per key type and hash, rounded up to a power of two
+     * @param freeFailuresPerEmail   failures of an email before its logins are delayed
+     * @param freeFailuresPerAddress failures from an address before its logins are delayed
+     * @param baseDelayMillis        delay after the first failure beyond the free ones, doubled by every further failure
+     * @param maxDelayMillis         longest delay
+     * @param decayMillis            time without failures after which the failures of a key are forgotten
+     */
+    public LoginThrottle(int cells, int freeFailuresPerEmail, int freeFailuresPerAddress,
+                         long baseDelayMillis, long maxDelayMillis, long decayMillis) {
+        this(cells, freeFailuresPerEmail, freeFailuresPerAddress, baseDelayMillis, maxDelayMillis, decayMillis,
+                System::currentTimeMillis);
+    }
+
+    LoginThrottle(int cells, int freeFailuresPerEmail, int freeFailuresPerAddress,
+                  long baseDelayMillis, long maxDelayMillis, long decayMillis, LongSupplier clock) {
+        Assert.isTrue(cells > 0, "Login throttle cells must be positive");
+        Assert.isTrue(baseDelayMillis > 0 && maxDelayMillis >= baseDelayMillis, "Login throttle delays are invalid");
+        this.emails = new FailureCounter("email", cells, freeFailuresPerEmail);
+        this.addresses = new FailureCounter("address", cells, freeFailuresPerAddress);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.decayMillis = decayMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Rejects a login for the provided email from the provided address if either has failed too often recently.
+     *
+     * @param email   email the login is attempted for
+     * @param address address of the client
+     * @throws LoginThrottledException if the login has to wait
+     */
+    public void check(String email, String address) {
+        long now = clock.getAsLong();
+        long emailWait = emails.retryAfter(normalize(email), now);
+        long addressWait = addresses.retryAfter(address, now);
+        if (emailWait > 0 || addressWait > 0) {
+            throw new LoginThrottledException("Too many failed logins, try again later", Math.max(emailWait, addressWait));
+        }
+    }
+
+    /**
+     * Records a failed login for the provided email from the provided address.
+     */
+    public void failed(String email, String address) {
+        long now = clock.getAsLong();
+        emails.fail(normalize(email), now);
+        addresses.fail(address, now);
+    }
+
+    /**
+     * @return number of logins rejected because of their email
+     */
+    public long rejectedByEmailCount() {
+        return emails.rejected.sum();
+    }
+
+    /**
+     * @return number of logins rejected because of their address
+     */
+    public long rejectedByAddressCount() {
+        return addresses.rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (FailureCounter counter : new FailureCounter[]{emails, addresses}) {
+            FunctionCounter.builder("login.throttle.rejected", counter.rejected, LongAdder::doubleValue)
+                    .tags("key", counter.keyType)
+                    .description("Logins rejected before checking their password because of recent failures")
+                    .register(registry);
+            FunctionCounter.builder("login.throttle.failures", counter.failures, LongAdder::doubleValue)
+                    .tags("key", counter.keyType)
+                    .description("Failed logins counted by the login throttle")
+                    .register(registry);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private long delay(long failures, int freeFailures) {
+        long excess = failures - freeFailures;
+        if (excess <= 0) {
+            return 0;
+        }
+        int shift = (int) Math.min(excess - 1, Long.numberOfLeadingZeros(baseDelayMillis) - 1L);
+        return Math.min(maxDelayMillis, baseDelayMillis << shift);
+    }
+
+    /**
+     * The cells of one key type. Each cell holds {@code lastFailureMillis << COUNT_BITS | failures}.
+     */
+    private final class FailureCounter {
+
+        private final String keyType;
+        private final int freeFailures;
+        private final AtomicLongArray cells;
+        private final int mask;
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private FailureCounter(String keyType, int cells, int freeFailures) {
+            int size = Integer.highestOneBit(Math.max(1, cells - 1)) << 1;
+            this.keyType = keyType;
+            this.freeFailures = freeFailures;
+            // two rows of cells, one per hash
+            this.cells = new AtomicLongArray(size * 2);
+            this.mask = size - 1;
+        }
+
+        private long retryAfter(String key, long now) {
+            long first = cells.get(firstCell(key));
+            long second = cells.get(secondCell(key));
+            // the cell with fewer failures is the one least disturbed by other keys
+            long cell = count(first, now) <= count(second, now) ? first : second;
+            long wait = lastFailure(cell) + delay(count(cell, now), freeFailures) - now;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            return 0;
+        }
+
+        private void fail(String key, long now) {
+            failures.increment();
+            increment(firstCell(key), now);
+            increment(secondCell(key), now);
+        }
+
+        private void increment(int index, long now) {
+            long cell;
+            long updated;
+            do {
+                cell = cells.get(index);
+                updated = (now << COUNT_BITS) | Math.min(MAX_COUNT, count(cell, now) + 1);
+            } while (!cells.compareAndSet(index, cell, updated));
+        }
+
+        private long count(long cell, long now) {
+            return now - lastFailure(cell) >= decayMillis ? 0 : cell & MAX_COUNT;
+        }
+
+        private int firstCell(String key) {
+            return spread(key == null ? 0 : key.hashCode()) & mask;
+        }
+
+        private int secondCell(String key) {
+            int hash = key == null ? 0 : key.hashCode();
+            return mask + 1 + (spread(hash * 0x9E3779B9 ^ (hash >>> 16)) & mask);
+        }
+    }
+
+    private static long lastFailure(long cell) {
+        return cell >>> COUNT_BITS;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+}
@@ -0,0 +1,37 @@
+package edu.uwm.capstone.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether the authenticated user owns a resource, for use in {@code @PreAuthorize} and {@code @PostAuthorize}
+ * expressions as {@code @ownership}, e.g. {@code hasAuthority('READ_ALL_USERS') or @ownership.isSelf(#userId)}.
+ * <p>
+ * The authenticated user is identified by the user id of its verified token, see {@link TokenDetails}, so no check
+ * reads the database. Checks on a resource that has to be read anyway, such as a form, are made on the result of that
+ * read with {@code @PostAuthorize}.
+ */
+@Component("ownership")
+public class Ownership {
+
+    /**
+     * @param userId id of the user that owns a resource
+     * @return true if the authenticated user is the user with the provided id
+     */
+    public boolean isSelf(Long userId) {
+        Long currentUserId = currentUserId();
+        return currentUserId != null && currentUserId.equals(userId);
+    }
+
+    /**
+     * @return id of the authenticated user, or null if the request is not authenticated with a token
+     */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getDetails() instanceof TokenDetails)) {
+            return null;
+        }
+        return ((TokenDetails) authentication.getDetails()).getUserId();
+    }
+}
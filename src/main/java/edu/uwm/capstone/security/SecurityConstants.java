@@ -9,6 +9,8 @@ public class SecurityConstants {
     static final long EXPIRATION_TIME = 864_000_000; // 10 days
     static final String TOKEN_PREFIX = "Bearer ";
     static final String HEADER_STRING = "Authorization";
+    static final String EMAIL_CLAIM = "email";
+    static final String AUTHORITIES_CLAIM = "auth";
     public static final String AUTHENTICATE_URL = "/auth";
 
 }
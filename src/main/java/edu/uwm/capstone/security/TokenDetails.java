@@ -0,0 +1,43 @@
+package edu.uwm.capstone.security;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Details of an {@link org.springframework.security.core.Authentication} built from a verified token, carrying the
+ * id of the user the token was issued to.
+ */
+public final class TokenDetails implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+
+    public TokenDetails(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * @return id of the user the token was issued to
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(userId, ((TokenDetails) o).userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(userId);
+    }
+
+    @Override
+    public String toString() {
+        return "TokenDetails{userId=" + userId + '}';
+    }
+}
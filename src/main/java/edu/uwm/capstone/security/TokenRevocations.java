@@ -0,0 +1,292 @@
+package edu.uwm.capstone.security;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import edu.uwm.capstone.db.RevokedTokenDao;
+import edu.uwm.capstone.model.RevokedToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static edu.uwm.capstone.security.SecurityConstants.EXPIRATION_TIME;
+
+/**
+ * Decides whether a token was revoked, without reading the database.
+ * <p>
+ * A revocation revokes every token issued to its user before the revocation was made, see {@link RevokedToken}. The
+ * revocations that have not expired are held in memory as a map from user id to the time of the latest revocation of
+ * the user, together with a Bloom filter of the user ids. A check first asks the filter, which rules out almost every
+ * user that was never revoked without touching the map, and only looks the user up in the map when the filter
+ * answers that it may have been revoked. Both are replaced as a whole when a revocation is added or expires, so
+ * checks read them without locking.
+ * <p>
+ * Revocations made by this node are added once their transaction commits. Revocations made by other nodes are read
+ * every refresh interval, by reading the rows created since the latest one this node has seen. The read goes back
+ * {@link #OVERLAP_MILLIS} before that row, so that revocations whose transactions committed late are not missed; rows
+ * that are read again change nothing.
+ * <p>
+ * Checks are published as {@code token.revocation.checks}, tagged with the result {@code filtered} when the filter
+ * ruled the user out, {@code checked} when the map had to be consulted and the token was not revoked, and
+ * {@code revoked}. The number of revoked users is published as {@code token.revocation.users}.
+ */
+public class TokenRevocations implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenRevocations.class);
+
+    public static final long DEFAULT_REFRESH_MILLIS = 5000;
+    public static final int DEFAULT_EXPECTED_USERS = 10_000;
+
+    static final long OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final long PRUNE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final RevokedTokenDao revokedTokenDao;
+    private final long refreshMillis;
+    private final int expectedUsers;
+    private final LongSupplier clock;
+
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder revoked = new LongAdder();
+
+    private volatile Snapshot snapshot;
+    private LocalDateTime lastCreatedDate;
+    private long lastPruneMillis;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param revokedTokenDao {@link RevokedTokenDao}
+     * @param refreshMillis   interval between reads of the revocations made by other nodes
+     * @param expectedUsers   number of revoked users the Bloom filter is sized for; it grows beyond that if needed
+     */
+    public TokenRevocations(RevokedTokenDao revokedTokenDao, long refreshMillis, int expectedUsers) {
+        this(revokedTokenDao, refreshMillis, expectedUsers, System::currentTimeMillis);
+    }
+
+    TokenRevocations(RevokedTokenDao revokedTokenDao, long refreshMillis, int expectedUsers, LongSupplier clock) {
+        Assert.isTrue(refreshMillis > 0, "Token revocation refresh interval must be positive");
+        Assert.isTrue(expectedUsers > 0, "Token revocation expected users must be positive");
+        this.revokedTokenDao = revokedTokenDao;
+        this.refreshMillis = refreshMillis;
+        this.expectedUsers = expectedUsers;
+        this.clock = clock;
+        this.snapshot = new Snapshot(Collections.emptyMap(), expectedUsers);
+    }
+
+    /**
+     * @param userId         id of the user the token was issued to
+     * @param issuedAtMillis time the token was issued at
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(Long userId, long issuedAtMillis) {
+        if (userId == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        if (!current.filter.mightContain(userId)) {
+            filtered.increment();
+            return false;
+        }
+        Revocation revocation = current.revocations.get(userId);
+        if (revocation != null && issuedAtMillis < revocation.revokedBeforeMillis) {
+            revoked.increment();
+            return true;
+        }
+        checked.increment();
+        return false;
+    }
+
+    /**
+     * Revoke every token issued to the provided user until now. Within a transaction, the revocation takes effect on
+     * this node when the transaction commits.
+     *
+     * @param userId id of the user
+     */
+    public void revoke(Long userId) {
+        Assert.notNull(userId, "User id must not be null");
+        RevokedToken revokedToken = revokedTokenDao.create(RevokedToken.builder()
+                .userId(userId)
+                .expiresDate(LocalDateTime.now().plus(EXPIRATION_TIME, ChronoUnit.MILLIS))
+                .build());
+        LOG.debug("Revoked the tokens of user {}", userId);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(Collections.singletonList(revokedToken));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                add(Collections.singletonList(revokedToken));
+            }
+        });
+    }
+
+    /**
+     * Start reading the revocations made by other nodes on a background thread.
+     */
+    public synchronized void start() {
+        if (executor != null) return;
+
+        LOG.info("Reading token revocations every {} ms", refreshMillis);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop reading.
+     */
+    public synchronized void stop() {
+        if (executor == null) return;
+
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    /**
+     * Read the revocations created since the latest one this node has seen, drop the expired ones, and delete the
+     * expired rows every {@link #PRUNE_INTERVAL_MILLIS}.
+     */
+    public synchronized void refresh() {
+        long now = clock.getAsLong();
+        LocalDateTime after = lastCreatedDate == null ? null : lastCreatedDate.minus(OVERLAP_MILLIS, ChronoUnit.MILLIS);
+        List<RevokedToken> revokedTokens = revokedTokenDao.readCreatedAfter(after, LocalDateTime.now());
+        for (RevokedToken revokedToken : revokedTokens) {
+            if (lastCreatedDate == null || revokedToken.getCreatedDate().isAfter(lastCreatedDate)) {
+                lastCreatedDate = revokedToken.getCreatedDate();
+            }
+        }
+        add(revokedTokens);
+
+        if (now - lastPruneMillis >= PRUNE_INTERVAL_MILLIS) {
+            lastPruneMillis = now;
+            int pruned = revokedTokenDao.deleteExpiredBefore(LocalDateTime.now());
+            LOG.debug("Pruned {} revoked tokens", pruned);
+        }
+    }
+
+    void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // the revocations read so far are kept; new ones made by other nodes are missed until the next refresh
+            LOG.warn("Failed to read token revocations", e);
+        }
+    }
+
+    /**
+     * @return number of users with revoked tokens
+     */
+    public int revokedUserCount() {
+        return snapshot.revocations.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindChecks(registry, "filtered", filtered);
+        bindChecks(registry, "checked", checked);
+        bindChecks(registry, "revoked", revoked);
+        Gauge.builder("token.revocation.users", this, TokenRevocations::revokedUserCount)
+                .description("Users whose tokens issued before a revocation are rejected")
+                .register(registry);
+    }
+
+    private static void bindChecks(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("token.revocation.checks", count, LongAdder::doubleValue)
+                .tags("result", result)
+                .description("Tokens checked for revocation")
+                .register(registry);
+    }
+
+    /**
+     * Add the provided revocations and drop the expired ones, replacing the snapshot if anything changed.
+     */
+    private synchronized void add(Collection<RevokedToken> revokedTokens) {
+        long now = clock.getAsLong();
+        Map<Long, Revocation> revocations = new HashMap<>(snapshot.revocations);
+        boolean changed = revocations.values().removeIf(revocation -> revocation.expiresMillis <= now);
+        for (RevokedToken revokedToken : revokedTokens) {
+            Revocation added = new Revocation(millis(revokedToken.getCreatedDate()), millis(revokedToken.getExpiresDate()));
+            if (added.expiresMillis <= now) continue;
+
+            // rows that are read again are already covered by the revocation of their user
+            Revocation previous = revocations.get(revokedToken.getUserId());
+            Revocation latest = previous == null ? added : Revocation.latest(previous, added);
+            if (latest != previous) {
+                revocations.put(revokedToken.getUserId(), latest);
+                changed = true;
+            }
+        }
+        if (changed) {
+            snapshot = new Snapshot(revocations, expectedUsers);
+        }
+    }
+
+    private static long millis(LocalDateTime localDateTime) {
+        return localDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * The latest revocation of a user.
+     */
+    private static final class Revocation {
+
+        private final long revokedBeforeMillis;
+        private final long expiresMillis;
+
+        private Revocation(long revokedBeforeMillis, long expiresMillis) {
+            this.revokedBeforeMillis = revokedBeforeMillis;
+            this.expiresMillis = expiresMillis;
+        }
+
+        private static Revocation latest(Revocation a, Revocation b) {
+            if (a.revokedBeforeMillis >= b.revokedBeforeMillis && a.expiresMillis >= b.expiresMillis) {
+                return a;
+            }
+            return new Revocation(Math.max(a.revokedBeforeMillis, b.revokedBeforeMillis),
+                    Math.max(a.expiresMillis, b.expiresMillis));
+        }
+    }
+
+    /**
+     * The revocations and the Bloom filter of their user ids, never modified once published.
+     */
+    private static final class Snapshot {
+
+        private final Map<Long, Revocation> revocations;
+        private final BloomFilter<Long> filter;
+
+        private Snapshot(Map<Long, Revocation> revocations, int expectedUsers) {
+            this.revocations = Collections.unmodifiableMap(revocations);
+            this.filter = BloomFilter.create(Funnels.longFunnel(), Math.max(expectedUsers, 2 * revocations.size()),
+                    FALSE_POSITIVE_PROBABILITY);
+            for (Long userId : revocations.keySet()) {
+                filter.put(userId);
+            }
+        }
+    }
+}
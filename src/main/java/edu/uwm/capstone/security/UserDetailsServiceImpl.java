@@ -4,20 +4,22 @@ import edu.uwm.capstone.db.UserDao;
 import edu.uwm.capstone.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 
 @Service("UserDetailsService")
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserDao userDao;
 
     @Override
     public UserDetails loadUserByUsername(String username) {
-        User user = userDao.readByEmail(username); // this will get the user with their authorities
+        // only the credentials and authorities are needed to check the password and issue the token
+        User user = userDao.readCredentialsByEmail(username);
 
         if (user == null) {
             throw new UsernameNotFoundException(username);
@@ -25,4 +27,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return user;
     }
-}
\ No newline at end of file
+
+    /**
+     * Stores the new hash of a password that was hashed with an outdated cost, once the user has logged in with it.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        return userDao.updatePassword((User) user, newPassword);
+    }
+}
@@ -0,0 +1,27 @@
+package edu.uwm.capstone.security.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown when a login is rejected because of the recent failed logins for its email or from its address.
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    private final long retryAfterMillis;
+
+    /**
+     * @param message          the detail message
+     * @param retryAfterMillis milliseconds until the next login may be attempted
+     */
+    public LoginThrottledException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return milliseconds until the next login may be attempted
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -1,5 +1,6 @@
 package edu.uwm.capstone.service;
 
+import edu.uwm.capstone.db.DegreeProgramCatalog;
 import edu.uwm.capstone.db.DegreeProgramDao;
 import edu.uwm.capstone.model.DegreeProgram;
 import edu.uwm.capstone.model.DegreeProgramState;
@@ -7,35 +8,47 @@ import edu.uwm.capstone.service.exception.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service("degreeProgramService")
+@Transactional(readOnly = true)
 public class DegreeProgramService {
 
     private static final Logger LOG = LoggerFactory.getLogger(DegreeProgramService.class);
 
+    private static final String DUPLICATE_NAME = "Degree program names must be unique.";
+
     private final DegreeProgramDao degreeProgramDao;
+    private final SingleFlight<Long, DegreeProgram> reads;
 
     @Autowired
-    public DegreeProgramService(DegreeProgramDao degreeProgramDao) {
+    public DegreeProgramService(DegreeProgramDao degreeProgramDao, SingleFlights singleFlights) {
         this.degreeProgramDao = degreeProgramDao;
+        this.reads = singleFlights.forMethod("degreeProgram.read", DegreeProgramCatalog::copyOf);
     }
 
+    @Transactional
     public DegreeProgram create(DegreeProgram dp) {
         LOG.trace("Creating degree program {}", dp);
         checkValidDegreeProgram(dp, true);
-        return degreeProgramDao.create(dp);
+        try {
+            return degreeProgramDao.create(dp);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException(DUPLICATE_NAME, e);
+        }
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public DegreeProgram read(Long degreeProgramId) {
         LOG.trace("Reading degree program {}", degreeProgramId);
 
-        DegreeProgram dp = degreeProgramDao.read(degreeProgramId);
+        DegreeProgram dp = reads.read(degreeProgramId, degreeProgramDao::read);
 
         if(dp == null) {
             throw new EntityNotFoundException("Degree program with ID: " + degreeProgramId + " not found.");
@@ -47,6 +60,7 @@ public class DegreeProgramService {
         return degreeProgramDao.readAll();
     }
 
+    @Transactional
     public DegreeProgram update(DegreeProgram dp) {
         LOG.trace("Updating degree program {}", dp);
 
@@ -58,9 +72,14 @@ public class DegreeProgramService {
         }
 
         dp.setCreatedDate(dpInDb.getCreatedDate());
-        return degreeProgramDao.update(dp);
+        try {
+            return degreeProgramDao.update(dp);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException(DUPLICATE_NAME, e);
+        }
     }
 
+    @Transactional
     public void delete(Long degreeProgramId) {
         LOG.trace("Deleting degree program {}", degreeProgramId);
         if (degreeProgramDao.read(degreeProgramId) == null) {
@@ -89,12 +108,6 @@ public class DegreeProgramService {
         Assert.isTrue(numInitial == 1, "Degree program must have one and only one initial state.");
         Assert.notNull(dp.getName(), "Degree program name cannot be null.");
         Assert.notNull(dp.getDescription(), "Degree program description cannot be null.");
-
-        // Assert that the Degree Program name is unique
-        Set<String> degreeProgramIds = degreeProgramDao.readAll().stream()
-                .filter(dps -> !dps.getId().equals(dp.getId()))
-                .map(DegreeProgram::getName)
-                .collect(Collectors.toSet());
-        Assert.isTrue(!degreeProgramIds.contains(dp.getName()), "Degree program names must be unique.");
+        // the uniqueness of the name is enforced by the database, see create and update
     }
 }
\ No newline at end of file
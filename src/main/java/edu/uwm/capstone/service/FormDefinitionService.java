@@ -2,13 +2,14 @@ package edu.uwm.capstone.service;
 
 import edu.uwm.capstone.db.FormDefinitionDao;
 import edu.uwm.capstone.model.FieldDefinition;
-import edu.uwm.capstone.model.Form;
 import edu.uwm.capstone.model.FormDefinition;
 import edu.uwm.capstone.service.exception.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.util.HashSet;
@@ -16,15 +17,18 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service("formDefinitionService")
+@Transactional(readOnly = true)
 public class FormDefinitionService {
 
     private static final Logger LOG = LoggerFactory.getLogger(FormDefinitionService.class);
 
     private final FormDefinitionDao formDefinitionDao;
+    private final SingleFlight<Long, FormDefinition> reads;
 
     @Autowired
-    public FormDefinitionService(FormDefinitionDao formDefinitionDao) {
+    public FormDefinitionService(FormDefinitionDao formDefinitionDao, SingleFlights singleFlights) {
         this.formDefinitionDao = formDefinitionDao;
+        this.reads = singleFlights.forMethod("formDefinition.read", FormDefinitionDao::copyOf);
     }
 
     @Autowired
@@ -36,6 +40,7 @@ public class FormDefinitionService {
      * @param formDef
      * @return FormDefinition
      */
+    @Transactional
     public FormDefinition create(FormDefinition formDef) {
         LOG.trace("Creating form definition {}", formDef);
         checkValidFormDefinition(formDef, true);
@@ -48,10 +53,11 @@ public class FormDefinitionService {
      * @param formDefId
      * @return FormDefinition
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public FormDefinition read(Long formDefId) {
         LOG.trace("Reading form definition {}", formDefId);
 
-        FormDefinition formDef = formDefinitionDao.read(formDefId);
+        FormDefinition formDef = reads.read(formDefId, formDefinitionDao::read);
 
         if (formDef == null) {
             throw new EntityNotFoundException("Form definition with ID: " + formDefId + " not found.");
@@ -75,6 +81,7 @@ public class FormDefinitionService {
      * @param formDef
      * @return
      */
+    @Transactional
     public FormDefinition update(FormDefinition formDef) {
         LOG.trace("Updating form {}", formDef);
 
@@ -84,8 +91,7 @@ public class FormDefinitionService {
         if (formDefinitionInDb == null) {
             throw new EntityNotFoundException("Could not update form definition " + formDef.getId() + " - record not found.");
         }
-        List<Form> resultSet = formService.readAllByFormDefId(formDef.getId());
-        Assert.isTrue(resultSet.isEmpty(), "This form definition cannot be updated, forms already exist that " +
+        Assert.isTrue(!formService.existsByFormDefId(formDef.getId()), "This form definition cannot be updated, forms already exist that " +
                 "use its old template!");
 
         HashSet<Long> fieldDefIdsAssociatedWithOldFormDef = formDefinitionInDb.getFieldDefs().stream().map(FieldDefinition::getId).collect(Collectors.toCollection(HashSet::new));
@@ -106,13 +112,13 @@ public class FormDefinitionService {
      * @param formDefId
      * @return
      */
+    @Transactional
     public void delete(Long formDefId) {
         LOG.trace("Deleting form definition {}", formDefId);
         if (formDefinitionDao.read(formDefId) == null) {
             throw new EntityNotFoundException("Could not delete form definition " + formDefId + " - record not found.");
         }
-        List<Form> resultSet = formService.readAllByFormDefId(formDefId);
-        Assert.isTrue(resultSet.isEmpty(), "This form definition cannot be deleted, forms already exist that " +
+        Assert.isTrue(!formService.existsByFormDefId(formDefId), "This form definition cannot be deleted, forms already exist that " +
                 "use its old template!");
 
         formDefinitionDao.delete(formDefId);
@@ -7,18 +7,24 @@ import edu.uwm.capstone.model.Field;
 import edu.uwm.capstone.model.FieldDefinition;
 import edu.uwm.capstone.model.Form;
 import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.model.FormFilter;
+import edu.uwm.capstone.model.Page;
 import edu.uwm.capstone.service.exception.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service("formService")
+@Transactional(readOnly = true)
 public class FormService {
 
     private static final Logger LOG = LoggerFactory.getLogger(FormService.class);
@@ -40,6 +46,7 @@ public class FormService {
      * @param form Form
      * @return Form
      */
+    @Transactional
     public Form create(Form form) {
         LOG.trace("Creating form definition {}", form);
         FormDefinition formDefinitionInDb = formDefinitionDao.read(form.getFormDefId());
@@ -94,6 +101,32 @@ public class FormService {
         return formDao.readAllByFormDefId(formDefId);
     }
 
+    /**
+     * Returns true if any {@link Form} uses the {@link FormDefinition} with the given id.
+     *
+     * @param formDefId id of the {@link FormDefinition}
+     * @return true if at least one form uses the form definition
+     */
+    public boolean existsByFormDefId(Long formDefId) {
+        return formDao.existsByFormDefId(formDefId);
+    }
+
+    /**
+     * Returns a lazily consumed stream of the {@link Form} objects with {@link Form#formDefId} = formDefId.
+     * The stream takes its own connection outside of any transaction when it is first consumed, and must be closed by
+     * the caller.
+     *
+     * @param formDefId id of the {@link FormDefinition}
+     * @return stream of {@link Form}s
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Stream<Form> streamAllByFormDefId(Long formDefId) {
+        if (formDefinitionDao.read(formDefId) == null) {
+            throw new EntityNotFoundException("Form definition with ID: " + formDefId + " not found.");
+        }
+        return formDao.streamAllByFormDefId(formDefId);
+    }
+
     /**
      * Retrieves all {@link Form} objects with {@link Form#userId} = userId.
      *
@@ -103,6 +136,18 @@ public class FormService {
         return formDao.readAllByUserId(userId);
     }
 
+    /**
+     * Retrieves one page of the {@link Form} objects matching the given {@link FormFilter}.
+     *
+     * @param filter {@link FormFilter}
+     * @return {@link Page} of {@link Form}s
+     */
+    public Page<Form> readPage(FormFilter filter) {
+        Assert.notNull(filter, "Form filter cannot be null");
+        int limit = Page.limit(filter.getLimit());
+        return Page.of(formDao.readPage(filter, limit + 1), limit, Form::getId);
+    }
+
     /**
      * Retrieves all {@link Form} objects associated with the user whose {@link Form#pantherId} = pantherId.
      * @param pantherId
@@ -118,6 +163,7 @@ public class FormService {
      * @param fields
      * @return
      */
+    @Transactional
     public Form updateFormFields(Long formId, List<Field> fields) {
         LOG.trace("Updating form {}", formId);
 
@@ -160,21 +206,23 @@ public class FormService {
      * @param formId
      * @return
      */
+    @Transactional
     public void delete(Long formId) {
         LOG.trace("Deleting form definition {}", formId);
-        if (formDao.read(formId) == null) {
+        if (!formDao.exists(formId)) {
             throw new EntityNotFoundException("Could not delete form " + formId + " - record not found.");
         }
         formDao.delete(formId);
     }
 
+    @Transactional
     public Form approve(Long formId, boolean isApproved) {
-        LOG.trace(isApproved ? "Approving" : "Rejecting" + "form {}", formId);
-        if (formDao.read(formId) == null) {
+        LOG.trace("{} form {}", isApproved ? "Approving" : "Rejecting", formId);
+        Form form = formDao.approve(formId, isApproved);
+        if (form == null) {
             throw new EntityNotFoundException("Could not change approval for form " + formId + " - record not found.");
         }
-
-        return formDao.approve(formId, isApproved);
+        return form;
     }
 
     /**
@@ -196,7 +244,7 @@ public class FormService {
                 "Form should have same number of fields as its form definition");
 
         Assert.notNull(form.getUserId(), "Form's user id should not be null");
-        Assert.notNull(userDao.read(form.getUserId()), "Form's user should exist");
+        Assert.isTrue(userDao.exists(form.getUserId()), "Form's user should exist");
 
         Assert.notNull(form.getFields(), "Form fields cannot be null");
         Assert.notEmpty(form.getFields(), "Form must have at least one field");
@@ -6,12 +6,15 @@ import edu.uwm.capstone.service.exception.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.util.List;
 
 @Service("roleService")
+@Transactional(readOnly = true)
 public class RoleService {
 
     private static final Logger LOG = LoggerFactory.getLogger(RoleService.class);
@@ -29,12 +32,17 @@ public class RoleService {
      * @param role {@link Role}
      * @return {@link Role}
      */
+    @Transactional
     public Role create(Role role) {
         LOG.trace("Creating role {}", role);
 
         checkValidRole(role, true);
 
-        return roleDao.create(role);
+        try {
+            return roleDao.create(role);
+        } catch (DuplicateKeyException e) {
+            throw duplicateRole(role, e);
+        }
     }
 
     /**
@@ -88,6 +96,7 @@ public class RoleService {
      * @param role {@link Role}
      * @return true if successful
      */
+    @Transactional
     public Role update(Role role) {
         LOG.trace("Updating role {}", role);
 
@@ -98,7 +107,11 @@ public class RoleService {
             throw new EntityNotFoundException("Could not update Role " + role.getId() + " - record not found.");
         }
         role.setCreatedDate(roleInDb.getCreatedDate());
-        return roleDao.update(role);
+        try {
+            return roleDao.update(role);
+        } catch (DuplicateKeyException e) {
+            throw duplicateRole(role, e);
+        }
     }
 
     /**
@@ -107,6 +120,7 @@ public class RoleService {
      * @param roleId
      * @return true if successful
      */
+    @Transactional
     public void delete(Long roleId) {
         LOG.trace("Deleting role {}", roleId);
 
@@ -127,8 +141,20 @@ public class RoleService {
         Assert.notNull(role, "Role must not be null");
         if (checkNullId)
             Assert.isNull(role.getId(), "Role ID must be null");
+    }
 
-        Role tmpRole = roleDao.readByName(role.getName());
-        Assert.isTrue(tmpRole == null || tmpRole.getId().equals(role.getId()), "Role already exists with the name " + role.getName());
+    /**
+     * Translate a violation of the unique role name constraint into the {@link IllegalArgumentException} that is
+     * reported to the client.
+     *
+     * @param role {@link Role} that was being written
+     * @param e    {@link DuplicateKeyException} thrown by the {@link RoleDao}
+     * @return {@link IllegalArgumentException} describing the duplicate name
+     */
+    private RuntimeException duplicateRole(Role role, DuplicateKeyException e) {
+        if (UniqueConstraints.violated(e, UniqueConstraints.ROLES_NAME)) {
+            return new IllegalArgumentException("Role already exists with the name " + role.getName(), e);
+        }
+        return e;
     }
 }
@@ -0,0 +1,134 @@
+package edu.uwm.capstone.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent identical reads of one service method: the first caller for a key runs the read and every
+ * caller that asks for the same key while it is in flight waits for its result instead of running its own.
+ * <p>
+ * Callers that wait receive a copy of the result, so no two callers share a mutable entity. Exceptions thrown by the
+ * read are rethrown to every waiting caller. A caller inside a transaction that is not read-only may have written
+ * what it reads, so it neither joins nor leads a shared read.
+ * <p>
+ * Instances are obtained from {@link SingleFlights}, which decides whether a method coalesces its reads.
+ *
+ * @param <K> type of the key of a read
+ * @param <V> type of the result of a read
+ */
+public class SingleFlight<K, V> {
+
+    private final String method;
+    private final boolean enabled;
+    private final UnaryOperator<V> copier;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loaded = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    /**
+     * @param method  name of the coalesced method in metrics
+     * @param enabled false to run every read on its own
+     * @param copier  copies a result for a waiting caller
+     */
+    SingleFlight(String method, boolean enabled, UnaryOperator<V> copier) {
+        this.method = method;
+        this.enabled = enabled;
+        this.copier = copier;
+    }
+
+    /**
+     * Runs the read for the given key, or waits for the read of the same key that is already in flight.
+     *
+     * @param key    key of the read
+     * @param reader runs the read
+     * @return result of the read, which may be null
+     */
+    public V read(K key, Function<K, V> reader) {
+        if (!enabled || writingTransactionActive()) {
+            bypassed.increment();
+            return reader.apply(key);
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return copyOf(await(leader));
+        }
+
+        loaded.increment();
+        try {
+            V result = reader.apply(key);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return number of reads that were run by their caller and shared with any callers that waited for them
+     */
+    public long loadedCount() {
+        return loaded.sum();
+    }
+
+    /**
+     * @return number of calls that waited for a read already in flight instead of running their own
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return number of calls that ran their own read because coalescing is disabled or they are writing
+     */
+    public long bypassedCount() {
+        return bypassed.sum();
+    }
+
+    /**
+     * @return number of reads in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V copyOf(V result) {
+        return result == null ? null : copier.apply(result);
+    }
+
+    private static boolean writingTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
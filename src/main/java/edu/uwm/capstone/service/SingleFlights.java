@@ -0,0 +1,78 @@
+package edu.uwm.capstone.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hands out the {@link SingleFlight} of each service method. Methods opt in by reading through their
+ * {@link SingleFlight}; only the methods named in the configuration actually coalesce their reads.
+ * <p>
+ * The calls of every method are published as {@code single.flight.calls}, tagged with the method and whether the
+ * call ran the read ({@code loaded}), waited for a read in flight ({@code coalesced}) or ran on its own
+ * ({@code bypassed}).
+ */
+public class SingleFlights implements MeterBinder {
+
+    private final Set<String> enabledMethods;
+    private final Map<String, SingleFlight<?, ?>> flights = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    /**
+     * @param enabledMethods names of the methods that coalesce their reads
+     */
+    public SingleFlights(Collection<String> enabledMethods) {
+        this.enabledMethods = new HashSet<>(enabledMethods);
+    }
+
+    /**
+     * Returns the {@link SingleFlight} of the method with the given name, creating it on first use.
+     *
+     * @param method name of the method, e.g. {@code formDefinition.read}
+     * @param copier copies a result for callers that waited for it
+     * @return {@link SingleFlight}
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> SingleFlight<K, V> forMethod(String method, UnaryOperator<V> copier) {
+        return (SingleFlight<K, V>) flights.computeIfAbsent(method, name -> {
+            SingleFlight<K, V> flight = new SingleFlight<>(name, enabledMethods.contains(name), copier);
+            MeterRegistry current = registry;
+            if (current != null) {
+                bind(flight, current);
+            }
+            return flight;
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        flights.values().forEach(flight -> bind(flight, registry));
+    }
+
+    private static void bind(SingleFlight<?, ?> flight, MeterRegistry registry) {
+        FunctionCounter.builder("single.flight.calls", flight, SingleFlight::loadedCount)
+                .tags("method", flight.getMethod(), "result", "loaded")
+                .description("Reads run by their caller")
+                .register(registry);
+        FunctionCounter.builder("single.flight.calls", flight, SingleFlight::coalescedCount)
+                .tags("method", flight.getMethod(), "result", "coalesced")
+                .description("Calls that waited for a read already in flight")
+                .register(registry);
+        FunctionCounter.builder("single.flight.calls", flight, SingleFlight::bypassedCount)
+                .tags("method", flight.getMethod(), "result", "bypassed")
+                .description("Calls that did not coalesce because it is disabled or they are writing")
+                .register(registry);
+        Gauge.builder("single.flight.in.flight", flight, SingleFlight::inFlightCount)
+                .tags("method", flight.getMethod())
+                .register(registry);
+    }
+}
@@ -0,0 +1,31 @@
+package edu.uwm.capstone.service;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Locale;
+
+/**
+ * Names of the unique indexes declared by the database migrations. Services let the database reject duplicate
+ * values and use these names to tell which constraint a {@link DuplicateKeyException} violated.
+ */
+final class UniqueConstraints {
+
+    static final String USERS_EMAIL = "users_email_unique";
+    static final String USERS_PANTHER_ID = "users_panther_id_unique";
+    static final String ROLES_NAME = "roles_name_unique";
+
+    private UniqueConstraints() {
+    }
+
+    /**
+     * Returns true if the provided {@link DuplicateKeyException} was caused by a violation of the named constraint.
+     *
+     * @param e          {@link DuplicateKeyException} thrown by a DAO
+     * @param constraint name of the unique constraint
+     * @return true if the constraint was violated
+     */
+    static boolean violated(DuplicateKeyException e, String constraint) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+}
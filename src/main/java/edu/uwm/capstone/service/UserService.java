@@ -1,27 +1,31 @@
 package edu.uwm.capstone.service;
 
+import edu.uwm.capstone.db.DegreeProgramCatalog;
 import edu.uwm.capstone.db.DegreeProgramDao;
-import edu.uwm.capstone.db.DegreeProgramStateDao;
 import edu.uwm.capstone.db.RoleDao;
 import edu.uwm.capstone.db.UserDao;
 import edu.uwm.capstone.model.DegreeProgram;
 import edu.uwm.capstone.model.DegreeProgramState;
-import edu.uwm.capstone.model.Role;
+import edu.uwm.capstone.model.Page;
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.model.UserFilter;
+import edu.uwm.capstone.security.TokenRevocations;
 import edu.uwm.capstone.service.exception.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service("userService")
+@Transactional(readOnly = true)
 public class UserService {
 
     private static final Logger LOG = LoggerFactory.getLogger(UserService.class);
@@ -31,15 +35,16 @@ public class UserService {
     private final UserDao userDao;
     private final RoleDao roleDao;
     private final DegreeProgramDao degreeProgramDao;
-    private final DegreeProgramStateDao degreeProgramStateDao;
+    private final TokenRevocations tokenRevocations;
 
     @Autowired
-    public UserService(PasswordEncoder passwordEncoder, UserDao userDao, RoleDao roleDao, DegreeProgramDao degreeProgramDao, DegreeProgramStateDao degreeProgramStateDao) {
+    public UserService(PasswordEncoder passwordEncoder, UserDao userDao, RoleDao roleDao, DegreeProgramDao degreeProgramDao,
+                       TokenRevocations tokenRevocations) {
         this.passwordEncoder = passwordEncoder;
         this.userDao = userDao;
         this.roleDao = roleDao;
         this.degreeProgramDao = degreeProgramDao;
-        this.degreeProgramStateDao = degreeProgramStateDao;
+        this.tokenRevocations = tokenRevocations;
     }
 
     /**
@@ -48,6 +53,7 @@ public class UserService {
      * @param user {@link User}
      * @return {@link User}
      */
+    @Transactional
     public User create(User user) {
         LOG.trace("Creating user {}", user);
 
@@ -61,17 +67,23 @@ public class UserService {
             user.setCurrentState(null);
         }
 
+        // the password is hashed only once the email and panther id are known to be free
+        checkUnique(user);
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userDao.create(user);
+        try {
+            return userDao.create(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUser(user, e);
+        }
     }
 
     /**
-     * Retrieve a {@link User} object by its Id.
+     * Retrieve a {@link User} object by its Id. Whether the caller may read the user is checked from its token by
+     * {@link edu.uwm.capstone.security.Ownership} before this is called.
      *
      * @param userId
      * @return {@link User}
      */
-    //TODO: Check that users who can't read all only read their own IDs
     public User read(Long userId) {
         LOG.trace("Reading user {}", userId);
 
@@ -80,7 +92,6 @@ public class UserService {
         if (user == null) {
             throw new EntityNotFoundException("User with ID: " + userId + " not found.");
         }
-        setUsersDegreeProgramName(user);
         return user;
     }
 
@@ -98,7 +109,6 @@ public class UserService {
         if (user == null) {
             throw new EntityNotFoundException("User with email: " + email + " not found.");
         }
-        setUsersDegreeProgramName(user);
         return user;
     }
 
@@ -116,7 +126,6 @@ public class UserService {
         if (user == null) {
             throw new EntityNotFoundException("User with panther id: " + pantherId + " not found.");
         }
-        setUsersDegreeProgramName(user);
         return user;
     }
 
@@ -127,22 +136,29 @@ public class UserService {
      */
     public List<User> readAll() {
         LOG.trace("Reading all users");
-        List<User> result = userDao.readAll();
-        result.forEach(this::setUsersDegreeProgramName);
-        return result;
+        return userDao.readAll();
     }
 
-    private void setUsersDegreeProgramName(User user) {
-        if (user.getCurrentState() != null)
-            user.setDegreeProgramName(degreeProgramDao.read(user.getCurrentState().getDegreeProgramId()).getName());
+    /**
+     * Retrieves one page of the {@link User} objects matching the given {@link UserFilter}.
+     *
+     * @param filter {@link UserFilter}
+     * @return {@link Page} of {@link User}s
+     */
+    public Page<User> readPage(UserFilter filter) {
+        Assert.notNull(filter, "User filter cannot be null");
+        int limit = Page.limit(filter.getLimit());
+        return Page.of(userDao.readPage(filter, limit + 1), limit, User::getId);
     }
 
     /**
-     * Update the provided {@link User} object.
+     * Update the provided {@link User} object. The tokens already issued to the user are revoked if the update
+     * disables, locks or expires its account.
      *
      * @param user {@link User}
      * @return true if successful
      */
+    @Transactional
     public User update(User user) {
         LOG.trace("Updating user {}", user);
 
@@ -152,9 +168,22 @@ public class UserService {
         if (userInDb == null) {
             throw new EntityNotFoundException("Could not update User " + user.getId() + " - record not found.");
         }
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        // clients echo the stored hash back when the password is not changed; hashing it again would replace the password
+        if (!user.getPassword().equals(userInDb.getPassword())) {
+            checkUnique(user);
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        }
         user.setCreatedDate(userInDb.getCreatedDate());
-        return userDao.update(user);
+        User updated;
+        try {
+            updated = userDao.update(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUser(user, e);
+        }
+        if (lostAccess(userInDb, user)) {
+            tokenRevocations.revoke(user.getId());
+        }
+        return updated;
     }
 
     /**
@@ -164,6 +193,7 @@ public class UserService {
      * @param stateId id of the {@link edu.uwm.capstone.model.DegreeProgramState}
      * @return true if successful
      */
+    @Transactional
     public User updateCurrentState(Long userId, Long stateId) {
         User user = userDao.read(userId);
 
@@ -172,13 +202,14 @@ public class UserService {
         }
 
         if (stateId != null) {
-            DegreeProgramState dps = degreeProgramStateDao.read(stateId);
+            DegreeProgramCatalog degreeProgramCatalog = degreeProgramDao.catalog();
+            DegreeProgramState dps = degreeProgramCatalog.readState(stateId);
             if (dps == null) {
                 throw new EntityNotFoundException("Degree Program State with ID: " + stateId + " not found.");
             }
             user.setCurrentStateId(stateId);
             user.setCurrentState(dps);
-            setUsersDegreeProgramName(user);
+            user.setDegreeProgramName(degreeProgramCatalog.degreeProgramName(stateId));
             userDao.updateState(user);
         } else {
             user.setCurrentStateId(null);
@@ -189,18 +220,63 @@ public class UserService {
     }
 
     /**
-     * Delete a {@link User} object by its Id.
+     * Delete a {@link User} object by its Id and revoke the tokens issued to it.
      *
      * @param userId
      * @return true if successful
      */
+    @Transactional
     public void delete(Long userId) {
         LOG.trace("Deleting user {}", userId);
 
-        if (userDao.read(userId) == null) {
+        if (!userDao.exists(userId)) {
             throw new EntityNotFoundException("Could not delete User " + userId + " - record not found.");
         }
         userDao.delete(userId);
+        tokenRevocations.revoke(userId);
+    }
+
+    /**
+     * @return true if the account of the user could log in before the update but not after it
+     */
+    private static boolean lostAccess(User before, User after) {
+        return canLogIn(before) && !canLogIn(after);
+    }
+
+    private static boolean canLogIn(User user) {
+        return Boolean.TRUE.equals(user.getEnabled()) && user.isAccountNonLocked() && user.isAccountNonExpired();
+    }
+
+    /**
+     * Translate a violation of the unique email or panther id constraint into the {@link IllegalArgumentException}
+     * that is reported to the client.
+     *
+     * @param user {@link User} that was being written
+     * @param e    {@link DuplicateKeyException} thrown by the {@link UserDao}
+     * @return {@link IllegalArgumentException} describing the duplicate value
+     */
+    /**
+     * Check that no other {@link User} is registered with the email or panther id of the given user, so that the
+     * password is not hashed for a write the unique indexes would reject. The indexes still reject a user registered
+     * concurrently after this check.
+     *
+     * @param user {@link User} to be created or updated
+     */
+    private void checkUnique(User user) {
+        if (userDao.existsOtherByEmail(user.getEmail(), user.getId())) {
+            throw new IllegalArgumentException("User already registered with email " + user.getEmail());
+        } else if (userDao.existsOtherByPantherId(user.getPantherId(), user.getId())) {
+            throw new IllegalArgumentException("User already registered with panther id " + user.getPantherId());
+        }
+    }
+
+    private RuntimeException duplicateUser(User user, DuplicateKeyException e) {
+        if (UniqueConstraints.violated(e, UniqueConstraints.USERS_EMAIL)) {
+            return new IllegalArgumentException("User already registered with email " + user.getEmail(), e);
+        } else if (UniqueConstraints.violated(e, UniqueConstraints.USERS_PANTHER_ID)) {
+            return new IllegalArgumentException("User already registered with panther id " + user.getPantherId(), e);
+        }
+        return e;
     }
 
     /**
@@ -221,17 +297,13 @@ public class UserService {
         Assert.notNull(user.getPantherId(), "User panther id must not be null");
         Assert.notNull(user.getRoleNames(), "User roles must not be null");
 
-        User tmpUser = userDao.readByEmail(user.getEmail());
-        Assert.isTrue(tmpUser == null || tmpUser.getId().equals(user.getId()),
-                "User already registered with email " + user.getEmail());
-
-        tmpUser = userDao.readByPantherId(user.getPantherId());
-        Assert.isTrue(tmpUser == null || tmpUser.getId().equals(user.getId()),
-                "User already registered with panther id " + user.getPantherId());
-
-        Set<String> roleNamesInDb = roleDao.readAll().stream().map(Role::getName).collect(Collectors.toCollection(HashSet::new));
-        for (String roleName : user.getRoleNames()) {
-            Assert.isTrue(roleNamesInDb.contains(roleName), "User roles must exist in the database. Found role " + roleName + " which doesn't exist");
+        Set<String> roleNames = user.getRoleNames();
+        if (roleDao.countByNames(roleNames) != roleNames.size()) {
+            // only look up the offending role once the count shows that one is missing
+            for (String roleName : roleNames) {
+                Assert.isTrue(roleDao.countByNames(Collections.singleton(roleName)) == 1,
+                        "User roles must exist in the database. Found role " + roleName + " which doesn't exist");
+            }
         }
 
     }
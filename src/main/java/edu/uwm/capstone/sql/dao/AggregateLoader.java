@@ -0,0 +1,176 @@
+package edu.uwm.capstone.sql.dao;
+
+import lombok.Builder;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Loads parent entities together with their children using a constant number of queries.
+ * <p>
+ * The parents are read with a single statement. The keys of every parent are then bound to the child statement's
+ * IN clause in chunks of {@link #chunkSize}, and the children are grouped by parent key and handed to the
+ * {@link #assembler}. Parents without children are assembled with an empty list.
+ *
+ * @param <K> type of the parent key
+ * @param <P> parent entity type
+ * @param <C> child entity type
+ */
+@Builder
+public class AggregateLoader<K, P, C> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AggregateLoader.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    @NonNull
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @NonNull
+    private final RowMapper<P> parentMapper;
+
+    @NonNull
+    private final Function<P, K> parentKey;
+
+    /**
+     * Statement selecting the children of a set of parents, e.g. {@code WHERE parent_id IN (:parent_ids)}.
+     */
+    @NonNull
+    private final String childStatement;
+
+    /**
+     * Name of the parameter in {@link #childStatement} that is bound to the parent keys.
+     */
+    @NonNull
+    private final String childKeysParameter;
+
+    @NonNull
+    private final RowMapper<C> childMapper;
+
+    @NonNull
+    private final Function<C, K> childParentKey;
+
+    @NonNull
+    private final BiConsumer<P, List<C>> assembler;
+
+    @Builder.Default
+    private final int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Run the parent statement and assemble every parent it returns with its children.
+     *
+     * @param parentStatement statement selecting the parents
+     * @param parameters      parameters of the parent statement
+     * @return assembled parents, in the order returned by the parent statement
+     */
+    public List<P> load(String parentStatement, SqlParameterSource parameters) {
+        return assemble(jdbcTemplate.query(parentStatement, parameters, parentMapper));
+    }
+
+    /**
+     * Run a parent statement that takes no parameters and assemble every parent it returns with its children.
+     *
+     * @param parentStatement statement selecting the parents
+     * @return assembled parents, in the order returned by the parent statement
+     */
+    public List<P> load(String parentStatement) {
+        return load(parentStatement, EmptySqlParameterSource.INSTANCE);
+    }
+
+    /**
+     * Run a parent statement that selects at most one parent and assemble it with its children.
+     *
+     * @param parentStatement statement selecting the parent
+     * @param parameters      parameters of the parent statement
+     * @return assembled parent, or null if the statement returned no rows
+     */
+    public P loadOne(String parentStatement, SqlParameterSource parameters) {
+        List<P> parents = load(parentStatement, parameters);
+        return parents.isEmpty() ? null : parents.get(0);
+    }
+
+    /**
+     * Assemble parents that have already been read with their children.
+     *
+     * @param parents parents to assemble
+     * @return the same list of parents
+     */
+    public List<P> assemble(List<P> parents) {
+        if (parents.isEmpty()) return parents;
+
+        Map<K, List<C>> childrenByParentKey = readChildren(parents);
+        for (P parent : parents) {
+            assembler.accept(parent, childrenByParentKey.getOrDefault(parentKey.apply(parent), new ArrayList<>()));
+        }
+        return parents;
+    }
+
+    /**
+     * Lazily assemble a stream of parents with their children. The parents are consumed in chunks of
+     * {@link #chunkSize} and each chunk is assembled with one child query before it is passed on, so no more
+     * than one chunk of parents is held in memory. Closing the returned stream closes the stream of parents.
+     *
+     * @param parents stream of parents to assemble
+     * @return stream of assembled parents, in the order of the stream of parents
+     */
+    public Stream<P> assemble(Stream<P> parents) {
+        Iterator<P> iterator = parents.iterator();
+        Iterator<List<P>> chunks = new Iterator<List<P>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<P> next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<P> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                }
+                return assemble(chunk);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                .flatMap(List::stream)
+                .onClose(parents::close);
+    }
+
+    private Map<K, List<C>> readChildren(Collection<P> parents) {
+        List<K> keys = parents.stream().map(parentKey).distinct().collect(Collectors.toList());
+        LOG.trace("Reading children of {} parents", keys.size());
+
+        Map<K, List<C>> childrenByParentKey = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<K> chunk = keys.subList(from, Math.min(from + chunkSize, keys.size()));
+            jdbcTemplate.query(childStatement, new MapSqlParameterSource(childKeysParameter, chunk),
+                    (rs) -> {
+                        C child = childMapper.mapRow(rs, rs.getRow());
+                        childrenByParentKey.computeIfAbsent(childParentKey.apply(child), key -> new ArrayList<>()).add(child);
+                    });
+        }
+        return childrenByParentKey;
+    }
+}
@@ -1,20 +1,46 @@
 package edu.uwm.capstone.sql.dao;
 
+import edu.uwm.capstone.sql.exception.DaoException;
 import edu.uwm.capstone.sql.statement.ISqlStatementsFileLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class BaseDao<K, V> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BaseDao.class);
 
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
     protected DataSource dataSource;
     protected NamedParameterJdbcTemplate jdbcTemplate;
     protected ISqlStatementsFileLoader sqlStatementsFileLoader;
     protected BaseRowMapper rowMapper;
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+    protected int fetchSize = DEFAULT_FETCH_SIZE;
 
     public abstract V create(V object);
 
@@ -24,6 +50,303 @@ public abstract class BaseDao<K, V> {
 
     public abstract void delete(K id);
 
+    /**
+     * The statements with which {@link #createAll}, {@link #updateAll} and {@link #deleteAll} send their writes in
+     * JDBC batches. DAOs that support batching override this; the default of null writes the objects one at a time.
+     *
+     * @return the batch statements of the DAO, or null
+     */
+    protected BatchStatements<V> batchStatements() {
+        return null;
+    }
+
+    /**
+     * Create all of the provided objects, with JDBC batches if the DAO provides {@link #batchStatements()}. The
+     * generated ids are assigned to the objects in the order they were provided.
+     *
+     * @param objects objects to create
+     * @return the same list of objects
+     */
+    public List<V> createAll(List<V> objects) {
+        if (objects == null) {
+            throw new DaoException("Request to create all received null");
+        }
+        BatchStatements<V> statements = batchStatements();
+        if (statements == null) {
+            objects.forEach(this::create);
+            return objects;
+        }
+
+        LOGGER.trace("Creating {} rows with {}", objects.size(), statements.getCreateStatement());
+        List<SqlParameterSource> batchArgs = new ArrayList<>(objects.size());
+        for (V object : objects) {
+            statements.getBeforeCreate().accept(object);
+            batchArgs.add(statements.getParameters().apply(object));
+        }
+
+        List<Number> ids = batchCreate(sql(statements.getCreateStatement()), batchArgs);
+        for (int i = 0; i < objects.size(); i++) {
+            statements.getIdSetter().accept(objects.get(i), ids.get(i));
+        }
+        return objects;
+    }
+
+    /**
+     * Update all of the provided objects, with JDBC batches if the DAO provides {@link #batchStatements()}.
+     *
+     * @param objects objects to update
+     * @return the same list of objects
+     */
+    public List<V> updateAll(List<V> objects) {
+        if (objects == null) {
+            throw new DaoException("Request to update all received null");
+        }
+        BatchStatements<V> statements = batchStatements();
+        if (statements == null) {
+            objects.forEach(this::update);
+            return objects;
+        }
+
+        LOGGER.trace("Updating {} rows with {}", objects.size(), statements.getUpdateStatement());
+        List<SqlParameterSource> batchArgs = new ArrayList<>(objects.size());
+        for (V object : objects) {
+            statements.getBeforeUpdate().accept(object);
+            batchArgs.add(statements.getParameters().apply(object));
+        }
+
+        batchUpdate(sql(statements.getUpdateStatement()), batchArgs);
+        return objects;
+    }
+
+    /**
+     * Delete all of the objects with the provided ids, with JDBC batches if the DAO provides
+     * {@link #batchStatements()}.
+     *
+     * @param ids ids of the objects to delete
+     */
+    public void deleteAll(Collection<K> ids) {
+        if (ids == null) {
+            throw new DaoException("Request to delete all received null");
+        }
+        BatchStatements<V> statements = batchStatements();
+        if (statements == null) {
+            ids.forEach(this::delete);
+            return;
+        }
+
+        LOGGER.trace("Deleting {} rows with {}", ids.size(), statements.getDeleteStatement());
+        List<SqlParameterSource> batchArgs = new ArrayList<>(ids.size());
+        for (K id : ids) {
+            batchArgs.add(new MapSqlParameterSource("id", id));
+        }
+        batchUpdate(sql(statements.getDeleteStatement()), batchArgs);
+    }
+
+    /**
+     * Execute an insert statement once per parameter source using JDBC batches of at most {@link #batchSize}
+     * statements, and return the generated ids in the order of the parameter sources.
+     *
+     * @param statement insert statement with named parameters
+     * @param batchArgs parameters of each insert
+     * @return generated ids
+     */
+    protected List<Number> batchCreate(String statement, List<? extends SqlParameterSource> batchArgs) {
+        ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(statement);
+        String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, null);
+        List<Number> ids = new ArrayList<>(batchArgs.size());
+
+        for (List<? extends SqlParameterSource> batch : batches(batchArgs)) {
+            List<Number> batchIds = this.jdbcTemplate.getJdbcOperations().execute(
+                    (Connection connection) -> connection.prepareStatement(sqlToUse, new String[]{BaseRowMapper.BaseColumnType.ID.name()}),
+                    (PreparedStatement ps) -> {
+                        for (SqlParameterSource params : batch) {
+                            new ArgumentPreparedStatementSetter(NamedParameterUtils.buildValueArray(parsedSql, params, null)).setValues(ps);
+                            ps.addBatch();
+                        }
+                        checkBatchResult(ps.executeBatch(), batch.size());
+
+                        List<Number> keys = new ArrayList<>(batch.size());
+                        try (ResultSet rs = ps.getGeneratedKeys()) {
+                            while (rs.next()) {
+                                keys.add((Number) rs.getObject(1));
+                            }
+                        }
+                        return keys;
+                    });
+
+            if (batchIds == null || batchIds.size() != batch.size()) {
+                throw new DaoException(String.format("Failed attempt to create %s rows - received %s generated ids",
+                        batch.size(), batchIds == null ? 0 : batchIds.size()));
+            }
+            ids.addAll(batchIds);
+        }
+        return ids;
+    }
+
+    /**
+     * Execute an update or delete statement once per parameter source using JDBC batches of at most
+     * {@link #batchSize} statements. Every statement is expected to affect exactly one row.
+     *
+     * @param statement update or delete statement with named parameters
+     * @param batchArgs parameters of each statement
+     */
+    protected void batchUpdate(String statement, List<? extends SqlParameterSource> batchArgs) {
+        for (List<? extends SqlParameterSource> batch : batches(batchArgs)) {
+            checkBatchResult(this.jdbcTemplate.batchUpdate(statement, batch.toArray(new SqlParameterSource[0])), batch.size());
+        }
+    }
+
+    /**
+     * Execute a {@code SELECT 1 ... LIMIT 1} probe and return whether it found a row.
+     *
+     * @param statement  probe statement with named parameters
+     * @param parameters parameters of the statement
+     * @return true if the statement returned a row
+     */
+    protected boolean queryForExists(String statement, SqlParameterSource parameters) {
+        return !this.jdbcTemplate.queryForList(statement, parameters, Integer.class).isEmpty();
+    }
+
+    /**
+     * Execute a {@code SELECT COUNT(*)} probe and return the count.
+     *
+     * @param statement  count statement with named parameters
+     * @param parameters parameters of the statement
+     * @return number of rows counted
+     */
+    protected long queryForCount(String statement, SqlParameterSource parameters) {
+        Long count = this.jdbcTemplate.queryForObject(statement, parameters, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Append {@code AND condition} to a statement and bind its parameter if the value is set. Statements with optional
+     * filters are built this way rather than with {@code (:value IS NULL OR column = :value)}, which keeps the
+     * database from using the index of the filtered column.
+     *
+     * @param statement  statement to append the condition to
+     * @param parameters parameters of the statement
+     * @param condition  condition comparing a column to the named parameter
+     * @param parameter  name of the parameter
+     * @param value      value of the parameter, or null to leave the condition out
+     */
+    protected static void and(StringBuilder statement, MapSqlParameterSource parameters, String condition,
+                              String parameter, Object value) {
+        if (value == null) return;
+        statement.append("\n  AND ").append(condition);
+        parameters.addValue(parameter, value);
+    }
+
+    /**
+     * Execute a query and return its rows as a lazily consumed {@link Stream}. The rows are read from a forward-only,
+     * read-only {@link ResultSet} with a fetch size of {@link #fetchSize} and are mapped as the stream is consumed,
+     * so only the rows being mapped are held in memory. MySQL Connector/J only honours the fetch size with
+     * {@code useCursorFetch=true} on the connection URL; without it the driver reads every row up front.
+     * <p>
+     * The connection is only taken when the first row is requested, so a stream that is never consumed holds
+     * nothing, and the statement fails then rather than here. Once taken, the connection is held until the stream
+     * is closed, so callers must close it, e.g. with try-with-resources.
+     *
+     * @param statement  select statement with named parameters
+     * @param parameters parameters of the statement
+     * @param mapper     {@link RowMapper} applied to every row
+     * @return stream of mapped rows
+     */
+    protected <T> Stream<T> queryForStream(String statement, SqlParameterSource parameters, RowMapper<T> mapper) {
+        ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(statement);
+        String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, parameters);
+        Object[] args = NamedParameterUtils.buildValueArray(parsedSql, parameters, null);
+
+        ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(dataSource, sqlToUse, args, fetchSize, mapper);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Opens a {@link ResultSet} when the first row is requested and maps its rows one at a time as they are
+     * requested.
+     */
+    private static class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final DataSource dataSource;
+        private final String statement;
+        private final Object[] args;
+        private final int fetchSize;
+        private final RowMapper<T> mapper;
+        private Connection connection;
+        private PreparedStatement ps;
+        private ResultSet rs;
+        private boolean closed;
+        private int rowNum = 0;
+
+        ResultSetSpliterator(DataSource dataSource, String statement, Object[] args, int fetchSize, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.dataSource = dataSource;
+            this.statement = statement;
+            this.args = args;
+            this.fetchSize = fetchSize;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            if (rs == null) {
+                open();
+            }
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapper.mapRow(rs, rowNum++));
+                return true;
+            } catch (SQLException e) {
+                throw new DaoException("Failed attempt to read row " + rowNum + " of stream", e);
+            }
+        }
+
+        private void open() {
+            try {
+                connection = dataSource.getConnection();
+                ps = connection.prepareStatement(statement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                new ArgumentPreparedStatementSetter(args).setValues(ps);
+                rs = ps.executeQuery();
+            } catch (SQLException e) {
+                close();
+                throw new DaoException("Failed attempt to open stream for statement " + statement, e);
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            JdbcUtils.closeResultSet(rs);
+            JdbcUtils.closeStatement(ps);
+            JdbcUtils.closeConnection(connection);
+        }
+    }
+
+    private <T> List<List<T>> batches(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            batches.add(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+        return batches;
+    }
+
+    private void checkBatchResult(int[] results, int expected) {
+        if (results.length != expected) {
+            throw new DaoException(String.format("Failed attempt to execute batch of %s statements - received %s results", expected, results.length));
+        }
+        for (int result : results) {
+            if (result != 1 && result != Statement.SUCCESS_NO_INFO) {
+                throw new DaoException(String.format("Failed attempt to execute batch of %s statements - a statement affected %s rows", expected, result));
+            }
+        }
+    }
+
     public void setDataSource(DataSource dataSource) {
         this.dataSource = dataSource;
         this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
@@ -39,8 +362,34 @@ public abstract class BaseDao<K, V> {
         return statement;
     }
 
+    public BaseRowMapper getRowMapper() {
+        return rowMapper;
+    }
+
     public void setRowMapper(BaseRowMapper rowMapper) {
         this.rowMapper = rowMapper;
     }
 
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be positive but was " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive but was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
 }
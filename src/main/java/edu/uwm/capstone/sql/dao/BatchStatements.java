@@ -0,0 +1,65 @@
+package edu.uwm.capstone.sql.dao;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The pieces a DAO supplies so that {@link BaseDao#createAll}, {@link BaseDao#updateAll} and {@link BaseDao#deleteAll}
+ * send their statements in JDBC batches of {@link BaseDao#getBatchSize()} statements.
+ *
+ * @param <V> entity type
+ */
+@Builder
+@Getter(AccessLevel.PACKAGE)
+public class BatchStatements<V> {
+
+    /**
+     * Name of the insert statement, which generates the id of the entity.
+     */
+    @NonNull
+    private final String createStatement;
+
+    /**
+     * Name of the update statement, which is expected to update exactly one row per entity.
+     */
+    @NonNull
+    private final String updateStatement;
+
+    /**
+     * Name of the delete statement, which takes the key of the entity as its {@code id} parameter and is expected to
+     * delete exactly one row per key.
+     */
+    @NonNull
+    private final String deleteStatement;
+
+    /**
+     * Maps an entity to the parameters of the create and update statements.
+     */
+    @NonNull
+    private final Function<V, SqlParameterSource> parameters;
+
+    /**
+     * Assigns the id generated by the create statement to its entity.
+     */
+    @NonNull
+    private final BiConsumer<V, Number> idSetter;
+
+    /**
+     * Validates an entity and sets its created date before it is created.
+     */
+    @NonNull
+    private final Consumer<V> beforeCreate;
+
+    /**
+     * Validates an entity and sets its updated date before it is updated.
+     */
+    @NonNull
+    private final Consumer<V> beforeUpdate;
+}
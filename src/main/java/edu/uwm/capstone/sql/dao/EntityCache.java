@@ -0,0 +1,152 @@
+package edu.uwm.capstone.sql.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded, concurrent read-through cache of entities in front of a DAO.
+ * <p>
+ * Entities are copied with {@link #copier} when they are stored and again when they are handed out, so callers can
+ * never modify a cached entity. Besides the entities by key, the cache holds one snapshot of the list of all
+ * entities.
+ * <p>
+ * Writes must call {@link #invalidate} or {@link #invalidateAll}, which go through a {@link TransactionalInvalidation}:
+ * the keys are invalidated again once the writing transaction completes, a value loaded while an invalidation
+ * happened is dropped instead of being cached, and a transaction that wrote an entity reads through the cache until
+ * it completes.
+ *
+ * @param <K> type of the entity key
+ * @param <V> entity type
+ */
+public class EntityCache<K, V> implements MeterBinder {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private final String name;
+    private final UnaryOperator<V> copier;
+    private final Cache<K, V> cache;
+    private final TransactionalInvalidation invalidation;
+    private volatile List<V> all;
+
+    /**
+     * @param name        name of the cache in the exported metrics
+     * @param maximumSize maximum number of entities held by key
+     * @param copier      returns a copy of an entity that shares no mutable state with it
+     */
+    public EntityCache(String name, long maximumSize, UnaryOperator<V> copier) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        this.name = name;
+        this.copier = copier;
+        this.invalidation = new TransactionalInvalidation(name);
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a copy of the entity with the given key, loading and caching it if it is not cached yet. Missing
+     * entities are not cached.
+     *
+     * @param key    key of the entity
+     * @param loader reads the entity from the database, returning null if it does not exist
+     * @return copy of the entity, or null if it does not exist
+     */
+    public V get(K key, Function<K, V> loader) {
+        if (invalidation.inWritingTransaction()) {
+            return loader.apply(key);
+        }
+
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return copier.apply(cached);
+        }
+
+        long loadVersion = invalidation.version();
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        cache.put(key, copier.apply(loaded));
+        if (invalidation.changedSince(loadVersion)) {
+            cache.invalidate(key);
+        }
+        return copier.apply(loaded);
+    }
+
+    /**
+     * Returns copies of all entities, loading them if no snapshot is cached yet. Loaded entities are also cached by
+     * key.
+     *
+     * @param loader reads all entities from the database
+     * @param key    returns the key of an entity
+     * @return copies of all entities
+     */
+    public List<V> getAll(Supplier<List<V>> loader, Function<V, K> key) {
+        if (invalidation.inWritingTransaction()) {
+            return loader.get();
+        }
+
+        List<V> snapshot = all;
+        if (snapshot == null) {
+            long loadVersion = invalidation.version();
+            snapshot = Collections.unmodifiableList(loader.get().stream().map(copier).collect(Collectors.toList()));
+            all = snapshot;
+            snapshot.forEach(entity -> cache.put(key.apply(entity), entity));
+            if (invalidation.changedSince(loadVersion)) {
+                invalidation.invalidateNow(this::clearAll);
+            }
+        }
+        return snapshot.stream().map(copier).collect(Collectors.toList());
+    }
+
+    /**
+     * Invalidates the entity with the given key and the snapshot of all entities.
+     *
+     * @param key key of the entity that was written
+     */
+    public void invalidate(K key) {
+        invalidation.invalidate(() -> clear(key));
+    }
+
+    /**
+     * Invalidates every cached entity.
+     */
+    public void invalidateAll() {
+        invalidation.invalidate(this::clearAll);
+    }
+
+    /**
+     * @return the underlying cache, e.g. to read its statistics
+     */
+    public Cache<K, V> getCache() {
+        return cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, name);
+    }
+
+    private void clear(K key) {
+        all = null;
+        cache.invalidate(key);
+    }
+
+    private void clearAll() {
+        all = null;
+        cache.invalidateAll();
+    }
+}
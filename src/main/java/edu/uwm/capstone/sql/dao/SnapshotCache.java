@@ -0,0 +1,67 @@
+package edu.uwm.capstone.sql.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Holds one immutable snapshot of a small table, or a few related tables, that is loaded on first use and shared by
+ * every thread until a write invalidates it.
+ * <p>
+ * A write made inside a transaction must not become visible to other threads before it is committed, so once a
+ * transaction has called {@link #invalidate} it reads its own snapshot, loaded on its connection, until it completes.
+ * The shared snapshot is invalidated again when the transaction completes, and a snapshot loaded while an
+ * invalidation happened is not published. See {@link TransactionalInvalidation}.
+ *
+ * @param <T> type of the snapshot, which must not be modified once loaded
+ */
+public class SnapshotCache<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotCache.class);
+
+    private final String name;
+    private final AtomicReference<T> snapshot = new AtomicReference<>();
+    private final TransactionalInvalidation invalidation;
+
+    /**
+     * @param name name of the snapshot in log messages
+     */
+    public SnapshotCache(String name) {
+        this.name = name;
+        this.invalidation = new TransactionalInvalidation(name);
+    }
+
+    /**
+     * Returns the current snapshot, loading it if it has not been loaded since the last invalidation.
+     *
+     * @param loader loads a new snapshot
+     * @return the current snapshot
+     */
+    public T get(Supplier<T> loader) {
+        if (invalidation.inWritingTransaction()) {
+            return invalidation.getForTransaction(loader);
+        }
+
+        T current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+
+        LOG.trace("Loading {}", name);
+        long loadVersion = invalidation.version();
+        T loaded = loader.get();
+        if (snapshot.compareAndSet(null, loaded) && invalidation.changedSince(loadVersion)) {
+            snapshot.compareAndSet(loaded, null);
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalidates the snapshot after a write.
+     */
+    public void invalidate() {
+        invalidation.invalidate(() -> snapshot.set(null));
+    }
+}
@@ -0,0 +1,129 @@
+package edu.uwm.capstone.sql.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Invalidation shared by the caches in front of the DAOs, which keeps them consistent with writes made inside
+ * transactions.
+ * <p>
+ * Every invalidation bumps a version, so that a cache can drop a value it loaded while an invalidation happened
+ * instead of caching it. An invalidation inside a transaction marks the transaction as writing and is run again once
+ * the transaction completes, so a read that loaded the old row before the write was committed cannot put it back in
+ * the cache. Until it completes, a writing transaction must read through the cache, so that it sees its own writes
+ * and never caches a row other threads must not see before it commits.
+ */
+public class TransactionalInvalidation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionalInvalidation.class);
+
+    private final String name;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Bound to a transaction that invalidated the cache until it completes.
+     */
+    private static final class WritingTransaction {
+        private Object value;
+    }
+
+    /**
+     * @param name name of the cache in log messages
+     */
+    public TransactionalInvalidation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the current version, to be read before loading a value and passed to {@link #changedSince} after
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * @param loadVersion version read before loading a value
+     * @return true if the cache was invalidated since, in which case the loaded value must not stay cached
+     */
+    public boolean changedSince(long loadVersion) {
+        return version.get() != loadVersion;
+    }
+
+    /**
+     * @return true if the current transaction invalidated the cache and must read through it until it completes
+     */
+    public boolean inWritingTransaction() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    /**
+     * Returns the value private to the current writing transaction, loading it on the transaction's connection if it
+     * has not been loaded since the transaction last invalidated the cache. For caches that hold one value, which is
+     * cheaper to keep for the rest of the transaction than to load on every read.
+     *
+     * @param loader loads the value
+     * @return the value of the current transaction
+     * @throws IllegalStateException if the current transaction has not invalidated the cache
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getForTransaction(Supplier<T> loader) {
+        WritingTransaction transaction = (WritingTransaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction == null) {
+            throw new IllegalStateException("The current transaction has not invalidated " + name);
+        }
+        if (transaction.value == null) {
+            LOG.trace("Loading {} for a transaction that modified it", name);
+            transaction.value = loader.get();
+        }
+        return (T) transaction.value;
+    }
+
+    /**
+     * Runs the invalidation after a write. Inside a transaction, it marks the transaction as writing and runs the
+     * invalidation again once the transaction completes.
+     *
+     * @param invalidation removes the written entries from the cache
+     */
+    public void invalidate(Runnable invalidation) {
+        invalidateNow(invalidation);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        WritingTransaction transaction = (WritingTransaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction != null) {
+            transaction.value = null;
+        } else {
+            TransactionSynchronizationManager.bindResource(this, new WritingTransaction());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalInvalidation.this);
+                }
+            });
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                LOG.trace("Invalidating {} after transaction completion", name);
+                invalidateNow(invalidation);
+            }
+        });
+    }
+
+    /**
+     * Runs the invalidation once, without regard to the current transaction, e.g. for a write made by another node
+     * or a value found to be stale while it was loaded.
+     *
+     * @param invalidation removes the stale entries from the cache
+     */
+    public void invalidateNow(Runnable invalidation) {
+        version.incrementAndGet();
+        invalidation.run();
+    }
+}
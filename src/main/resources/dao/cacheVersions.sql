@@ -0,0 +1,28 @@
+--STATEMENT createCacheVersion
+INSERT INTO cache_versions (
+  entity_type,
+  entity_id,
+  created_date
+) VALUES (
+  :entity_type,
+  :entity_id,
+  :created_date
+);
+
+--STATEMENT readCacheVersion
+SELECT * FROM cache_versions WHERE id = :id;
+
+--STATEMENT readCacheVersionsAfter
+SELECT * FROM cache_versions WHERE id > :after_id ORDER BY id LIMIT :limit;
+
+--STATEMENT readCacheVersionsByIds
+SELECT * FROM cache_versions WHERE id IN (:ids);
+
+--STATEMENT readLatestCacheVersion
+SELECT MAX(id) FROM cache_versions;
+
+--STATEMENT deleteCacheVersion
+DELETE FROM cache_versions WHERE id = :id;
+
+--STATEMENT deleteCacheVersionsCreatedBefore
+DELETE FROM cache_versions WHERE created_date < :created_date;
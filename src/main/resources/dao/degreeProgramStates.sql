@@ -30,6 +30,12 @@ SELECT *
 FROM degree_program_states
 WHERE degree_program_id = :degree_program_id;
 
+--STATEMENT readDegreeProgramStatesByDegreeProgramIds
+SELECT *
+FROM degree_program_states
+WHERE degree_program_id IN (:degree_program_ids)
+ORDER BY degree_program_id, id;
+
 --STATEMENT readDegreeProgramStatesIdsByDegreeProgramId
 SELECT id
 FROM degree_program_states
@@ -15,16 +15,6 @@ INSERT INTO degree_programs (
 SELECT *
 FROM degree_programs;
 
---STATEMENT readDegreeProgramById
-SELECT *
-FROM degree_programs
-WHERE id = :id;
-
---STATEMENT readDegreeProgramByName
-SELECT *
-FROM degree_programs
-WHERE name = :name;
-
 --STATEMENT updateDegreeProgramById
 UPDATE degree_programs SET
     name = :name,
@@ -23,6 +23,9 @@ SELECT * FROM field_defs WHERE id = :id;
 --STATEMENT readFieldDefsByFormDefId
 SELECT * FROM field_defs WHERE form_def_id = :id;
 
+--STATEMENT readFieldDefsByFormDefIds
+SELECT * FROM field_defs WHERE form_def_id IN (:form_def_ids) ORDER BY form_def_id, id;
+
 --STATEMENT readFieldDefIdsByFormDefId
 SELECT id FROM field_defs WHERE form_def_id = :id;
 
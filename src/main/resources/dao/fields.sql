@@ -25,6 +25,13 @@ FROM fields
 LEFT JOIN field_defs ON fields.field_def_id = field_defs.id
 WHERE fields.form_id = :form_id;
 
+--STATEMENT readFieldsByFormIds
+SELECT fields.*, field_defs.label, field_defs.field_index
+FROM fields
+LEFT JOIN field_defs ON fields.field_def_id = field_defs.id
+WHERE fields.form_id IN (:form_ids)
+ORDER BY fields.form_id, fields.id;
+
 --STATEMENT deleteField
 DELETE FROM fields WHERE id = :id;
 
@@ -32,15 +32,28 @@ WHERE forms.user_id = :user_id;
 SELECT forms.*, form_defs.name
 FROM forms
 LEFT JOIN form_defs ON forms.form_def_id = form_defs.id
-WHERE forms.form_def_id = :form_def_id;
+WHERE forms.form_def_id = :form_def_id
+ORDER BY forms.id;
 
 --STATEMENT readAllFormsByPantherId
 SELECT forms.*, form_defs.name
-FROM forms
+FROM users
+INNER JOIN forms ON forms.user_id = users.id
 LEFT JOIN form_defs ON form_defs.id = forms.form_def_id
-LEFT JOIN users ON users.id = forms.user_id
 WHERE users.panther_id = :panther_id;
 
+--STATEMENT readFormsPage
+SELECT forms.*, form_defs.name
+FROM forms
+LEFT JOIN form_defs ON forms.form_def_id = form_defs.id
+WHERE forms.id > :after_id
+
+--STATEMENT existsForm
+SELECT 1 FROM forms WHERE id = :id LIMIT 1;
+
+--STATEMENT existsFormByFormDefId
+SELECT 1 FROM forms WHERE form_def_id = :form_def_id LIMIT 1;
+
 --STATEMENT deleteForm
 DELETE FROM forms WHERE id = :id;
 
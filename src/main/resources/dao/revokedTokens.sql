@@ -0,0 +1,22 @@
+--STATEMENT createRevokedToken
+INSERT INTO revoked_tokens (
+  user_id,
+  expires_date,
+  created_date
+) VALUES (
+  :user_id,
+  :expires_date,
+  :created_date
+);
+
+--STATEMENT readRevokedToken
+SELECT * FROM revoked_tokens WHERE id = :id;
+
+--STATEMENT readRevokedTokensCreatedAfter
+SELECT * FROM revoked_tokens WHERE created_date > :created_date AND expires_date > :expires_date ORDER BY created_date;
+
+--STATEMENT deleteRevokedToken
+DELETE FROM revoked_tokens WHERE id = :id;
+
+--STATEMENT deleteRevokedTokensExpiredBefore
+DELETE FROM revoked_tokens WHERE expires_date < :expires_date;
@@ -2,18 +2,17 @@
 INSERT INTO roles (
   name,
   description,
+  authorities,
   created_date
 ) VALUES (
   :name,
   :description,
+  :authorities,
   :created_date
 );
 
---STATEMENT readRoleById
-SELECT * from roles WHERE id = :id
-
---STATEMENT readRoleByName
-SELECT * from roles WHERE name = :role_name
+--STATEMENT countRolesByNames
+SELECT COUNT(*) FROM roles WHERE name IN (:role_names)
 
 --STATEMENT readAllRoles
 SELECT *FROM roles;
@@ -25,6 +24,7 @@ DELETE FROM roles WHERE id = :id;
 UPDATE roles SET
   name = :name,
   description = :description,
+  authorities = :authorities,
   updated_date = :updated_date
 WHERE
   id = :id;
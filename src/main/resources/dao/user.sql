@@ -31,12 +31,41 @@ SELECT * FROM users WHERE id = :id;
 --STATEMENT readAllUsers
 SELECT * FROM users;
 
+--STATEMENT readUsersPage
+SELECT * FROM users
+WHERE id > :after_id
+
 --STATEMENT readUserByEmail
 SELECT * FROM users WHERE email = :email;
 
+--STATEMENT readUserCredentialsByEmail
+SELECT
+  u.id,
+  u.email,
+  u.password,
+  u.enabled,
+  u.is_account_non_expired,
+  u.is_account_non_locked,
+  u.is_credentials_non_expired,
+  COALESCE(BIT_OR(r.authorities), 0) AS authorities
+FROM users u
+LEFT JOIN user_roles ur ON ur.user_id = u.id
+LEFT JOIN roles r ON r.id = ur.role_id
+WHERE u.email = :email
+GROUP BY u.id, u.email, u.password, u.enabled, u.is_account_non_expired, u.is_account_non_locked, u.is_credentials_non_expired;
+
 --STATEMENT readUserByPantherId
 SELECT * FROM users WHERE panther_id = :panther_id;
 
+--STATEMENT existsUser
+SELECT 1 FROM users WHERE id = :id LIMIT 1;
+
+--STATEMENT existsOtherUserByEmail
+SELECT 1 FROM users WHERE email = :email AND id <> :id LIMIT 1;
+
+--STATEMENT existsOtherUserByPantherId
+SELECT 1 FROM users WHERE panther_id = :panther_id AND id <> :id LIMIT 1;
+
 --STATEMENT deleteUser
 DELETE FROM users WHERE id = :id;
 
@@ -56,3 +85,10 @@ UPDATE users SET
 WHERE
   id = :id;
 
+--STATEMENT updateUserPassword
+UPDATE users SET
+  password = :password,
+  updated_date = :updated_date
+WHERE
+  id = :id;
+
@@ -22,6 +22,12 @@ SELECT * FROM user_roles WHERE id = :id;
 --STATEMENT readAllUserRole
 SELECT * FROM user_roles;
 
+--STATEMENT readRoleIdsByUserId
+SELECT role_id FROM user_roles WHERE user_id = :user_id;
+
+--STATEMENT readRoleIdsByUserIds
+SELECT user_id, role_id FROM user_roles WHERE user_id IN (:user_ids);
+
 --STATEMENT readUserRoleByRoleId
 SELECT * FROM user_roles WHERE role_id = :role_id;
 
@@ -0,0 +1,24 @@
+-- users are looked up by email on every login and by panther id from the forms endpoints; both, like role names,
+-- are unique, which the database enforces instead of a read before every write
+-- (degree_programs.name has been unique since V001.001)
+CREATE UNIQUE INDEX users_email_unique ON users(email);
+CREATE UNIQUE INDEX users_panther_id_unique ON users(panther_id);
+
+CREATE UNIQUE INDEX roles_name_unique ON roles(name);
+
+-- role and authority lookups by user cover the join columns so they never read the base rows
+CREATE UNIQUE INDEX user_roles_user_id_role_id_idx ON user_roles(user_id, role_id);
+CREATE INDEX user_roles_role_id_idx ON user_roles(role_id);
+CREATE UNIQUE INDEX role_authorities_role_id_authority_idx ON role_authorities(role_id, authority);
+
+-- children are read by parent id and ordered by id
+CREATE INDEX degree_program_states_degree_program_id_idx ON degree_program_states(degree_program_id, id);
+CREATE INDEX field_defs_form_def_id_idx ON field_defs(form_def_id, id);
+CREATE INDEX fields_form_id_idx ON fields(form_id, id);
+
+-- form list filters, each ordered by id for keyset pagination
+CREATE INDEX forms_user_id_idx ON forms(user_id, id);
+CREATE INDEX forms_form_def_id_idx ON forms(form_def_id, id);
+CREATE INDEX forms_approved_idx ON forms(approved, id);
+CREATE INDEX forms_created_date_idx ON forms(created_date);
+CREATE INDEX forms_updated_date_idx ON forms(updated_date);
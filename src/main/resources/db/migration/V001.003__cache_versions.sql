@@ -0,0 +1,12 @@
+-- writes to cached tables append a row here in the same transaction; every node polls for rows newer than the
+-- last one it saw and evicts the matching entries from its local caches. entity_id is null when the whole
+-- entity type is cached as one snapshot.
+CREATE TABLE cache_versions(
+    id           BIGINT(20) AUTO_INCREMENT,
+    entity_type  VARCHAR(64) NOT NULL,
+    entity_id    BIGINT(20) DEFAULT NULL,
+    created_date BIGINT(25)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX cache_versions_created_date_idx ON cache_versions(created_date);
@@ -0,0 +1,24 @@
+-- the authorities of a role are stored as a bitmask with bit n set for the authority with ordinal n in
+-- edu.uwm.capstone.security.Authorities, replacing the role_authorities rows. Each authority appears at most once
+-- per role, so adding its bit is the same as setting it.
+ALTER TABLE roles ADD COLUMN authorities BIGINT(20) NOT NULL DEFAULT 0;
+
+UPDATE roles SET authorities = authorities + 1 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'CREATE_FORM_DEF');
+UPDATE roles SET authorities = authorities + 2 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'CREATE_FORM');
+UPDATE roles SET authorities = authorities + 4 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'CREATE_USER');
+UPDATE roles SET authorities = authorities + 8 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'CREATE_ROLE');
+UPDATE roles SET authorities = authorities + 16 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'READ_ALL_FORMS');
+UPDATE roles SET authorities = authorities + 32 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'READ_ALL_FORMS_DEF');
+UPDATE roles SET authorities = authorities + 64 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'READ_ALL_USERS');
+UPDATE roles SET authorities = authorities + 128 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'READ_ALL_ROLES');
+UPDATE roles SET authorities = authorities + 256 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'UPDATE_FORM_DEF');
+UPDATE roles SET authorities = authorities + 512 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'APPROVE_FORM');
+UPDATE roles SET authorities = authorities + 1024 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'UPDATE_USER');
+UPDATE roles SET authorities = authorities + 2048 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'UPDATE_FORM');
+UPDATE roles SET authorities = authorities + 4096 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'UPDATE_ROLE');
+UPDATE roles SET authorities = authorities + 8192 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'DELETE_FORM_DEF');
+UPDATE roles SET authorities = authorities + 16384 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'DELETE_FORM');
+UPDATE roles SET authorities = authorities + 32768 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'DELETE_USER');
+UPDATE roles SET authorities = authorities + 65536 WHERE id IN (SELECT role_id FROM role_authorities WHERE authority = 'DELETE_ROLE');
+
+DROP TABLE role_authorities;
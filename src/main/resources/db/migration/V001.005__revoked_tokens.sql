@@ -0,0 +1,13 @@
+-- a row revokes every token issued to the user before created_date; every node reads the rows created since its
+-- last read into memory, so requests are checked without reading this table. a row is kept until expires_date, after
+-- which every token it revokes has expired anyway. user_id has no foreign key so that deleting a user keeps its row.
+CREATE TABLE revoked_tokens(
+    id           BIGINT(20) AUTO_INCREMENT,
+    user_id      BIGINT(20) NOT NULL,
+    expires_date BIGINT(25) NOT NULL,
+    created_date BIGINT(25) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX revoked_tokens_created_date_idx ON revoked_tokens(created_date);
+CREATE INDEX revoked_tokens_expires_date_idx ON revoked_tokens(expires_date);
@@ -364,6 +364,69 @@ public class FormControllerComponentTest {
         assertEquals(createForm, receivedForm);
     }
 
+    /**
+     * Verify that {@link FormRestController#readById} and {@link FormRestController#readAllByUserId} let a user
+     * without {@code READ_ALL_FORMS} read only its own forms.
+     **/
+    @Test
+    public void readOwnFormsWithoutReadAllForms() {
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        User self = TestDataUtility.userWithTestValues();
+        String password = self.getPassword();
+        self.setPassword(passwordEncoder.encode(password));
+        userDao.create(self);
+        usersToCleanup.add(self);
+        User other = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(other);
+
+        Form ownForm = formDao.create(TestDataUtility.formWithTestValues(createFormDef, self.getId()));
+        formsToCleanup.add(ownForm);
+        Form otherForm = formDao.create(TestDataUtility.formWithTestValues(createFormDef, other.getId()));
+        formsToCleanup.add(otherForm);
+
+        String selfToken = given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .body("{ \"email\" : \"" + self.getEmail() + "\", \"password\" : \"" + password + "\" }")
+                .when()
+                .post(AUTHENTICATE_URL)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract().header("Authorization");
+
+        ExtractableResponse<Response> response = given()
+                .header(new Header("Authorization", selfToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .when()
+                .get(FormRestController.FORM_PATH + ownForm.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract();
+        assertEquals(ownForm, response.body().as(Form.class));
+
+        given().header(new Header("Authorization", selfToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .when()
+                .get(FormRestController.FORM_PATH + otherForm.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+
+        response = given()
+                .header(new Header("Authorization", selfToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .when()
+                .get(FormRestController.FORM_USER_PATH + self.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract();
+        assertEquals(Collections.singletonList(ownForm), response.body().jsonPath().getList(".", Form.class));
+
+        given().header(new Header("Authorization", selfToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .when()
+                .get(FormRestController.FORM_USER_PATH + other.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+    }
+
     /**
      * Verify that {@link FormRestController#readById} is working correctly
      * when a request for a non-existent {@link FormDefinition#id} is made.
@@ -511,6 +574,144 @@ public class FormControllerComponentTest {
         assertEquals(userForms, response.body().jsonPath().getList(".", Form.class));
     }
 
+    /**
+     * Verify that {@link FormRestController#readAllByUserId} pages through the user's forms with the
+     * {@code Link} header and filters on the approved state.
+     */
+    @Test
+    public void readAllByUserIdPagedAndFiltered() {
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
+
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        List<Form> userForms = new ArrayList<>();
+        List<Form> approvedForms = new ArrayList<>();
+        List<Form> pendingForms = new ArrayList<>();
+        int randInt = TestDataUtility.randomInt(6, 15);
+        for (int i = 0; i < randInt; i++) {
+            Form createForm = formDao.create(TestDataUtility.formWithTestValues(createFormDef, user.getId()));
+            formsToCleanup.add(createForm);
+            if (i % 2 == 0) {
+                createForm.setApproved(true);
+                formDao.approve(createForm.getId(), true);
+                approvedForms.add(createForm);
+            } else {
+                pendingForms.add(createForm);
+            }
+            userForms.add(createForm);
+        }
+
+        // page through the user's forms
+        List<Form> readForms = new ArrayList<>();
+        Long afterId = null;
+        do {
+            ExtractableResponse<Response> response = given()
+                    .header(new Header("Authorization", authorizationToken))
+                    .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                    .queryParam("limit", 5)
+                    .queryParam("afterId", afterId == null ? 0 : afterId)
+                    .when()
+                    .get(FormRestController.FORM_USER_PATH + user.getId())
+                    .then().log().ifValidationFails()
+                    .statusCode(HttpStatus.OK.value()).extract();
+
+            List<Form> page = response.body().jsonPath().getList(".", Form.class);
+            assertTrue(page.size() <= 5);
+            readForms.addAll(page);
+
+            String link = response.header("Link");
+            afterId = link == null ? null : Long.valueOf(link.replaceAll(".*afterId=(\\d+).*", "$1"));
+        } while (afterId != null);
+
+        assertEquals(userForms, readForms);
+
+        // filter on the approved state
+        ExtractableResponse<Response> response = given()
+                .header(new Header("Authorization", authorizationToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .queryParam("approval", FormFilter.Approval.APPROVED)
+                .when()
+                .get(FormRestController.FORM_USER_PATH + user.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract();
+
+        assertNull(response.header("Link"));
+        assertEquals(approvedForms, response.body().jsonPath().getList(".", Form.class));
+
+        // forms that were neither approved nor rejected are pending
+        response = given()
+                .header(new Header("Authorization", authorizationToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .queryParam("approval", FormFilter.Approval.PENDING)
+                .when()
+                .get(FormRestController.FORM_USER_PATH + user.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract();
+
+        assertNull(response.header("Link"));
+        assertEquals(pendingForms, response.body().jsonPath().getList(".", Form.class));
+    }
+
+    /**
+     * Verify that {@link FormRestController#exportByFormDefId} writes every form of the form definition.
+     */
+    @Test
+    public void exportByFormDefId() {
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
+
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        List<Form> persistedForms = new ArrayList<>();
+        int randInt = TestDataUtility.randomInt(5, 15);
+        for (int i = 0; i < randInt; i++) {
+            Form createForm = formDao.create(TestDataUtility.formWithTestValues(createFormDef, user.getId()));
+            formsToCleanup.add(createForm);
+            persistedForms.add(createForm);
+        }
+
+        ExtractableResponse<Response> response = given()
+                .header(new Header("Authorization", authorizationToken))
+                .when()
+                .get(FormRestController.FORM_FORM_DEF_PATH + createFormDef.getId() + FormRestController.FORM_EXPORT_PATH)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract();
+
+        assertNull(response.header("Link"));
+        assertEquals(persistedForms, response.body().jsonPath().getList(".", Form.class));
+    }
+
+    /**
+     * Verify that {@link FormRestController#exportByFormDefId} responds with not found for a missing form definition.
+     */
+    @Test
+    public void exportByFormDefIdNonExistent() {
+        given()
+                .header(new Header("Authorization", authorizationToken))
+                .when()
+                .get(FormRestController.FORM_FORM_DEF_PATH + TestDataUtility.randomLong() + FormRestController.FORM_EXPORT_PATH)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    /**
+     * Verify that {@link FormRestController#readAll} responds with a precondition failure for a non-positive limit.
+     */
+    @Test
+    public void readAllInvalidLimit() {
+        given()
+                .header(new Header("Authorization", authorizationToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .queryParam("limit", 0)
+                .when()
+                .get(FormRestController.FORM_PATH)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+    }
+
     /**
      * Verify that {@link FormRestController#readAllByPantherId} l} is working correctly.
      */
@@ -109,6 +109,52 @@ public class UserRestControllerComponentTest {
         usersToCleanup.clear();
     }
 
+    /**
+     * Logs in as the provided {@link User}, which is created with the provided password.
+     */
+    private String tokenOf(User user) {
+        String password = user.getPassword();
+        user.setPassword(passwordEncoder.encode(password));
+        userDao.create(user);
+        usersToCleanup.add(user);
+
+        return given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .body("{ \"email\" : \"" + user.getEmail() + "\", \"password\" : \"" + password + "\" }")
+                .when()
+                .post(AUTHENTICATE_URL)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract().header("Authorization");
+    }
+
+    /**
+     * Verify that {@link UserRestController#readById} lets a user without {@code READ_ALL_USERS} read only itself.
+     */
+    @Test
+    public void readByIdWithoutReadAllUsers() {
+        User self = TestDataUtility.userWithTestValues();
+        String selfToken = tokenOf(self);
+        User other = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(other);
+
+        ExtractableResponse<Response> response = given()
+                .header(new Header("Authorization", selfToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .when()
+                .get(UserRestController.USER_PATH + self.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract();
+        assertEquals(self.getEmail(), response.body().as(User.class).getEmail());
+
+        given()
+                .header(new Header("Authorization", selfToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .when()
+                .get(UserRestController.USER_PATH + other.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+    }
+
     @Test
     public void create() throws Exception {
         User userToCreate = TestDataUtility.userWithTestValues();
@@ -501,6 +547,54 @@ public class UserRestControllerComponentTest {
         assertEquals(persistedUsers, response.body().jsonPath().getList(".", User.class));
     }
 
+    @Test
+    public void readAllPagedAndFiltered() {
+        List<User> persistedUsers = new ArrayList<>();
+        int randInt = TestDataUtility.randomInt(6, 15);
+        for (int i = 0; i < randInt; i++) {
+            User user = TestDataUtility.userWithTestValues();
+            userDao.create(user);
+            usersToCleanup.add(user);
+            persistedUsers.add(user);
+        }
+
+        // page through the users created by this test
+        List<User> readUsers = new ArrayList<>();
+        Long afterId = persistedUsers.get(0).getId() - 1;
+        do {
+            ExtractableResponse<Response> response = given()
+                    .header(new Header("Authorization", authorizationToken))
+                    .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                    .queryParam("limit", 4)
+                    .queryParam("afterId", afterId)
+                    .when()
+                    .get(UserRestController.USER_PATH)
+                    .then().log().ifValidationFails()
+                    .statusCode(HttpStatus.OK.value()).extract();
+
+            List<User> page = response.body().jsonPath().getList(".", User.class);
+            assertTrue(page.size() <= 4);
+            readUsers.addAll(page);
+
+            String link = response.header("Link");
+            afterId = link == null ? null : Long.valueOf(link.replaceAll(".*afterId=(\\d+).*", "$1"));
+        } while (afterId != null);
+
+        assertEquals(persistedUsers, readUsers);
+
+        // filter on a created date range that starts after every user was created
+        ExtractableResponse<Response> response = given()
+                .header(new Header("Authorization", authorizationToken))
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .queryParam("createdFrom", persistedUsers.get(randInt - 1).getCreatedDate().plusSeconds(1).toString())
+                .when()
+                .get(UserRestController.USER_PATH)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract();
+
+        assertTrue(response.body().jsonPath().getList(".", User.class).isEmpty());
+    }
+
     @Test
     public void deleteById() {
         User user = TestDataUtility.userWithTestValues();
@@ -0,0 +1,120 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.UnitTestConfig;
+import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.model.Role;
+import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.util.TestDataUtility;
+import org.h2.tools.Server;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs two application contexts, standing in for two nodes, against one H2 server and verifies that a write on one
+ * node evicts the entries cached by the other within the staleness bound.
+ */
+public class CacheInvalidationComponentTest {
+
+    private static final long STALENESS_BOUND_MILLIS = 200;
+
+    /**
+     * Time allowed on top of the staleness bound for a slow build machine.
+     */
+    private static final long TOLERANCE_MILLIS = 5000;
+
+    private static Server server;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeClass
+    public static void startNodes() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0").start();
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:cacheInvalidation;DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url);
+        nodeB = startNode(url);
+    }
+
+    private static ConfigurableApplicationContext startNode(String url) {
+        return new SpringApplicationBuilder(UnitTestConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--service.db-driver-url=" + url,
+                        "--service.cache-invalidation-enabled=true",
+                        "--service.cache-staleness-bound-millis=" + STALENESS_BOUND_MILLIS);
+    }
+
+    @AfterClass
+    public static void stopNodes() {
+        if (nodeA != null) nodeA.close();
+        if (nodeB != null) nodeB.close();
+        if (server != null) server.stop();
+    }
+
+    private static void awaitEviction(BooleanSupplier evicted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + STALENESS_BOUND_MILLIS + TOLERANCE_MILLIS;
+        while (!evicted.getAsBoolean()) {
+            assertTrue("The cached entry was not evicted", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Verify that a {@link User} updated on one node is read again by the other.
+     */
+    @Test
+    public void userUpdatedOnOneNodeIsEvictedOnTheOther() throws InterruptedException {
+        UserDao userDaoA = nodeA.getBean(UserDao.class);
+        UserDao userDaoB = nodeB.getBean(UserDao.class);
+
+        User user = userDaoA.create(TestDataUtility.userWithTestValues());
+        String firstName = user.getFirstName();
+        awaitEviction(() -> userDaoB.readByEmail(user.getEmail()) != null);
+        assertEquals(firstName, userDaoB.read(user.getId()).getFirstName());
+
+        user.setFirstName(firstName + "Updated");
+        userDaoA.update(user);
+        awaitEviction(() -> user.getFirstName().equals(userDaoB.readByEmail(user.getEmail()).getFirstName()));
+        assertEquals(user.getFirstName(), userDaoB.read(user.getId()).getFirstName());
+
+        userDaoA.delete(user.getId());
+        awaitEviction(() -> userDaoB.read(user.getId()) == null);
+    }
+
+    /**
+     * Verify that a {@link Role} created on one node appears in the role catalog of the other.
+     */
+    @Test
+    public void roleCreatedOnOneNodeRefreshesTheCatalogOfTheOther() throws InterruptedException {
+        RoleDao roleDaoA = nodeA.getBean(RoleDao.class);
+        RoleDao roleDaoB = nodeB.getBean(RoleDao.class);
+        assertNotNull(roleDaoB.catalog());
+
+        Role role = roleDaoA.create(TestDataUtility.roleWithTestValues());
+        awaitEviction(() -> roleDaoB.readByName(role.getName()) != null);
+        assertEquals(role.getAuthorities(), roleDaoB.read(role.getId()).getAuthorities());
+    }
+
+    /**
+     * Verify that a {@link FormDefinition} updated on one node is read again by the other.
+     */
+    @Test
+    public void formDefinitionUpdatedOnOneNodeIsEvictedOnTheOther() throws InterruptedException {
+        FormDefinitionDao formDefinitionDaoA = nodeA.getBean(FormDefinitionDao.class);
+        FormDefinitionDao formDefinitionDaoB = nodeB.getBean(FormDefinitionDao.class);
+
+        FormDefinition formDefinition = formDefinitionDaoA.create(TestDataUtility.formDefWithTestValues());
+        assertEquals(formDefinition.getName(), formDefinitionDaoB.read(formDefinition.getId()).getName());
+
+        formDefinition.setName(formDefinition.getName() + "Updated");
+        formDefinitionDaoA.update(formDefinition);
+        awaitEviction(() -> formDefinition.getName().equals(formDefinitionDaoB.read(formDefinition.getId()).getName()));
+    }
+}
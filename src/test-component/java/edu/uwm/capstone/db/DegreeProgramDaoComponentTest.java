@@ -3,6 +3,7 @@ package edu.uwm.capstone.db;
 import edu.uwm.capstone.UnitTestConfig;
 import edu.uwm.capstone.model.DegreeProgram;
 import edu.uwm.capstone.model.DegreeProgramState;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.junit.After;
 import org.junit.Before;
@@ -13,6 +14,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -20,6 +22,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(classes = UnitTestConfig.class)
@@ -34,6 +37,9 @@ public class DegreeProgramDaoComponentTest {
     @Autowired
     DegreeProgramStateDao degreeProgramStateDao;
 
+    @Autowired
+    private DataSource dataSource;
+
     private List<DegreeProgram> degreeProgramsToCleanup = new ArrayList<>();
 
     @Before
@@ -42,8 +48,6 @@ public class DegreeProgramDaoComponentTest {
         assertNotNull(degreeProgramDao);
         assertNotNull(degreeProgramDao.sql("createDegreeProgram"));
         assertNotNull(degreeProgramDao.sql("readAllDegreePrograms"));
-        assertNotNull(degreeProgramDao.sql("readDegreeProgramById"));
-        assertNotNull(degreeProgramDao.sql("readDegreeProgramByName"));
         assertNotNull(degreeProgramDao.sql("updateDegreeProgramById"));
         assertNotNull(degreeProgramDao.sql("deleteDegreeProgramById"));
 
@@ -170,6 +174,57 @@ public class DegreeProgramDaoComponentTest {
         }
     }
 
+    /**
+     * Verify that writes through the {@link DegreeProgramStateDao} replace the degree program catalog, and that the
+     * catalog hands out copies.
+     */
+    @Test
+    public void catalogReflectsStateWrites() {
+        DegreeProgram dp = degreeProgramDao.create(TestDataUtility.degreeProgramWithTestValues(2));
+        degreeProgramsToCleanup.add(dp);
+        DegreeProgramState state = dp.getDegreeProgramStates().get(0);
+
+        assertEquals(dp.getName(), degreeProgramDao.catalog().degreeProgramName(state.getId()));
+        degreeProgramDao.read(dp.getId()).getDegreeProgramStates().get(0).setName("modified");
+        assertEquals(state.getName(), degreeProgramDao.catalog().readState(state.getId()).getName());
+
+        state.setName(TestDataUtility.randomAlphabetic(20));
+        degreeProgramStateDao.update(state);
+        assertEquals(state.getName(), degreeProgramDao.catalog().readState(state.getId()).getName());
+        assertEquals(state.getName(), degreeProgramDao.read(dp.getId()).getDegreeProgramStateById(state.getId()).getName());
+
+        degreeProgramStateDao.delete(state.getId());
+        assertNull(degreeProgramDao.catalog().readState(state.getId()));
+        assertNull(degreeProgramDao.read(dp.getId()).getDegreeProgramStateById(state.getId()));
+    }
+
+    /**
+     * Verify that the degree program catalog is read with a constant number of queries regardless of how many
+     * degree programs exist, and that reads by id and name are served from it.
+     */
+    @Test
+    public void readAllQueryCountDoesNotGrowWithDegreePrograms() {
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+
+        DegreeProgram dp = degreeProgramDao.create(TestDataUtility.degreeProgramWithTestValues(TestDataUtility.randomInt(1, 10)));
+        degreeProgramsToCleanup.add(dp);
+        long fewProgramsQueries = queryCounter.count(() -> degreeProgramDao.readAll());
+        long readQueries = queryCounter.count(() -> degreeProgramDao.read(dp.getId()));
+        long readByNameQueries = queryCounter.count(() -> degreeProgramDao.readByName(dp.getName()));
+
+        int randInt = TestDataUtility.randomInt(10, 30);
+        for (int i = 0; i < randInt; i++) {
+            DegreeProgram created = TestDataUtility.degreeProgramWithTestValues(TestDataUtility.randomInt(1, 10));
+            degreeProgramsToCleanup.add(degreeProgramDao.create(created));
+        }
+
+        assertEquals(2, fewProgramsQueries);
+        assertEquals(0, readQueries);
+        assertEquals(0, readByNameQueries);
+        assertEquals(fewProgramsQueries, queryCounter.count(() -> degreeProgramDao.readAll()));
+        assertEquals(0, queryCounter.count(() -> degreeProgramDao.readAll()));
+    }
+
     @Test
     public void update() {
         // Create a DegreeProgram
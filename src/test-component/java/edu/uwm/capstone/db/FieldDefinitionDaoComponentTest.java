@@ -0,0 +1,209 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.UnitTestConfig;
+import edu.uwm.capstone.model.FieldDefinition;
+import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.sql.exception.DaoException;
+import edu.uwm.capstone.util.TestDataUtility;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = UnitTestConfig.class)
+public class FieldDefinitionDaoComponentTest {
+
+    @Autowired
+    private FieldDefinitionDao fieldDefinitionDao;
+
+    @Autowired
+    private FormDefinitionDao formDefinitionDao;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private FormDefinition formDefinition;
+    private int batchSize;
+
+    @Before
+    public void setUp() {
+        assertNotNull(fieldDefinitionDao);
+        formDefinition = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        batchSize = fieldDefinitionDao.getBatchSize();
+    }
+
+    @After
+    public void teardown() {
+        fieldDefinitionDao.setBatchSize(batchSize);
+        fieldDefinitionDao.setDataSource(dataSource);
+        formDefinitionDao.delete(formDefinition.getId());
+    }
+
+    /**
+     * Verify that {@link FieldDefinitionDao#createAll} assigns the generated ids to the field definitions in the order
+     * they were provided.
+     */
+    @Test
+    public void createAllAssignsIdsInOrder() {
+        List<FieldDefinition> fieldDefs = fieldDefsWithTestValues(TestDataUtility.randomInt(5, 20));
+
+        assertSame(fieldDefs, fieldDefinitionDao.createAll(fieldDefs));
+
+        for (int i = 0; i < fieldDefs.size(); i++) {
+            FieldDefinition fieldDef = fieldDefs.get(i);
+            assertNotNull(fieldDef.getId());
+            assertNotNull(fieldDef.getCreatedDate());
+            if (i > 0) {
+                assertTrue(fieldDef.getId() > fieldDefs.get(i - 1).getId());
+            }
+            assertEquals(fieldDef, fieldDefinitionDao.read(fieldDef.getId()));
+        }
+    }
+
+    /**
+     * Verify that {@link FieldDefinitionDao#createAll}, {@link FieldDefinitionDao#updateAll} and
+     * {@link FieldDefinitionDao#deleteAll} send their statements in batches of at most the batch size.
+     */
+    @Test
+    public void writesAreSplitIntoBatchesOfBatchSize() {
+        AtomicInteger batches = new AtomicInteger();
+        fieldDefinitionDao.setDataSource(countingBatches(dataSource, batches));
+        fieldDefinitionDao.setBatchSize(3);
+        List<FieldDefinition> fieldDefs = fieldDefsWithTestValues(7);
+
+        fieldDefinitionDao.createAll(fieldDefs);
+        assertEquals(3, batches.getAndSet(0));
+        assertEquals(7, fieldDefs.stream().map(FieldDefinition::getId).distinct().count());
+
+        fieldDefs.forEach(fieldDef -> fieldDef.setLabel(RandomStringUtils.randomAlphabetic(10)));
+        fieldDefinitionDao.updateAll(fieldDefs);
+        assertEquals(3, batches.getAndSet(0));
+        fieldDefs.forEach(fieldDef -> assertEquals(fieldDef, fieldDefinitionDao.read(fieldDef.getId())));
+
+        fieldDefinitionDao.deleteAll(fieldDefs.stream().map(FieldDefinition::getId).collect(Collectors.toList()));
+        assertEquals(3, batches.get());
+        fieldDefs.forEach(fieldDef -> assertNull(fieldDefinitionDao.read(fieldDef.getId())));
+    }
+
+    /**
+     * Verify that {@link FieldDefinitionDao#createAll} is working correctly when a request for an empty list is made.
+     */
+    @Test
+    public void createAllEmpty() {
+        assertEquals(Collections.emptyList(), fieldDefinitionDao.createAll(new ArrayList<>()));
+    }
+
+    /**
+     * Verify that {@link FieldDefinitionDao#createAll} validates every field definition before creating any.
+     */
+    @Test
+    public void createAllWithNonNullId() {
+        List<FieldDefinition> fieldDefs = fieldDefsWithTestValues(3);
+        fieldDefs.get(2).setId(TestDataUtility.randomLong());
+
+        try {
+            fieldDefinitionDao.createAll(fieldDefs);
+            fail("Expected a DaoException");
+        } catch (DaoException e) {
+            assertNull(fieldDefs.get(0).getId());
+            assertEquals(formDefinition.getFieldDefs().size(),
+                    fieldDefinitionDao.readFieldDefsByFormDefId(formDefinition.getId()).size());
+        }
+    }
+
+    /**
+     * Verify that {@link FieldDefinitionDao#updateAll} fails when a statement of the batch does not update exactly
+     * one row.
+     */
+    @Test(expected = DaoException.class)
+    public void updateAllNonExistentFieldDef() {
+        List<FieldDefinition> fieldDefs = fieldDefinitionDao.createAll(fieldDefsWithTestValues(2));
+        FieldDefinition nonExistent = TestDataUtility.fieldDefWithTestValues();
+        nonExistent.setId(TestDataUtility.randomLong());
+        nonExistent.setFormDefId(formDefinition.getId());
+        fieldDefs.add(nonExistent);
+
+        fieldDefinitionDao.updateAll(fieldDefs);
+    }
+
+    /**
+     * Verify that {@link FieldDefinitionDao#deleteAll} fails when a statement of the batch does not delete exactly
+     * one row.
+     */
+    @Test(expected = DaoException.class)
+    public void deleteAllNonExistentFieldDef() {
+        List<Long> ids = fieldDefinitionDao.createAll(fieldDefsWithTestValues(2)).stream()
+                .map(FieldDefinition::getId)
+                .collect(Collectors.toList());
+        ids.add(TestDataUtility.randomLong());
+
+        fieldDefinitionDao.deleteAll(ids);
+    }
+
+    private List<FieldDefinition> fieldDefsWithTestValues(int count) {
+        List<FieldDefinition> fieldDefs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FieldDefinition fieldDef = TestDataUtility.fieldDefWithTestValues();
+            fieldDef.setFormDefId(formDefinition.getId());
+            fieldDefs.add(fieldDef);
+        }
+        return fieldDefs;
+    }
+
+    /**
+     * Wrap a {@link DataSource} so that every {@link PreparedStatement#executeBatch()} of its connections increments
+     * the given counter.
+     */
+    private static DataSource countingBatches(DataSource dataSource, AtomicInteger batches) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                return proxy(Connection.class, connection, (method, result) -> method.getName().startsWith("prepareStatement")
+                        ? proxy(PreparedStatement.class, result, (statementMethod, statementResult) -> {
+                            if (statementMethod.getName().equals("executeBatch")) {
+                                batches.incrementAndGet();
+                            }
+                            return statementResult;
+                        })
+                        : result);
+            }
+        };
+    }
+
+    private interface ResultHandler {
+        Object handle(Method method, Object result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, ResultHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return handler.handle(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
@@ -2,6 +2,7 @@ package edu.uwm.capstone.db;
 
 import edu.uwm.capstone.UnitTestConfig;
 import edu.uwm.capstone.model.*;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.junit.After;
 import org.junit.Before;
@@ -12,9 +13,12 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -33,6 +37,9 @@ public class FormDaoComponentTest {
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private DataSource dataSource;
+
     private List<Form> formsToCleanup = new ArrayList<>();
     private List<FormDefinition> formDefsToCleanup = new ArrayList<>();
     private List<User> usersToCleanup = new ArrayList<>();
@@ -128,6 +135,28 @@ public class FormDaoComponentTest {
         formDao.create(createForm);
     }
 
+    /**
+     * Verify that {@link FormDao#create} rolls back the {@link Form} when one of its fields cannot be created.
+     */
+    @Test
+    public void createNonExistentFieldDefRollsBackForm() {
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
+
+        Form createForm = TestDataUtility.formWithTestValues(createFormDef, user.getId());
+        createForm.getFields().get(0).setFieldDefId(TestDataUtility.randomLong());
+
+        try {
+            formDao.create(createForm);
+            fail("Expected form creation to fail");
+        } catch (RuntimeException e) {
+            assertTrue(formDao.readAllByUserId(user.getId()).isEmpty());
+        }
+    }
+
     /**
      * Verify that {@link FormDao#create} is working correctly when a request for creating a null object is made.
      */
@@ -296,6 +325,65 @@ public class FormDaoComponentTest {
         assertEquals(persistedForms, formDao.readAll());
     }
 
+    /**
+     * Verify that the {@link FormDao} list reads load fields with a fixed number of queries, no matter how many
+     * {@link Form}s are returned.
+     */
+    @Test
+    public void readAllFormsQueryCountDoesNotGrowWithForms() {
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
+
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        formsToCleanup.add(formDao.create(TestDataUtility.formWithTestValues(createFormDef, user.getId())));
+        long fewFormsQueries = queryCounter.count(() -> formDao.readAllByUserId(user.getId()));
+        long fewFormsAllQueries = queryCounter.count(() -> formDao.readAll());
+        long fewFormsByDefQueries = queryCounter.count(() -> formDao.readAllByFormDefId(createFormDef.getId()));
+        long fewFormsByPantherQueries = queryCounter.count(() -> formDao.readAllByPantherId(user.getPantherId()));
+
+        int randInt = TestDataUtility.randomInt(10, 30);
+        for (int i = 0; i < randInt; i++) {
+            formsToCleanup.add(formDao.create(TestDataUtility.formWithTestValues(createFormDef, user.getId())));
+        }
+
+        assertEquals(randInt + 1, formDao.readAllByUserId(user.getId()).size());
+        assertEquals(fewFormsQueries, queryCounter.count(() -> formDao.readAllByUserId(user.getId())));
+        assertEquals(fewFormsAllQueries, queryCounter.count(() -> formDao.readAll()));
+        assertEquals(fewFormsByDefQueries, queryCounter.count(() -> formDao.readAllByFormDefId(createFormDef.getId())));
+        assertEquals(fewFormsByPantherQueries, queryCounter.count(() -> formDao.readAllByPantherId(user.getPantherId())));
+        assertEquals(2, fewFormsQueries);
+    }
+
+    /**
+     * Verify that {@link FormDao#exists} and {@link FormDao#existsByFormDefId} answer with a single query.
+     */
+    @Test
+    public void existsProbesCostOneQuery() {
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+        FormDefinition unusedFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(unusedFormDef);
+
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
+
+        Form createForm = formDao.create(TestDataUtility.formWithTestValues(createFormDef, user.getId()));
+        formsToCleanup.add(createForm);
+
+        assertTrue(formDao.exists(createForm.getId()));
+        assertFalse(formDao.exists(createForm.getId() + 1000));
+        assertTrue(formDao.existsByFormDefId(createFormDef.getId()));
+        assertFalse(formDao.existsByFormDefId(unusedFormDef.getId()));
+
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(1, queryCounter.count(() -> formDao.exists(createForm.getId())));
+        assertEquals(1, queryCounter.count(() -> formDao.existsByFormDefId(createFormDef.getId())));
+    }
+
     /**
      * Verify that {@link FormDao#readAllByFormDefId} is working correctly,
      */
@@ -334,6 +422,34 @@ public class FormDaoComponentTest {
         assertEquals(persistedForms, formDao.readAllByFormDefId(formDefId));
     }
 
+    /**
+     * Verify that {@link FormDao#streamAllByFormDefId} streams the same forms, with their fields, as
+     * {@link FormDao#readAllByFormDefId}.
+     */
+    @Test
+    public void streamAllFormsByFormDefId() {
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
+
+        List<Form> persistedForms = new ArrayList<>();
+        int randInt = TestDataUtility.randomInt(10, 30);
+        for (int i = 0; i < randInt; i++) {
+            Form createForm = formDao.create(TestDataUtility.formWithTestValues(createFormDef, user.getId()));
+            formsToCleanup.add(createForm);
+            persistedForms.add(createForm);
+        }
+
+        try (Stream<Form> forms = formDao.streamAllByFormDefId(createFormDef.getId())) {
+            assertEquals(persistedForms, forms.collect(Collectors.toList()));
+        }
+        try (Stream<Form> forms = formDao.streamAllByFormDefId(createFormDef.getId() + 1000)) {
+            assertEquals(0, forms.count());
+        }
+    }
+
     /**
      * Verify that {@link FormDao#readAllByUserId} is working correctly,
      */
@@ -398,6 +514,45 @@ public class FormDaoComponentTest {
         assertNotEquals(createForm.getFields(), verifyUpdateForm.getFields());
     }
 
+    /**
+     * Verify that {@link FormDao#update} creates, updates and deletes fields in the same call and that the
+     * created fields receive the ids they are read back with.
+     */
+    @Test
+    public void updateCreatesUpdatesAndDeletesFields() {
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
+
+        Form form = TestDataUtility.formWithTestValues(createFormDef, user.getId());
+        Field removedField = TestDataUtility.fieldWithTestValues(createFormDef.getFieldDefs().get(0));
+        form.getFields().add(removedField);
+        formDao.create(form);
+        formsToCleanup.add(form);
+        form.getFields().forEach(field -> assertNotNull(field.getId()));
+
+        form.getFields().remove(removedField);
+        form.getFields().forEach(field -> field.setData(TestDataUtility.randomAlphabetic(20)));
+        Field addedField = TestDataUtility.fieldWithTestValues(createFormDef.getFieldDefs().get(0));
+        form.getFields().add(addedField);
+        formDao.update(form);
+        assertNotNull(addedField.getId());
+
+        Form verifyForm = formDao.read(form.getId());
+        assertNotNull(verifyForm);
+        assertEquals(form.getFields().size(), verifyForm.getFields().size());
+        for (Field field : form.getFields()) {
+            Field verifyField = verifyForm.getFields().stream()
+                    .filter(f -> f.getId().equals(field.getId()))
+                    .findFirst()
+                    .orElseThrow(AssertionError::new);
+            assertEquals(field.getData(), verifyField.getData());
+        }
+        assertFalse(verifyForm.getFields().stream().anyMatch(f -> f.getId().equals(removedField.getId())));
+    }
+
     /**
      * Verify that {@link FormDao#update} is working correctly when field definitions are updated
      * but not exist for form definition.
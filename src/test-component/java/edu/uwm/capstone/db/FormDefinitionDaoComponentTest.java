@@ -3,7 +3,9 @@ package edu.uwm.capstone.db;
 import edu.uwm.capstone.UnitTestConfig;
 import edu.uwm.capstone.model.FieldDefinition;
 import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.After;
 import org.junit.Before;
@@ -14,6 +16,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,6 +31,12 @@ public class FormDefinitionDaoComponentTest {
     @Autowired
     FormDefinitionDao formDefinitionDao;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private List<FormDefinition> formDefsToCleanup = new ArrayList<>();
 
     @Before
@@ -129,6 +138,95 @@ public class FormDefinitionDaoComponentTest {
         assertEquals(persistedFormDefs, formDefinitionDao.readAll());
     }
 
+    /**
+     * Verify that {@link FormDefinitionDao#readAll} reads the form definitions and their field definitions with
+     * a constant number of queries regardless of how many form definitions exist.
+     */
+    @Test
+    public void readAllFormDefsQueryCountDoesNotGrowWithFormDefs() {
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+
+        FormDefinition formDefinition = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(formDefinition);
+        long readQueries = queryCounter.count(() -> formDefinitionDao.read(formDefinition.getId()));
+        long fewFormDefsQueries = queryCounter.count(() -> formDefinitionDao.readAll());
+
+        int randInt = TestDataUtility.randomInt(10, 30);
+        for (int i = 0; i < randInt; i++) {
+            formDefsToCleanup.add(formDefinitionDao.create(TestDataUtility.formDefWithTestValues()));
+        }
+
+        assertEquals(2, fewFormDefsQueries);
+        assertEquals(2, readQueries);
+        assertEquals(fewFormDefsQueries, queryCounter.count(() -> formDefinitionDao.readAll()));
+    }
+
+    /**
+     * Verify that {@link FormDefinitionDao#read} and {@link FormDefinitionDao#readAll} are served from the cache
+     * after the first read, and that the cached form definitions cannot be modified through the returned copies.
+     */
+    @Test
+    public void readIsCached() {
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        FormDefinition formDefinition = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(formDefinition);
+
+        assertEquals(2, queryCounter.count(() -> formDefinitionDao.read(formDefinition.getId())));
+        assertEquals(0, queryCounter.count(() -> formDefinitionDao.read(formDefinition.getId())));
+        assertEquals(2, queryCounter.count(() -> formDefinitionDao.readAll()));
+        assertEquals(0, queryCounter.count(() -> formDefinitionDao.readAll()));
+
+        FormDefinition copy = formDefinitionDao.read(formDefinition.getId());
+        assertNotSame(copy, formDefinitionDao.read(formDefinition.getId()));
+        copy.setName(RandomStringUtils.randomAlphabetic(10));
+        copy.getFieldDefs().get(0).setLabel(RandomStringUtils.randomAlphabetic(10));
+        copy.getFieldDefs().clear();
+        assertEquals(formDefinition, formDefinitionDao.read(formDefinition.getId()));
+    }
+
+    /**
+     * Verify that {@link FormDefinitionDao#update} and {@link FormDefinitionDao#delete} invalidate the cached
+     * form definition.
+     */
+    @Test
+    public void writesInvalidateCache() {
+        FormDefinition formDefinition = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        assertEquals(formDefinition, formDefinitionDao.read(formDefinition.getId()));
+        assertTrue(formDefinitionDao.readAll().contains(formDefinition));
+
+        FormDefinition update = TestDataUtility.formDefWithTestValues();
+        update.setId(formDefinition.getId());
+        formDefinitionDao.update(update);
+        assertEquals(update.getName(), formDefinitionDao.read(formDefinition.getId()).getName());
+        assertTrue(formDefinitionDao.readAll().stream().anyMatch(fd -> fd.getName().equals(update.getName())));
+
+        formDefinitionDao.delete(formDefinition.getId());
+        assertNull(formDefinitionDao.read(formDefinition.getId()));
+        assertTrue(formDefinitionDao.readAll().stream().noneMatch(fd -> fd.getId().equals(formDefinition.getId())));
+    }
+
+    /**
+     * Verify that the hit, miss and eviction counts of the form definition cache are published as metrics.
+     */
+    @Test
+    public void cacheMetrics() {
+        FormDefinition formDefinition = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(formDefinition);
+
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+        formDefinitionDao.read(formDefinition.getId());
+        formDefinitionDao.read(formDefinition.getId());
+        assertEquals(hits + 1, cacheGets("hit"), 0);
+        assertEquals(misses + 1, cacheGets("miss"), 0);
+        assertNotNull(meterRegistry.get("cache.evictions").tag("cache", FormDefinitionDao.CACHE_NAME).functionCounter());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", FormDefinitionDao.CACHE_NAME).tag("result", result)
+                .functionCounter().count();
+    }
+
     /**
      * Verify that {@link FormDefinitionDao#update} is working correctly.
      */
@@ -0,0 +1,191 @@
+package edu.uwm.capstone.db;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import edu.uwm.capstone.UnitTestConfig;
+import edu.uwm.capstone.model.FormFilter;
+import edu.uwm.capstone.model.UserFilter;
+import edu.uwm.capstone.sql.statement.SqlStatementsFileParser;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs {@code EXPLAIN} on every named statement in {@code dao/*.sql} and fails if a statement that is not expected
+ * to read a whole table is planned with a full table scan.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = UnitTestConfig.class)
+public class QueryPlanComponentTest {
+
+    private static final String TABLE_SCAN = "tableScan";
+
+    /**
+     * H2 answers MIN and MAX of an indexed column from the index, but still names the table scan in the plan.
+     */
+    private static final String DIRECT_LOOKUP = "direct lookup";
+    private static final Pattern PARAMETER = Pattern.compile(":(\\w+)");
+
+    /**
+     * Statements that read every row of a table by design.
+     */
+    private static final Set<String> FULL_SCAN_STATEMENTS = new HashSet<>(Arrays.asList(
+            "readAllDegreeProgramStates",
+            "readAllDegreePrograms",
+            "readAllFormDefs",
+            "readAllForms",
+            "readAllRoles",
+            "readAllUsers",
+            "readAllUserRole"
+    ));
+
+    /**
+     * Sample values for parameters whose columns are not numeric, so that the comparison does not force a
+     * conversion of the column that would prevent the use of its index.
+     */
+    private static final Map<String, Object> PARAMETER_VALUES = Map.of(
+            "email", "user@uwm.edu",
+            "panther_id", "123456789",
+            "name", "name",
+            "role_name", "ADMIN",
+            "approved", true,
+            "is_initial", true,
+            "data", "data",
+            "description", "description",
+            "entity_type", "USER");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private FormDao formDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private Map<String, String> statements;
+
+    @Before
+    public void setUp() throws Exception {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        statements = new TreeMap<>();
+        SqlStatementsFileParser parser = new SqlStatementsFileParser();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:dao/*.sql")) {
+            statements.putAll(parser.parse(Resources.toString(resource.getURL(), Charsets.UTF_8)));
+        }
+    }
+
+    @Test
+    public void hotStatementsUseIndexes() {
+        assertFalse(statements.isEmpty());
+        assertTrue(statements.keySet().containsAll(FULL_SCAN_STATEMENTS));
+
+        Map<String, String> tableScans = new TreeMap<>();
+        statements.forEach((name, statement) -> {
+            if (FULL_SCAN_STATEMENTS.contains(name)) return;
+            String plan = explain(statement);
+            if (plan.contains(TABLE_SCAN) && !plan.contains(DIRECT_LOOKUP)) {
+                tableScans.put(name, plan);
+            }
+        });
+
+        assertTrue("Statements planned with a full table scan: " + tableScans, tableScans.isEmpty());
+    }
+
+    @Test
+    public void fullScanStatementsAreStillFullScans() {
+        List<String> indexed = FULL_SCAN_STATEMENTS.stream()
+                .filter(name -> !explain(statements.get(name)).contains(TABLE_SCAN))
+                .collect(Collectors.toList());
+        assertTrue("Statements no longer read the whole table, remove them from FULL_SCAN_STATEMENTS: " + indexed,
+                indexed.isEmpty());
+    }
+
+    /**
+     * Verify that the user and form definition filters of the form list are looked up in an index on their column,
+     * which a catch-all {@code (:value IS NULL OR column = :value)} predicate would prevent. The approval filter is
+     * left out, since H2 prefers the primary key range over an index on a boolean column.
+     */
+    @Test
+    public void formPageFiltersUseTheirIndexes() {
+        Map<String, FormFilter> filters = new TreeMap<>();
+        filters.put("USER_ID", FormFilter.builder().userId(1L).build());
+        filters.put("FORM_DEF_ID", FormFilter.builder().formDefId(1L).build());
+
+        filters.forEach((column, filter) -> {
+            MapSqlParameterSource parameters = new MapSqlParameterSource();
+            String statement = formDao.pageStatement(filter, 10, parameters);
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + statement, parameters, String.class));
+            assertTrue("Expected an index on " + column + " in " + plan,
+                    Pattern.compile("/\\* PUBLIC\\.\\w+: " + column + " = ").matcher(plan).find());
+        });
+    }
+
+    /**
+     * Verify that every date filter of the user list keeps the page on the primary key range after the last id,
+     * which a catch-all {@code (:value IS NULL OR column >= :value)} predicate would prevent.
+     */
+    @Test
+    public void userPageFiltersUseTheIdRange() {
+        LocalDateTime date = LocalDateTime.now();
+        Map<String, UserFilter> filters = new TreeMap<>();
+        filters.put("none", UserFilter.builder().build());
+        filters.put("afterId", UserFilter.builder().afterId(1L).build());
+        filters.put("created", UserFilter.builder().createdFrom(date.minusDays(1)).createdTo(date).build());
+        filters.put("updated", UserFilter.builder().updatedFrom(date.minusDays(1)).updatedTo(date).build());
+
+        filters.forEach((name, filter) -> {
+            MapSqlParameterSource parameters = new MapSqlParameterSource();
+            String statement = userDao.pageStatement(filter, 10, parameters);
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + statement, parameters, String.class));
+            assertTrue("Expected the id range for filter " + name + " in " + plan,
+                    Pattern.compile("/\\* PUBLIC\\.\\w+: ID > ").matcher(plan).find());
+        });
+    }
+
+    private String explain(String statement) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        for (String parameter : parameterNames(statement)) {
+            parameters.addValue(parameter, sampleValue(parameter));
+        }
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + statement, parameters, String.class));
+    }
+
+    private static Set<String> parameterNames(String statement) {
+        Set<String> names = new HashSet<>();
+        Matcher matcher = PARAMETER.matcher(statement);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    private static Object sampleValue(String parameter) {
+        if (parameter.endsWith("ids")) {
+            return Arrays.asList(1L, 2L);
+        }
+        return PARAMETER_VALUES.getOrDefault(parameter, 1L);
+    }
+}
@@ -0,0 +1,85 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.security.Authorities;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the migration that replaces the {@code role_authorities} rows with the {@code roles.authorities} bitmask on a
+ * database holding roles written before it, in its own in-memory database so the shared one is left alone.
+ */
+public class RoleAuthorityMaskMigrationComponentTest {
+
+    private static final String MIGRATION_LOCATION = "classpath:db/migration";
+    private static final MigrationVersion BEFORE_MASKS = MigrationVersion.fromVersion("1.3");
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:role_authority_masks;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void teardown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    /**
+     * Verify that every role keeps exactly the authorities it had in {@code role_authorities}, including a role with
+     * every authority, so an authority added to {@link Authorities} without a bit in the migration fails here.
+     */
+    @Test
+    public void roleAuthoritiesAreMigratedToMasks() {
+        migrate(BEFORE_MASKS);
+
+        Map<Long, Set<Authorities>> roles = new LinkedHashMap<>();
+        roles.put(createRole("none"), EnumSet.noneOf(Authorities.class));
+        roles.put(createRole("first"), EnumSet.of(Authorities.values()[0]));
+        roles.put(createRole("last"), EnumSet.of(Authorities.values()[Authorities.values().length - 1]));
+        roles.put(createRole("some"), EnumSet.of(Authorities.CREATE_FORM, Authorities.READ_ALL_USERS, Authorities.APPROVE_FORM));
+        roles.put(createRole("all"), EnumSet.allOf(Authorities.class));
+        roles.forEach((roleId, authorities) -> authorities.forEach(authority ->
+                jdbcTemplate.update("INSERT INTO role_authorities (role_id, authority) VALUES (?, ?)", roleId, authority.name())));
+
+        migrate(MigrationVersion.LATEST);
+
+        roles.forEach((roleId, authorities) -> {
+            long mask = jdbcTemplate.queryForObject("SELECT authorities FROM roles WHERE id = ?", Long.class, roleId);
+            assertEquals(Authorities.toMask(authorities), mask);
+            assertEquals(authorities, Authorities.fromMask(mask));
+        });
+        assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'ROLE_AUTHORITIES'", Integer.class));
+    }
+
+    private void migrate(MigrationVersion target) {
+        Flyway.configure()
+                .locations(MIGRATION_LOCATION)
+                .dataSource(dataSource)
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private long createRole(String name) {
+        jdbcTemplate.update("INSERT INTO roles (name, description, created_date) VALUES (?, ?, ?)",
+                name, "role " + name, System.currentTimeMillis());
+        return jdbcTemplate.queryForObject("SELECT id FROM roles WHERE name = ?", Long.class, name);
+    }
+}
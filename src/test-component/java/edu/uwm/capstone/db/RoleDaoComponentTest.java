@@ -1,6 +1,8 @@
 package edu.uwm.capstone.db;
 import edu.uwm.capstone.UnitTestConfig;
 import edu.uwm.capstone.model.Role;
+import edu.uwm.capstone.security.Authorities;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.junit.After;
 import org.junit.Before;
@@ -11,8 +13,14 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -26,19 +34,18 @@ public class RoleDaoComponentTest {
     @Autowired
     RoleDao roleDao;
 
+    @Autowired
+    DataSource dataSource;
+
     private List<Role> rolesToCleanup = new ArrayList<>();
 
     @Before
     public void setUp() {
         assertNotNull(roleDao);
         assertNotNull(roleDao.sql("createRole"));
-        assertNotNull(roleDao.sql("readRoleById"));
-        assertNotNull(roleDao.sql("readRoleAuthoritiesByRoleId"));
         assertNotNull(roleDao.sql("readAllRoles"));
-        assertNotNull(roleDao.sql("readRoleByName"));
         assertNotNull(roleDao.sql("updateRole"));
         assertNotNull(roleDao.sql("deleteUserRolesByRoleId"));
-        assertNotNull(roleDao.sql("deleteRoleAuthoritiesByRoleId"));
         assertNotNull(roleDao.sql("deleteRole"));
     }
 
@@ -59,6 +66,63 @@ public class RoleDaoComponentTest {
         rolesToCleanup.add(createRole);
     }
 
+    /**
+     * Verify that {@link RoleDao#countByNames} counts the existing roles with a single query.
+     */
+    @Test
+    public void countByNames() {
+        Role first = TestDataUtility.roleWithTestValues();
+        roleDao.create(first);
+        rolesToCleanup.add(first);
+        Role second = TestDataUtility.roleWithTestValues();
+        roleDao.create(second);
+        rolesToCleanup.add(second);
+
+        Set<String> names = new HashSet<>(Arrays.asList(first.getName(), second.getName()));
+        assertEquals(2, roleDao.countByNames(names));
+        names.add(TestDataUtility.randomAlphabetic(30));
+        assertEquals(2, roleDao.countByNames(names));
+        assertEquals(0, roleDao.countByNames(Collections.emptySet()));
+
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(1, queryCounter.count(() -> roleDao.countByNames(names)));
+        assertEquals(0, queryCounter.count(() -> roleDao.countByNames(Collections.emptySet())));
+    }
+
+    /**
+     * Verify that the {@link RoleCatalog} is read with one query, serves reads of roles without queries and is
+     * read again after a role is written.
+     */
+    @Test
+    public void catalog() {
+        Role role = TestDataUtility.roleWithTestValues();
+        roleDao.create(role);
+        rolesToCleanup.add(role);
+
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(1, queryCounter.count(() -> roleDao.readAll()));
+        assertEquals(0, queryCounter.count(() -> {
+            roleDao.readAll();
+            roleDao.read(role.getId());
+            roleDao.readByName(role.getName());
+        }));
+        assertEquals(role.getAuthorities(), roleDao.catalog().authorities(Collections.singleton(role.getId())));
+
+        // roles handed out are copies
+        roleDao.read(role.getId()).getAuthorities().clear();
+        assertEquals(role.getAuthorities(), roleDao.read(role.getId()).getAuthorities());
+
+        // the authorities are written with the role, in one statement besides the cache version
+        role.setAuthorities(EnumSet.of(Authorities.READ_ALL_USERS));
+        assertEquals(2, queryCounter.count(() -> roleDao.update(role)));
+        assertEquals(EnumSet.of(Authorities.READ_ALL_USERS), roleDao.readByName(role.getName()).getAuthorities());
+
+        roleDao.delete(role.getId());
+        rolesToCleanup.remove(role);
+        assertNull(roleDao.read(role.getId()));
+        assertFalse(roleDao.catalog().contains(role.getName()));
+    }
+
     /**
      * Verify that {@link RoleDao#create} is working correctly when a request for creating a null object is made.
      */
@@ -2,6 +2,7 @@ package edu.uwm.capstone.db;
 
 import edu.uwm.capstone.UnitTestConfig;
 import edu.uwm.capstone.model.Role;
+import edu.uwm.capstone.security.Authorities;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.junit.Before;
@@ -66,6 +67,7 @@ public class RoleDaoRowMapperComponentTest {
         assertEquals(role.getId(), mapObject.get(BaseRowMapper.BaseColumnType.ID.getColumnName()));
         assertEquals(role.getName(), mapObject.get(RoleDaoRowMapper.RoleColumnType.NAME.getColumnName()));
         assertEquals(role.getDescription(), mapObject.get(RoleDaoRowMapper.RoleColumnType.DESCRIPTION.getColumnName()));
+        assertEquals(Authorities.toMask(role.getAuthorities()), mapObject.get(RoleDaoRowMapper.RoleColumnType.AUTHORITIES.getColumnName()));
         assertEquals(role.getCreatedDate(), dateFromJavaTime(mapObject.get(BaseRowMapper.BaseColumnType.CREATED_DATE.getColumnName())));
         assertEquals(role.getUpdatedDate(), dateFromJavaTime(mapObject.get(BaseRowMapper.BaseColumnType.UPDATED_DATE.getColumnName())));
     }
@@ -86,6 +88,7 @@ public class RoleDaoRowMapperComponentTest {
         when(resultSet.getLong(BaseRowMapper.BaseColumnType.ID.getColumnName())).thenReturn(role.getId());
         when(resultSet.getString(RoleDaoRowMapper.RoleColumnType.NAME.getColumnName())).thenReturn(role.getName());
         when(resultSet.getString(RoleDaoRowMapper.RoleColumnType.DESCRIPTION.getColumnName())).thenReturn(role.getDescription());
+        when(resultSet.getLong(RoleDaoRowMapper.RoleColumnType.AUTHORITIES.getColumnName())).thenReturn(Authorities.toMask(role.getAuthorities()));
         when(resultSet.getObject(BaseRowMapper.BaseColumnType.CREATED_DATE.getColumnName())).thenReturn(javaTimeFromDate(role.getCreatedDate()));
         when(resultSet.getObject(BaseRowMapper.BaseColumnType.UPDATED_DATE.getColumnName())).thenReturn(javaTimeFromDate(role.getUpdatedDate()));
 
@@ -96,6 +99,7 @@ public class RoleDaoRowMapperComponentTest {
         assertEquals(role.getId(), verifyRole.getId());
         assertEquals(role.getName(), verifyRole.getName());
         assertEquals(role.getDescription(), verifyRole.getDescription());
+        assertEquals(role.getAuthorities(), verifyRole.getAuthorities());
         assertEquals(role.getCreatedDate(), verifyRole.getCreatedDate());
         assertEquals(role.getUpdatedDate(), verifyRole.getUpdatedDate());
     }
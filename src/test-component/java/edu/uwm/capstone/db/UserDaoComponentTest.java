@@ -2,7 +2,10 @@ package edu.uwm.capstone.db;
 
 import edu.uwm.capstone.UnitTestConfig;
 import edu.uwm.capstone.model.DegreeProgram;
+import edu.uwm.capstone.model.Role;
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.security.Authorities;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.junit.After;
 import org.junit.Before;
@@ -13,7 +16,12 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -31,8 +39,15 @@ public class UserDaoComponentTest {
     @Autowired
     DegreeProgramDao degreeProgramDao;
 
+    @Autowired
+    RoleDao roleDao;
+
+    @Autowired
+    private DataSource dataSource;
+
     private List<User> usersToCleanup = new ArrayList<>();
     private List<DegreeProgram> degreeProgramsToCleanup = new ArrayList<>();
+    private List<Role> rolesToCleanup = new ArrayList<>();
 
     @Before
     public void setUp() {
@@ -51,6 +66,8 @@ public class UserDaoComponentTest {
         usersToCleanup.clear();
         degreeProgramsToCleanup.forEach(dp -> degreeProgramDao.delete(dp.getId()));
         degreeProgramsToCleanup.clear();
+        rolesToCleanup.forEach(role -> roleDao.delete(role.getId()));
+        rolesToCleanup.clear();
     }
 
     /**
@@ -124,6 +141,46 @@ public class UserDaoComponentTest {
         assertEquals(createUser, readUser);
     }
 
+    /**
+     * Verify that {@link UserDao#readCredentialsByEmail} reads the credentials and the authorities of every role of
+     * the {@link User} in one statement.
+     */
+    @Test
+    public void readCredentialsByEmail() {
+        Role readRole = TestDataUtility.roleWithTestValues();
+        readRole.setAuthorities(EnumSet.of(Authorities.READ_ALL_USERS));
+        roleDao.create(readRole);
+        rolesToCleanup.add(readRole);
+        Role createRole = TestDataUtility.roleWithTestValues();
+        createRole.setAuthorities(EnumSet.of(Authorities.CREATE_FORM, Authorities.READ_ALL_USERS));
+        roleDao.create(createRole);
+        rolesToCleanup.add(createRole);
+
+        User createUser = TestDataUtility.userWithTestValues();
+        createUser.setRoleNames(new HashSet<>(Arrays.asList(readRole.getName(), createRole.getName())));
+        userDao.create(createUser);
+        usersToCleanup.add(createUser);
+
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(1, queryCounter.count(() -> userDao.readCredentialsByEmail(createUser.getEmail())));
+
+        User credentials = userDao.readCredentialsByEmail(createUser.getEmail());
+        assertEquals(createUser.getId(), credentials.getId());
+        assertEquals(createUser.getEmail(), credentials.getEmail());
+        assertEquals(createUser.getPassword(), credentials.getPassword());
+        assertEquals(createUser.isEnabled(), credentials.isEnabled());
+        assertEquals(createUser.isAccountNonLocked(), credentials.isAccountNonLocked());
+        assertEquals(EnumSet.of(Authorities.READ_ALL_USERS, Authorities.CREATE_FORM), credentials.getAuthorities());
+        assertNull(credentials.getFirstName());
+        assertNull(credentials.getCurrentState());
+
+        createUser.setRoleNames(Collections.emptySet());
+        userDao.update(createUser);
+        assertEquals(EnumSet.noneOf(Authorities.class), userDao.readCredentialsByEmail(createUser.getEmail()).getAuthorities());
+
+        assertNull(userDao.readCredentialsByEmail(TestDataUtility.randomAlphabetic(20)));
+    }
+
     /**
      * Verify that {@link UserDao#readByPantherId} is working correctly.
      */
@@ -171,6 +228,21 @@ public class UserDaoComponentTest {
         assertNull(user);
     }
 
+    /**
+     * Verify that {@link UserDao#exists} answers with a single query, without reading roles or the current state.
+     */
+    @Test
+    public void existsCostsOneQuery() {
+        User createUser = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(createUser);
+
+        assertTrue(userDao.exists(createUser.getId()));
+        assertFalse(userDao.exists(createUser.getId() + 1000));
+
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(1, queryCounter.count(() -> userDao.exists(createUser.getId())));
+    }
+
     /**
      * Verify that {@link UserDao#readAll} is working correctly
      */
@@ -187,6 +259,166 @@ public class UserDaoComponentTest {
         assertEquals(persistedUsers, userDao.readAll());
     }
 
+    /**
+     * Verify that {@link UserDao#readAll} hydrates users the same way {@link UserDao#read} does, and that
+     * the number of queries does not grow with the number of users.
+     */
+    @Test
+    public void readAllUsersHydratesWithConstantQueryCount() {
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+
+        Role role = TestDataUtility.roleWithTestValues();
+        role.getAuthorities().add(Authorities.READ_ALL_USERS);
+        roleDao.create(role);
+        rolesToCleanup.add(role);
+
+        DegreeProgram dp = TestDataUtility.degreeProgramWithTestValues(3);
+        degreeProgramDao.create(dp);
+        degreeProgramsToCleanup.add(dp);
+
+        // the role and degree program catalogs are read once and then shared by every read of users
+        roleDao.catalog();
+        degreeProgramDao.catalog();
+
+        int randInt = TestDataUtility.randomInt(10, 30);
+        long fewUsersQueries = 0;
+        for (int i = 0; i <= randInt; i++) {
+            User user = TestDataUtility.userWithTestValues();
+            user.setRoleNames(Collections.singleton(role.getName()));
+            user.setCurrentState(dp.getDegreeProgramStates().get(i % dp.getDegreeProgramStates().size()));
+            userDao.create(user);
+            usersToCleanup.add(user);
+            if (i == 0)
+                fewUsersQueries = queryCounter.count(() -> userDao.readAll());
+        }
+
+        assertEquals(2, fewUsersQueries);
+        assertEquals(fewUsersQueries, queryCounter.count(() -> userDao.readAll()));
+
+        for (User user : userDao.readAll()) {
+            User expected = userDao.read(user.getId());
+            if (expected.getCurrentState() != null)
+                expected.setDegreeProgramName(dp.getName());
+            assertEquals(expected, user);
+        }
+    }
+
+    /**
+     * Verify that {@link UserDao#read} resolves the current state and degree program name from the degree program
+     * catalog, reading only the user and its role ids.
+     */
+    @Test
+    public void readResolvesCurrentStateFromCatalog() {
+        DegreeProgram dp = TestDataUtility.degreeProgramWithTestValues(2);
+        degreeProgramDao.create(dp);
+        degreeProgramsToCleanup.add(dp);
+
+        User user = TestDataUtility.userWithTestValues();
+        user.setCurrentState(dp.getDegreeProgramStates().get(1));
+        userDao.create(user);
+        usersToCleanup.add(user);
+
+        roleDao.catalog();
+        degreeProgramDao.catalog();
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(2, queryCounter.count(() -> userDao.read(user.getId())));
+
+        User read = userDao.read(user.getId());
+        assertEquals(dp.getDegreeProgramStates().get(1), read.getCurrentState());
+        assertEquals(dp.getName(), read.getDegreeProgramName());
+    }
+
+    /**
+     * Verify that a {@link User} read by any of its keys is served from the {@link UserCache} by every key.
+     */
+    @Test
+    public void readIsCachedUnderEveryKey() {
+        User user = TestDataUtility.userWithTestValues();
+        userDao.create(user);
+        usersToCleanup.add(user);
+
+        roleDao.catalog();
+        degreeProgramDao.catalog();
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(2, queryCounter.count(() -> userDao.readByEmail(user.getEmail())));
+        assertEquals(0, queryCounter.count(() -> userDao.read(user.getId())));
+        assertEquals(0, queryCounter.count(() -> userDao.readByPantherId(user.getPantherId())));
+
+        User read = userDao.read(user.getId());
+        read.getAuthorities().add(Authorities.READ_ALL_USERS);
+        read.setFirstName("modified");
+        assertTrue(userDao.read(user.getId()).getAuthorities().isEmpty());
+        assertEquals(user.getFirstName(), userDao.read(user.getId()).getFirstName());
+    }
+
+    /**
+     * Verify that {@link UserDao#update} invalidates the cached {@link User} under its old and new keys.
+     */
+    @Test
+    public void updateInvalidatesEveryKey() {
+        User user = TestDataUtility.userWithTestValues();
+        userDao.create(user);
+        usersToCleanup.add(user);
+        String oldEmail = user.getEmail();
+        String oldPantherId = user.getPantherId();
+        User newKeys = TestDataUtility.userWithTestValues();
+        assertNull(userDao.readByEmail(newKeys.getEmail()));
+        userDao.read(user.getId());
+
+        user.setEmail(newKeys.getEmail());
+        user.setPantherId(newKeys.getPantherId());
+        userDao.update(user);
+
+        assertNull(userDao.readByEmail(oldEmail));
+        assertNull(userDao.readByPantherId(oldPantherId));
+        assertEquals(user.getId(), userDao.readByEmail(newKeys.getEmail()).getId());
+        assertEquals(user.getId(), userDao.readByPantherId(newKeys.getPantherId()).getId());
+        assertEquals(newKeys.getEmail(), userDao.read(user.getId()).getEmail());
+    }
+
+    /**
+     * Verify that a cached miss does not hide a {@link User} created afterwards.
+     */
+    @Test
+    public void createInvalidatesCachedMisses() {
+        User user = TestDataUtility.userWithTestValues();
+        assertNull(userDao.readByEmail(user.getEmail()));
+        assertNull(userDao.readByPantherId(user.getPantherId()));
+
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        assertEquals(0, queryCounter.count(() -> userDao.readByEmail(user.getEmail())));
+
+        userDao.create(user);
+        usersToCleanup.add(user);
+        assertEquals(user.getId(), userDao.readByEmail(user.getEmail()).getId());
+        assertEquals(user.getId(), userDao.readByPantherId(user.getPantherId()).getId());
+    }
+
+    /**
+     * Verify that role changes made by {@link RoleDao} are visible in cached {@link User}s.
+     */
+    @Test
+    public void cachedUserReflectsRoleChanges() {
+        Role role = TestDataUtility.roleWithTestValues();
+        role.setAuthorities(Collections.singleton(Authorities.READ_ALL_USERS));
+        roleDao.create(role);
+        rolesToCleanup.add(role);
+
+        User user = TestDataUtility.userWithTestValues();
+        user.setRoleNames(Collections.singleton(role.getName()));
+        userDao.create(user);
+        usersToCleanup.add(user);
+        assertEquals(Collections.singleton(Authorities.READ_ALL_USERS), userDao.read(user.getId()).getAuthorities());
+
+        role.setAuthorities(Collections.singleton(Authorities.READ_ALL_FORMS));
+        roleDao.update(role);
+        assertEquals(Collections.singleton(Authorities.READ_ALL_FORMS), userDao.read(user.getId()).getAuthorities());
+
+        roleDao.delete(role.getId());
+        rolesToCleanup.clear();
+        assertTrue(userDao.read(user.getId()).getRoleNames().isEmpty());
+    }
+
     /**
      * Verify that {@link UserDao#update} is working correctly.
      */
@@ -2,6 +2,7 @@ package edu.uwm.capstone.db;
 
 import edu.uwm.capstone.UnitTestConfig;
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.security.Authorities;
 import edu.uwm.capstone.sql.dao.BaseRowMapper;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.junit.Before;
@@ -14,6 +15,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.EnumSet;
 import java.util.Map;
 
 import static edu.uwm.capstone.sql.dao.BaseRowMapper.dateFromJavaTime;
@@ -21,6 +23,7 @@ import static edu.uwm.capstone.sql.dao.BaseRowMapper.javaTimeFromDate;
 import static edu.uwm.capstone.util.TestDataUtility.randomLocalDateTime;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -124,4 +127,41 @@ public class UserDaoRowMapperComponentTest {
         assertEquals(user.getCreatedDate(), verifyUser.getCreatedDate());
         assertEquals(user.getUpdatedDate(), verifyUser.getUpdatedDate());
     }
+
+    /**
+     * Verify that {@link UserDaoRowMapper#mapCredentialsRow} is working correctly.
+     */
+    @Test
+    public void mapCredentialsRow() throws SQLException {
+        // generate a user object with test values
+        User user = TestDataUtility.userWithTestValues();
+        assertNotNull(user);
+        user.setId(TestDataUtility.randomLong());
+        user.setAuthorities(EnumSet.of(Authorities.CREATE_FORM, Authorities.READ_ALL_USERS, Authorities.DELETE_ROLE));
+
+        // define the behavior of the resultSet that is being mocked
+        when(resultSet.getLong(BaseRowMapper.BaseColumnType.ID.getColumnName())).thenReturn(user.getId());
+        when(resultSet.getString(UserDaoRowMapper.UserColumnType.EMAIL.getColumnName())).thenReturn(user.getEmail());
+        when(resultSet.getString(UserDaoRowMapper.UserColumnType.PASSWORD.getColumnName())).thenReturn(user.getPassword());
+        when(resultSet.getBoolean(UserDaoRowMapper.UserColumnType.ENABLED.getColumnName())).thenReturn(user.getEnabled());
+        when(resultSet.getBoolean(UserDaoRowMapper.UserColumnType.IS_ACCOUNT_NON_EXPIRED.getColumnName())).thenReturn(user.isAccountNonExpired());
+        when(resultSet.getBoolean(UserDaoRowMapper.UserColumnType.IS_ACCOUNT_NON_LOCKED.getColumnName())).thenReturn(user.isAccountNonLocked());
+        when(resultSet.getBoolean(UserDaoRowMapper.UserColumnType.IS_CREDENTIALS_NON_EXPIRED.getColumnName())).thenReturn(user.isCredentialsNonExpired());
+        when(resultSet.getLong(UserDaoRowMapper.UserColumnType.AUTHORITIES.getColumnName())).thenReturn(Authorities.toMask(user.getAuthorities()));
+
+        // exercise the mapCredentialsRow functionality and verify the expected results
+        User verifyUser = userDaoRowMapper.mapCredentialsRow(resultSet, 0);
+        assertNotNull(verifyUser);
+
+        assertEquals(user.getId(), verifyUser.getId());
+        assertEquals(user.getEmail(), verifyUser.getEmail());
+        assertEquals(user.getPassword(), verifyUser.getPassword());
+        assertEquals(user.getEnabled(), verifyUser.getEnabled());
+        assertEquals(user.isAccountNonExpired(), verifyUser.isAccountNonExpired());
+        assertEquals(user.isAccountNonLocked(), verifyUser.isAccountNonLocked());
+        assertEquals(user.isCredentialsNonExpired(), verifyUser.isCredentialsNonExpired());
+        assertEquals(user.getAuthorities(), verifyUser.getAuthorities());
+        assertNull(verifyUser.getFirstName());
+        assertNull(verifyUser.getPantherId());
+    }
 }
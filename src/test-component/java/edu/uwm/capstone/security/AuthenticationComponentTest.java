@@ -2,13 +2,14 @@ package edu.uwm.capstone.security;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import edu.uwm.capstone.Application;
 import edu.uwm.capstone.db.RoleDao;
 import edu.uwm.capstone.db.UserDao;
 import edu.uwm.capstone.helper.DefaultEntities;
 import edu.uwm.capstone.model.Role;
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.service.UserService;
 import io.restassured.RestAssured;
 import io.restassured.response.ExtractableResponse;
 import io.restassured.response.Response;
@@ -21,12 +22,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static edu.uwm.capstone.security.SecurityConstants.*;
@@ -55,6 +57,9 @@ public class AuthenticationComponentTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserService userService;
+
     private List<User> usersToCleanup = new ArrayList<>();
 
     private List<Role> rolesToCleanup = new ArrayList<>();
@@ -81,10 +86,15 @@ public class AuthenticationComponentTest {
         User user = DefaultEntities.getDefaultUser();
         String credentials = "{ \"email\" : \"" + user.getEmail() + "\", \"password\" : \"" + user.getPassword() + "\" }";
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        roleDao.create(role);
-        userDao.create(user);
-        rolesToCleanup.add(role);
-        usersToCleanup.add(user);
+        // the default entities already exist if the application has been started against this database
+        if (roleDao.readByName(role.getName()) == null) {
+            roleDao.create(role);
+            rolesToCleanup.add(role);
+        }
+        if (userDao.readByEmail(user.getEmail()) == null) {
+            userDao.create(user);
+            usersToCleanup.add(user);
+        }
 
         // exercise authentication endpoint
         ExtractableResponse<Response> response = given()
@@ -98,27 +108,13 @@ public class AuthenticationComponentTest {
         String token = response.header("Authorization").replaceFirst("Bearer ", "").trim();
         assertNotNull(token);
 
-        String userJSON = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
+        DecodedJWT jwt = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
                 .build()
-                .verify(token.replace(TOKEN_PREFIX, ""))
-                .getSubject();
-
-        assertNotNull(userJSON);
-
-        try {
-            User userSubject = new ObjectMapper().readValue(userJSON, User.class);
-
-            assertEquals(user.getFirstName(), userSubject.getFirstName());
-            assertEquals(user.getLastName(), userSubject.getLastName());
-            assertEquals(user.getEmail(), userSubject.getEmail());
-            assertEquals(user.getPantherId(), userSubject.getPantherId());
-            assertEquals(user.getRoleNames(), userSubject.getRoleNames());
-            assertEquals(role.getAuthorities(), userSubject.getAuthorities());
+                .verify(token.replace(TOKEN_PREFIX, ""));
 
-        } catch (IOException e) {
-            fail("Mapping JWT subject to User class failed");
-            e.getStackTrace();
-        }
+        assertEquals(String.valueOf(userDao.readByEmail(user.getEmail()).getId()), jwt.getSubject());
+        assertEquals(user.getEmail(), jwt.getClaim(EMAIL_CLAIM).asString());
+        assertEquals(role.getAuthorities(), Authorities.fromMask(jwt.getClaim(AUTHORITIES_CLAIM).asLong()));
     }
 
     @Test
@@ -141,27 +137,141 @@ public class AuthenticationComponentTest {
         String token = response.header("Authorization").replaceFirst("Bearer ", "").trim();
         assertNotNull(token);
 
-        String userJSON = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
+        DecodedJWT jwt = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
                 .build()
-                .verify(token.replace(TOKEN_PREFIX, ""))
-                .getSubject();
+                .verify(token.replace(TOKEN_PREFIX, ""));
 
-        assertNotNull(userJSON);
+        assertEquals(String.valueOf(userDao.readByEmail(user.getEmail()).getId()), jwt.getSubject());
+        assertEquals(user.getEmail(), jwt.getClaim(EMAIL_CLAIM).asString());
+        assertEquals(Collections.emptySet(), Authorities.fromMask(jwt.getClaim(AUTHORITIES_CLAIM).asLong()));
+    }
 
-        try {
-            User userSubject = new ObjectMapper().readValue(userJSON, User.class);
+    @Test
+    public void outdatedPasswordHashIsUpgradedOnLogin() {
+        User user = userWithTestValues();
+        String password = user.getPassword();
+        String credentials = "{ \"email\" : \"" + user.getEmail() + "\", \"password\" : \"" + password + "\" }";
+        user.setPassword(new BCryptPasswordEncoder(4).encode(password));
+        userDao.create(user);
+        usersToCleanup.add(user);
+        assertTrue(passwordEncoder.upgradeEncoding(user.getPassword()));
 
-            assertEquals(user.getFirstName(), userSubject.getFirstName());
-            assertEquals(user.getLastName(), userSubject.getLastName());
-            assertEquals(user.getEmail(), userSubject.getEmail());
-            assertEquals(user.getPantherId(), userSubject.getPantherId());
-            assertTrue(userSubject.getRoleNames().isEmpty());
-            assertTrue(userSubject.getAuthorities().isEmpty());
+        given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .body(credentials)
+                .when()
+                .post(AUTHENTICATE_URL)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value());
 
-        } catch (IOException e) {
-            fail("Mapping JWT subject to User class failed");
-            e.getStackTrace();
+        String upgradedHash = userDao.read(user.getId()).getPassword();
+        assertFalse(passwordEncoder.upgradeEncoding(upgradedHash));
+        assertTrue(passwordEncoder.matches(password, upgradedHash));
+    }
+
+    @Test
+    public void repeatedlyFailingEmailIsThrottled() {
+        User user = userWithTestValues();
+        String password = user.getPassword();
+        user.setPassword(passwordEncoder.encode(password));
+        userDao.create(user);
+        usersToCleanup.add(user);
+        String wrongCredentials = "{ \"email\" : \"" + user.getEmail() + "\", \"password\" : \"wrong\" }";
+        String credentials = "{ \"email\" : \"" + user.getEmail() + "\", \"password\" : \"" + password + "\" }";
+
+        for (int i = 0; i < LoginThrottle.DEFAULT_FREE_FAILURES_PER_EMAIL; i++) {
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                    .body(wrongCredentials)
+                    .when()
+                    .post(AUTHENTICATE_URL)
+                    .then().log().ifValidationFails()
+                    .statusCode(HttpStatus.FORBIDDEN.value());
         }
+        given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .body(wrongCredentials)
+                .when()
+                .post(AUTHENTICATE_URL);
+
+        // even the right password is rejected until the delay has passed
+        ExtractableResponse<Response> response = given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .body(credentials)
+                .when()
+                .post(AUTHENTICATE_URL)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value()).extract();
+
+        assertNull(response.header("Authorization"));
+        assertNotNull(response.header("Retry-After"));
+    }
+
+    @Test
+    public void addressIsThrottledByForwardedClientAddress() {
+        // requests from this test come from the loopback address, which is a trusted proxy
+        for (int i = 0; i <= LoginThrottle.DEFAULT_FREE_FAILURES_PER_ADDRESS; i++) {
+            given()
+                    .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                    .header("X-Forwarded-For", "203.0.113.7")
+                    .body("{ \"email\" : \"" + userWithTestValues().getEmail() + "\", \"password\" : \"wrong\" }")
+                    .when()
+                    .post(AUTHENTICATE_URL);
+        }
+        String wrongCredentials = "{ \"email\" : \"" + userWithTestValues().getEmail() + "\", \"password\" : \"wrong\" }";
+
+        given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("X-Forwarded-For", "203.0.113.7")
+                .body(wrongCredentials)
+                .when()
+                .post(AUTHENTICATE_URL)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        // other clients behind the same proxy are not throttled
+        given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .header("X-Forwarded-For", "203.0.113.8")
+                .body(wrongCredentials)
+                .when()
+                .post(AUTHENTICATE_URL)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    public void tokenOfDisabledUserIsRejected() {
+        User user = userWithTestValues();
+        String credentials = "{ \"email\" : \"" + user.getEmail() + "\", \"password\" : \"" + user.getPassword() + "\" }";
+        userService.create(user);
+        usersToCleanup.add(user);
+
+        String token = given()
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .body(credentials)
+                .when()
+                .post(AUTHENTICATE_URL)
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value()).extract().header(HEADER_STRING);
+
+        given()
+                .header(HEADER_STRING, token)
+                .when()
+                .get("/user/" + user.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.OK.value());
+
+        User disabled = userService.read(user.getId());
+        disabled.setEnabled(false);
+        userService.update(disabled);
+
+        given()
+                .header(HEADER_STRING, token)
+                .when()
+                .get("/user/" + user.getId())
+                .then().log().ifValidationFails()
+                .statusCode(HttpStatus.FORBIDDEN.value());
     }
 
     @Test
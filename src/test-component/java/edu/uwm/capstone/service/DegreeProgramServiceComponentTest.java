@@ -150,6 +150,51 @@ public class DegreeProgramServiceComponentTest {
         assertNotEquals(verifyUpdateDegreeProgram, verifyCreateDegreeProgram);
     }
 
+    /**
+     * Verify that {@link DegreeProgramService#create(DegreeProgram)} rejects a name that is already taken.
+     */
+    @Test
+    public void createDuplicateName() {
+        DegreeProgram createDegreeProgram = TestDataUtility.degreeProgramWithTestValues(TestDataUtility.randomInt(1, 10));
+        degreeProgramsToCleanUp.add(createDegreeProgram);
+        degreeProgramService.create(createDegreeProgram);
+
+        DegreeProgram duplicate = TestDataUtility.degreeProgramWithTestValues(TestDataUtility.randomInt(1, 10));
+        duplicate.setName(createDegreeProgram.getName());
+        try {
+            degreeProgramService.create(duplicate);
+            fail("Expected duplicate degree program name to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Degree program names must be unique.", e.getMessage());
+        }
+        assertNull(duplicate.getId());
+    }
+
+    /**
+     * Verify that {@link DegreeProgramService#update(DegreeProgram)} rejects renaming a degree program to a name that
+     * is already taken and leaves it unchanged.
+     */
+    @Test
+    public void updateDuplicateName() {
+        DegreeProgram first = TestDataUtility.degreeProgramWithTestValues(TestDataUtility.randomInt(1, 10));
+        degreeProgramsToCleanUp.add(first);
+        degreeProgramService.create(first);
+
+        DegreeProgram second = TestDataUtility.degreeProgramWithTestValues(TestDataUtility.randomInt(1, 10));
+        degreeProgramsToCleanUp.add(second);
+        degreeProgramService.create(second);
+
+        DegreeProgram rename = degreeProgramService.read(second.getId());
+        rename.setName(first.getName());
+        try {
+            degreeProgramService.update(rename);
+            fail("Expected duplicate degree program name to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Degree program names must be unique.", e.getMessage());
+        }
+        assertEquals(second.getName(), degreeProgramService.read(second.getId()).getName());
+    }
+
     /**
      * Verify that {@link DegreeProgramService#update(DegreeProgram)} is working correctly when a request for creating a null object is made.
      */
@@ -1,8 +1,10 @@
 package edu.uwm.capstone.service;
 
 import edu.uwm.capstone.Application;
+import edu.uwm.capstone.db.FormDefinitionDao;
 import edu.uwm.capstone.model.FieldDefinition;
 import edu.uwm.capstone.model.FormDefinition;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.After;
@@ -12,21 +14,42 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = Application.class)
+// the background pollers would add their statements to the counts of QueryCounter
+@TestPropertySource(properties = {"service.cache-invalidation-enabled=false", "service.token-revocation-refresh-enabled=false"})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
 public class FormDefinitionServiceComponentTest {
     @Autowired
     private FormDefinitionService formDefinitionService;
 
+    @Autowired
+    private FormDefinitionDao formDefinitionDao;
+
+    @Autowired
+    private SingleFlights singleFlights;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private List<FormDefinition> formDefinitionToCleanup = new ArrayList<>();
 
     @Before
@@ -161,6 +184,26 @@ public class FormDefinitionServiceComponentTest {
         assertNotEquals(verifyUpdateFormDef, verifyCreateFormDef);
     }
 
+    /**
+     * Verify that {@link FormDefinitionService#update} serves the stored {@link FormDefinition} from the cache, probes
+     * for forms using it with one query, and then updates it, reads the ids of its field definitions and records the
+     * write. The field definitions are updated in one batch, which H2 counts as one statement per row.
+     */
+    @Test
+    public void updateQueryCount() {
+        FormDefinition createFormDef = TestDataUtility.formDefWithTestValues();
+        formDefinitionToCleanup.add(createFormDef);
+        formDefinitionService.create(createFormDef);
+
+        FormDefinition updateFormDef = formDefinitionService.read(createFormDef.getId());
+        updateFormDef.setName(RandomStringUtils.randomAlphabetic(10));
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        long transaction = queryCounter.countTransaction(transactionManager);
+
+        assertEquals(transaction + 4 + updateFormDef.getFieldDefs().size(),
+                queryCounter.count(() -> formDefinitionService.update(updateFormDef)));
+    }
+
     /**
      * Verify that {@link FormDefinitionService#update} is working correctly when a request for creating a null object is made.
      */
@@ -259,4 +302,38 @@ public class FormDefinitionServiceComponentTest {
         formDefinitionService.delete(id);
         assertNull(formDefinitionService.readAll());
     }
+
+    /**
+     * Verify that concurrent calls of {@link FormDefinitionService#read} each receive their own copy of the
+     * {@link FormDefinition} and are all counted by its {@link SingleFlight}.
+     */
+    @Test
+    public void readConcurrently() throws Exception {
+        FormDefinition createFormDef = TestDataUtility.formDefWithTestValues();
+        formDefinitionToCleanup.add(createFormDef);
+        formDefinitionService.create(createFormDef);
+        formDefinitionDao.getCache().invalidateAll();
+
+        SingleFlight<Long, FormDefinition> reads = singleFlights.forMethod("formDefinition.read", FormDefinitionDao::copyOf);
+        assertTrue(reads.isEnabled());
+        long calls = reads.loadedCount() + reads.coalescedCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<FormDefinition>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> formDefinitionService.read(createFormDef.getId())));
+            }
+            List<FormDefinition> formDefs = new ArrayList<>();
+            for (Future<FormDefinition> result : results) {
+                formDefs.add(result.get(10, TimeUnit.SECONDS));
+            }
+            formDefs.forEach(formDef -> assertEquals(createFormDef, formDef));
+            assertEquals(formDefs.size(), formDefs.stream().map(System::identityHashCode).distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(calls + 8, reads.loadedCount() + reads.coalescedCount());
+        assertEquals(0, reads.inFlightCount());
+    }
 }
@@ -4,6 +4,8 @@ import edu.uwm.capstone.Application;
 import edu.uwm.capstone.db.FormDefinitionDao;
 import edu.uwm.capstone.db.UserDao;
 import edu.uwm.capstone.model.*;
+import edu.uwm.capstone.service.exception.EntityNotFoundException;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.junit.After;
 import org.junit.Before;
@@ -12,8 +14,11 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -23,6 +28,8 @@ import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = Application.class)
+// the background pollers would add their statements to the counts of QueryCounter
+@TestPropertySource(properties = {"service.cache-invalidation-enabled=false", "service.token-revocation-refresh-enabled=false"})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
 public class FormServiceComponentTest {
     @Autowired
@@ -34,6 +41,12 @@ public class FormServiceComponentTest {
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private List<Form> formsToCleanup = new ArrayList<>();
     private List<FormDefinition> formDefsToCleanup = new ArrayList<>();
     private List<User> usersToCleanup = new ArrayList<>();
@@ -537,6 +550,93 @@ public class FormServiceComponentTest {
         formService.delete(id);
     }
 
-    // TODO test form approval
+    /**
+     * Verify that {@link FormService#approve} sets the approval of a {@link Form}.
+     */
+    @Test
+    public void approve() {
+        Form createForm = createForm();
+
+        assertTrue(formService.approve(createForm.getId(), true).getApproved());
+        assertTrue(formService.read(createForm.getId()).getApproved());
+        assertFalse(formService.approve(createForm.getId(), false).getApproved());
+        assertFalse(formService.read(createForm.getId()).getApproved());
+    }
+
+    /**
+     * Verify that {@link FormService#approve} is working correctly when a request for a non-existent {@link Form #id} is made.
+     */
+    @Test(expected = EntityNotFoundException.class)
+    public void approveNonExistentForm() {
+        formService.approve(TestDataUtility.randomLong(), true);
+    }
+
+    /**
+     * Verify that {@link FormService#approve} changes the approval with one update and reads the {@link Form} and its
+     * fields only for the response, and that an unknown form is rejected after the update alone.
+     */
+    @Test
+    public void approveQueryCount() {
+        Form createForm = createForm();
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        long transaction = queryCounter.countTransaction(transactionManager);
+
+        assertEquals(transaction + 3, queryCounter.count(() -> formService.approve(createForm.getId(), true)));
+        assertEquals(transaction + 1, queryCounter.count(() -> {
+            try {
+                formService.approve(TestDataUtility.randomLong(), true);
+                fail("Expected an EntityNotFoundException");
+            } catch (EntityNotFoundException e) {
+                // expected
+            }
+        }));
+    }
+
+    /**
+     * Verify that {@link FormService#delete} probes for the {@link Form} and then deletes its fields and the form.
+     */
+    @Test
+    public void deleteQueryCount() {
+        Form createForm = createForm();
+        formsToCleanup.remove(createForm);
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        long transaction = queryCounter.countTransaction(transactionManager);
+
+        assertEquals(transaction + 3, queryCounter.count(() -> formService.delete(createForm.getId())));
+    }
+
+    /**
+     * Verify that the validation of a new {@link Form} reads its cached {@link FormDefinition} and probes for its
+     * user with one query, however many fields the form has.
+     */
+    @Test
+    public void checkValidFormQueryCount() {
+        FormDefinition formDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(formDef);
+        formDefinitionDao.read(formDef.getId());
+        Form form = TestDataUtility.formWithTestValues(formDef, TestDataUtility.randomLong());
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        long transaction = queryCounter.countTransaction(transactionManager);
+
+        assertEquals(transaction + 1, queryCounter.count(() -> {
+            try {
+                formService.create(form);
+                fail("Expected an IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // the user does not exist
+            }
+        }));
+    }
+
+    private Form createForm() {
+        FormDefinition createFormDef = formDefinitionDao.create(TestDataUtility.formDefWithTestValues());
+        formDefsToCleanup.add(createFormDef);
+
+        User user = userDao.create(TestDataUtility.userWithTestValues());
+        usersToCleanup.add(user);
 
+        Form createForm = formService.create(TestDataUtility.formWithTestValues(createFormDef, user.getId()));
+        formsToCleanup.add(createForm);
+        return createForm;
+    }
 }
@@ -19,6 +19,7 @@ import java.util.List;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = Application.class)
@@ -92,6 +93,25 @@ public class RoleServiceComponentTest {
         roleService.create(createRole);
     }
 
+    /**
+     * Verify that {@link RoleService#create} rejects a name that is already taken.
+     */
+    @Test
+    public void createDuplicateName() {
+        Role createRole = TestDataUtility.roleWithTestValues();
+        roleService.create(createRole);
+        rolesToCleanup.add(createRole);
+
+        Role duplicate = TestDataUtility.roleWithTestValues();
+        duplicate.setName(createRole.getName());
+        try {
+            roleService.create(duplicate);
+            fail("Expected duplicate role name to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Role already exists with the name " + createRole.getName(), e.getMessage());
+        }
+    }
+
     /**
      * Verify that {@link RoleService#create} is working correctly when a request for a {@link Role} that contains a value
      * which exceeds the database configuration is made.
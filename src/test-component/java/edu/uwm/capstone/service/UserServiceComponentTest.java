@@ -2,9 +2,12 @@ package edu.uwm.capstone.service;
 
 import edu.uwm.capstone.Application;
 import edu.uwm.capstone.db.DegreeProgramDao;
+import edu.uwm.capstone.db.RoleDao;
 import edu.uwm.capstone.db.UserDao;
 import edu.uwm.capstone.model.DegreeProgram;
+import edu.uwm.capstone.model.Role;
 import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.util.QueryCounter;
 import edu.uwm.capstone.util.TestDataUtility;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.After;
@@ -13,16 +16,24 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.sql.DataSource;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = Application.class)
+// the background pollers would add their statements to the counts of QueryCounter
+@TestPropertySource(properties = {"service.cache-invalidation-enabled=false", "service.token-revocation-refresh-enabled=false"})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
 public class UserServiceComponentTest {
 
@@ -32,8 +43,21 @@ public class UserServiceComponentTest {
     @Autowired
     DegreeProgramDao degreeProgramDao;
 
+    @Autowired
+    private RoleDao roleDao;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private List<User> usersToCleanup = new ArrayList<>();
     private List<DegreeProgram> degreeProgramsToCleanup = new ArrayList<>();
+    private List<Role> rolesToCleanup = new ArrayList<>();
 
     @Before
     public void setUp() {
@@ -46,6 +70,8 @@ public class UserServiceComponentTest {
         usersToCleanup.clear();
         degreeProgramsToCleanup.forEach(dp -> degreeProgramDao.delete(dp.getId()));
         degreeProgramsToCleanup.clear();
+        rolesToCleanup.forEach(role -> roleDao.delete(role.getId()));
+        rolesToCleanup.clear();
     }
 
     /**
@@ -259,6 +285,96 @@ public class UserServiceComponentTest {
         assertNotEquals(verifyCreateUser.getEmail(), verifyUpdateUser.getEmail());
     }
 
+    /**
+     * Verify that {@link UserService#update} keeps the stored hash when it is sent back unchanged and hashes a new
+     * password.
+     */
+    @Test
+    public void updateOnlyHashesChangedPassword() {
+        User createUser = TestDataUtility.userWithTestValues();
+        usersToCleanup.add(createUser);
+        userService.create(createUser);
+        String storedHash = userService.read(createUser.getId()).getPassword();
+
+        User updateUser = userService.read(createUser.getId());
+        updateUser.setFirstName(TestDataUtility.randomAlphabetic(10));
+        userService.update(updateUser);
+        assertEquals(storedHash, userService.read(createUser.getId()).getPassword());
+
+        updateUser = userService.read(createUser.getId());
+        String newPassword = TestDataUtility.randomAlphanumeric(20);
+        updateUser.setPassword(newPassword);
+        userService.update(updateUser);
+        String newHash = userService.read(createUser.getId()).getPassword();
+        assertNotEquals(storedHash, newHash);
+        assertTrue(passwordEncoder.matches(newPassword, newHash));
+    }
+
+    /**
+     * Verify that the validation of a {@link User} counts its roles with one query, however many roles it has, and
+     * that a taken email is then found with one more query.
+     */
+    @Test
+    public void checkValidUserQueryCount() {
+        User existingUser = TestDataUtility.userWithTestValues();
+        usersToCleanup.add(existingUser);
+        userService.create(existingUser);
+
+        Role firstRole = roleDao.create(TestDataUtility.roleWithTestValues());
+        rolesToCleanup.add(firstRole);
+        Role secondRole = roleDao.create(TestDataUtility.roleWithTestValues());
+        rolesToCleanup.add(secondRole);
+
+        User duplicateEmail = TestDataUtility.userWithTestValues();
+        duplicateEmail.setEmail(existingUser.getEmail());
+        duplicateEmail.setRoleNames(new HashSet<>(Arrays.asList(firstRole.getName(), secondRole.getName())));
+        QueryCounter queryCounter = new QueryCounter(dataSource);
+        long transaction = queryCounter.countTransaction(transactionManager);
+
+        assertEquals(transaction + 2, queryCounter.count(() -> {
+            try {
+                userService.create(duplicateEmail);
+                fail("Expected an IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // the email is taken
+            }
+        }));
+    }
+
+    /**
+     * Verify that {@link UserService#create} and {@link UserService#update} reject a taken email or panther id before
+     * hashing the password.
+     */
+    @Test
+    public void duplicateUserIsRejectedBeforeHashing() {
+        User existingUser = TestDataUtility.userWithTestValues();
+        usersToCleanup.add(existingUser);
+        userService.create(existingUser);
+
+        User duplicateEmail = TestDataUtility.userWithTestValues();
+        duplicateEmail.setEmail(existingUser.getEmail());
+        String password = duplicateEmail.getPassword();
+        try {
+            userService.create(duplicateEmail);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(password, duplicateEmail.getPassword());
+        }
+
+        User updateUser = TestDataUtility.userWithTestValues();
+        usersToCleanup.add(updateUser);
+        userService.create(updateUser);
+        updateUser = userService.read(updateUser.getId());
+        updateUser.setPantherId(existingUser.getPantherId());
+        updateUser.setPassword(password);
+        try {
+            userService.update(updateUser);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals(password, updateUser.getPassword());
+        }
+    }
+
     /**
      * Verify that {@link UserDao#updateState} is working correctly.
      */
@@ -1,9 +1,11 @@
 package edu.uwm.capstone;
 
+import edu.uwm.capstone.security.BoundedPasswordEncoder;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class ApplicationConfigUnitTest {
 
@@ -19,4 +21,14 @@ public class ApplicationConfigUnitTest {
         assertNotNull(applicationConfig.restTemplate());
     }
 
+    @Test
+    public void passwordEncoder() {
+        BoundedPasswordEncoder passwordEncoder = applicationConfig.passwordEncoder();
+        try {
+            assertTrue(passwordEncoder.matches("password", passwordEncoder.encode("password")));
+        } finally {
+            passwordEncoder.shutdown();
+        }
+    }
+
 }
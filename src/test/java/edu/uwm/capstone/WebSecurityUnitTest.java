@@ -14,11 +14,6 @@ public class WebSecurityUnitTest {
         webSecurity = new WebSecurity();
     }
 
-    @Test
-    public void passwordEncoder() {
-        assertNotNull(webSecurity.passwordEncoder());
-    }
-
     @Test
     public void userDetailsService() {
         assertNotNull(webSecurity.userDetailsService());
@@ -0,0 +1,185 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.CacheVersion;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class CacheInvalidationPollerUnitTest {
+
+    /**
+     * Holds the committed versions in memory.
+     */
+    private static class InMemoryCacheVersionDao extends CacheVersionDao {
+        private final List<CacheVersion> versions = new ArrayList<>();
+        private boolean failing;
+        private int pruned;
+
+        void commit(long version, CacheVersion.EntityType entityType, Long entityId) {
+            CacheVersion cacheVersion = CacheVersion.builder().entityType(entityType).entityId(entityId).build();
+            cacheVersion.setId(version);
+            versions.add(cacheVersion);
+            versions.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        }
+
+        private void check() {
+            if (failing) throw new DataAccessResourceFailureException("database is down");
+        }
+
+        @Override
+        public long readLatestVersion() {
+            check();
+            return versions.stream().mapToLong(CacheVersion::getId).max().orElse(0);
+        }
+
+        @Override
+        public List<CacheVersion> readAfter(long afterVersion, int limit) {
+            check();
+            return versions.stream().filter(v -> v.getId() > afterVersion).limit(limit).collect(Collectors.toList());
+        }
+
+        @Override
+        public List<CacheVersion> readByIds(Collection<Long> ids) {
+            check();
+            return versions.stream().filter(v -> ids.contains(v.getId())).collect(Collectors.toList());
+        }
+
+        @Override
+        public int deleteCreatedBefore(LocalDateTime before) {
+            return ++pruned;
+        }
+    }
+
+    private InMemoryCacheVersionDao cacheVersionDao;
+    private AtomicLong now;
+    private CacheInvalidationPoller poller;
+    private List<Long> evictedUsers;
+    private List<Long> evictedRoles;
+
+    @Before
+    public void setUp() {
+        cacheVersionDao = new InMemoryCacheVersionDao();
+        now = new AtomicLong(1000);
+        poller = new CacheInvalidationPoller(cacheVersionDao, 1000, now::get);
+        evictedUsers = new ArrayList<>();
+        evictedRoles = new ArrayList<>();
+        poller.register(CacheVersion.EntityType.USER, evictedUsers::add);
+        poller.register(CacheVersion.EntityType.ROLE, evictedRoles::add);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stalenessBoundMustBePositive() {
+        new CacheInvalidationPoller(cacheVersionDao, 0);
+    }
+
+    @Test
+    public void firstPollStartsAtTheLatestVersionAndEvictsEverything() {
+        cacheVersionDao.commit(1, CacheVersion.EntityType.USER, 5L);
+        poller.poll();
+
+        assertEquals(1, poller.getLastVersion());
+        assertEquals(Collections.singletonList(null), evictedUsers);
+        assertEquals(Collections.singletonList(null), evictedRoles);
+    }
+
+    @Test
+    public void pollEvictsWrittenEntities() {
+        poller.poll();
+        evictedUsers.clear();
+        evictedRoles.clear();
+
+        cacheVersionDao.commit(1, CacheVersion.EntityType.USER, 5L);
+        cacheVersionDao.commit(2, CacheVersion.EntityType.ROLE, null);
+        cacheVersionDao.commit(3, CacheVersion.EntityType.USER, 6L);
+        poller.poll();
+
+        assertEquals(Arrays.asList(5L, 6L), evictedUsers);
+        assertEquals(Collections.singletonList(null), evictedRoles);
+        assertEquals(3, poller.getLastVersion());
+
+        poller.poll();
+        assertEquals(2, evictedUsers.size());
+    }
+
+    @Test
+    public void skippedVersionIsEvictedWhenItsTransactionCommits() {
+        poller.poll();
+        evictedUsers.clear();
+
+        cacheVersionDao.commit(2, CacheVersion.EntityType.USER, 6L);
+        poller.poll();
+        assertEquals(Collections.singletonList(6L), evictedUsers);
+        assertEquals(Collections.singleton(1L), poller.gaps().keySet());
+
+        cacheVersionDao.commit(1, CacheVersion.EntityType.USER, 5L);
+        poller.poll();
+        assertEquals(Arrays.asList(6L, 5L), evictedUsers);
+        assertTrue(poller.gaps().isEmpty());
+    }
+
+    @Test
+    public void skippedVersionOfRolledBackTransactionExpires() {
+        poller.poll();
+        cacheVersionDao.commit(2, CacheVersion.EntityType.USER, 6L);
+        poller.poll();
+        assertFalse(poller.gaps().isEmpty());
+
+        now.addAndGet(CacheInvalidationPoller.GAP_TIMEOUT_MILLIS + 1);
+        poller.poll();
+        assertTrue(poller.gaps().isEmpty());
+    }
+
+    @Test
+    public void tooManySkippedVersionsEvictEverything() {
+        poller.poll();
+        evictedUsers.clear();
+
+        cacheVersionDao.commit(CacheInvalidationPoller.MAX_GAPS + 2, CacheVersion.EntityType.USER, 6L);
+        poller.poll();
+        assertEquals(Arrays.asList(null, 6L), evictedUsers);
+        assertTrue(poller.gaps().isEmpty());
+    }
+
+    @Test
+    public void failedPollsEvictEverythingOnceTheStalenessBoundPasses() {
+        poller.poll();
+        evictedUsers.clear();
+        cacheVersionDao.failing = true;
+
+        now.addAndGet(500);
+        poller.pollOrEvictAll();
+        assertTrue(evictedUsers.isEmpty());
+
+        now.addAndGet(600);
+        poller.pollOrEvictAll();
+        assertEquals(Collections.singletonList(null), evictedUsers);
+
+        cacheVersionDao.failing = false;
+        poller.pollOrEvictAll();
+        now.addAndGet(600);
+        poller.pollOrEvictAll();
+        assertEquals(1, evictedUsers.size());
+    }
+
+    @Test
+    public void oldVersionsArePruned() {
+        poller.poll();
+        poller.poll();
+        assertEquals(0, cacheVersionDao.pruned);
+
+        now.addAndGet(CacheInvalidationPoller.PRUNE_INTERVAL_MILLIS);
+        poller.poll();
+        assertEquals(1, cacheVersionDao.pruned);
+    }
+}
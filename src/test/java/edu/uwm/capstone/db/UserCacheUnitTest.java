@@ -0,0 +1,173 @@
+package edu.uwm.capstone.db;
+
+import edu.uwm.capstone.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class UserCacheUnitTest {
+
+    private UserCache cache;
+    private AtomicInteger loads;
+    private User stored;
+
+    @Before
+    public void setUp() {
+        cache = new UserCache(2, 60);
+        loads = new AtomicInteger();
+        stored = user(1L, "user1@uwm.edu", "000000001");
+    }
+
+    @After
+    public void teardown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // the caches bind their writing transactions to their TransactionalInvalidation
+        new ArrayList<>(TransactionSynchronizationManager.getResourceMap().keySet())
+                .forEach(TransactionSynchronizationManager::unbindResourceIfPossible);
+    }
+
+    private static User user(Long id, String email, String pantherId) {
+        User user = User.builder().email(email).pantherId(pantherId).build();
+        user.setId(id);
+        return user;
+    }
+
+    private UserCache.Entry load(Object key) {
+        loads.incrementAndGet();
+        if (stored == null) return null;
+        boolean found = key.equals(stored.getId()) || key.equals(stored.getEmail()) || key.equals(stored.getPantherId());
+        return found ? new UserCache.Entry(stored, Collections.singletonList(1L)) : null;
+    }
+
+    @Test
+    public void everyKeySharesOneEntry() {
+        UserCache.Entry entry = cache.getById(1L, this::load);
+        assertSame(entry, cache.getByEmail("user1@uwm.edu", this::load));
+        assertSame(entry, cache.getByPantherId("000000001", this::load));
+        assertSame(entry, cache.getById(1L, this::load));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void invalidateRemovesEveryKey() {
+        cache.getByEmail("user1@uwm.edu", this::load);
+        cache.invalidate(1L, null, null);
+
+        cache.getByPantherId("000000001", this::load);
+        assertEquals(2, loads.get());
+        cache.getById(1L, this::load);
+        cache.getByEmail("user1@uwm.edu", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void staleAliasIsNotServed() {
+        cache.getById(1L, this::load);
+        stored = user(1L, "changed@uwm.edu", "000000001");
+        cache.invalidate(1L, "changed@uwm.edu", "000000001");
+        cache.getById(1L, this::load);
+
+        assertNull(cache.getByEmail("user1@uwm.edu", this::load));
+        assertEquals("changed@uwm.edu", cache.getByEmail("changed@uwm.edu", this::load).getUser().getEmail());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void evictionRemovesAliases() {
+        cache.getById(1L, this::load);
+        cache.getById(2L, id -> new UserCache.Entry(user(2L, "user2@uwm.edu", "000000002"), Collections.emptyList()));
+        cache.getById(3L, id -> new UserCache.Entry(user(3L, "user3@uwm.edu", "000000003"), Collections.emptyList()));
+
+        assertEquals(2, cache.size());
+        assertEquals("user3@uwm.edu", cache.getByEmail("user3@uwm.edu", this::load).getUser().getEmail());
+        assertEquals(1, loads.get());
+        cache.getByEmail("user1@uwm.edu", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void missesAreRememberedUntilTheKeyIsWritten() {
+        stored = null;
+        assertNull(cache.getByEmail("user1@uwm.edu", this::load));
+        assertNull(cache.getByEmail("user1@uwm.edu", this::load));
+        assertEquals(1, loads.get());
+
+        stored = user(1L, "user1@uwm.edu", "000000001");
+        cache.invalidate(1L, "user1@uwm.edu", "000000001");
+        assertNotNull(cache.getByEmail("user1@uwm.edu", this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void missesExpire() {
+        cache = new UserCache(2, 0);
+        stored = null;
+        assertNull(cache.getById(1L, this::load));
+        assertNull(cache.getById(1L, this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getDropsEntryInvalidatedWhileLoading() {
+        cache.getById(1L, id -> {
+            cache.invalidate(1L, null, null);
+            return load(id);
+        });
+        cache.getById(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void transactionThatWroteUsersBypassesTheCache() {
+        cache.getById(1L, this::load);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(1L, null, null);
+        cache.getById(1L, this::load);
+        cache.getById(1L, this::load);
+        assertEquals(3, loads.get());
+        assertEquals(0, cache.size());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        cache.getById(1L, this::load);
+        cache.getById(1L, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.getById(1L, this::load);
+        cache.getByEmail("user1@uwm.edu", this::load);
+        cache.getByPantherId("000000001", this::load);
+        cache.getByPantherId("000000002", this::load);
+
+        assertEquals(1, lookups(registry, "id", "miss"), 0);
+        assertEquals(1, lookups(registry, "email", "hit"), 0);
+        assertEquals(1, lookups(registry, "panther_id", "hit"), 0);
+        assertEquals(1, lookups(registry, "panther_id", "miss"), 0);
+        assertEquals(0.5, registry.get("cache.hit.ratio").tag("cache", UserCache.CACHE_NAME).gauge().value(), 0);
+        assertEquals(2, registry.get("cache.load.duration").tag("cache", UserCache.CACHE_NAME).timer().count());
+    }
+
+    private static double lookups(SimpleMeterRegistry registry, String key, String result) {
+        return registry.get("cache.lookups").tag("cache", UserCache.CACHE_NAME).tag("key", key).tag("result", result)
+                .functionCounter().count();
+    }
+}
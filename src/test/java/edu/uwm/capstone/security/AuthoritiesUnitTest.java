@@ -0,0 +1,43 @@
+package edu.uwm.capstone.security;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class AuthoritiesUnitTest {
+
+    @Test
+    public void toMaskOfNoAuthorities() {
+        assertEquals(0, Authorities.toMask(null));
+        assertEquals(0, Authorities.toMask(EnumSet.noneOf(Authorities.class)));
+    }
+
+    @Test
+    public void fromMaskOfNoAuthorities() {
+        assertEquals(EnumSet.noneOf(Authorities.class), Authorities.fromMask(0));
+    }
+
+    @Test
+    public void fromMaskIgnoresUnknownBits() {
+        assertEquals(EnumSet.allOf(Authorities.class), Authorities.fromMask(-1L));
+    }
+
+    @Test
+    public void eachAuthorityIsTheBitOfItsOrdinal() {
+        for (Authorities authority : Authorities.values()) {
+            assertEquals(1L << authority.ordinal(), Authorities.toMask(EnumSet.of(authority)));
+            assertEquals(EnumSet.of(authority), Authorities.fromMask(1L << authority.ordinal()));
+        }
+    }
+
+    @Test
+    public void authoritiesRoundTripThroughMask() {
+        EnumSet<Authorities> authorities = EnumSet.noneOf(Authorities.class);
+        for (Authorities authority : Authorities.values()) {
+            authorities.add(authority);
+            assertEquals(authorities, Authorities.fromMask(Authorities.toMask(authorities)));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package edu.uwm.capstone.security;
+
+import edu.uwm.capstone.service.exception.ServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BoundedPasswordEncoderUnitTest {
+
+    private static final int STRENGTH = 5;
+
+    private BoundedPasswordEncoder encoder;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        encoder = new BoundedPasswordEncoder(STRENGTH, 2, 10);
+        callers = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void teardown() {
+        encoder.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void encodedPasswordMatches() {
+        String hash = encoder.encode("password");
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("other", hash));
+    }
+
+    @Test
+    public void poolIsSizedToTheProcessorsByDefault() {
+        BoundedPasswordEncoder defaultEncoder = new BoundedPasswordEncoder(STRENGTH, 0, 10);
+        try {
+            assertEquals(Runtime.getRuntime().availableProcessors(), defaultEncoder.poolSize());
+        } finally {
+            defaultEncoder.shutdown();
+        }
+        assertEquals(2, encoder.poolSize());
+    }
+
+    @Test
+    public void hashWithLowerCostIsUpgraded() {
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(STRENGTH).encode("password")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password")));
+        assertFalse(encoder.upgradeEncoding("not a bcrypt hash"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    public void callsBeyondTheQueueAreRejected() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder blocked = new BoundedPasswordEncoder(new BlockingPasswordEncoder(started, release), STRENGTH, 1, 1);
+        try {
+            callers.submit(() -> blocked.encode("running"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> blocked.encode("queued"));
+            waitForQueuedCall(blocked);
+
+            try {
+                blocked.encode("rejected");
+                fail("Expected the call to be rejected");
+            } catch (ServiceException e) {
+                assertEquals(1, blocked.rejectedCount());
+            }
+
+            // a login is rejected with an authentication failure
+            try {
+                blocked.matches("rejected", "rejected");
+                fail("Expected the call to be rejected");
+            } catch (AuthenticationServiceException e) {
+                assertEquals(2, blocked.rejectedCount());
+            }
+        } finally {
+            release.countDown();
+            blocked.shutdown();
+        }
+    }
+
+    @Test
+    public void metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        encoder.matches("password", encoder.encode("password"));
+
+        assertEquals(1, registry.get("password.encoder.duration").tag("operation", "encode").timer().count());
+        assertEquals(1, registry.get("password.encoder.duration").tag("operation", "matches").timer().count());
+        assertEquals(0, registry.get("password.encoder.rejected").functionCounter().count(), 0);
+        assertEquals(0, registry.get("executor.queued").tag("name", BoundedPasswordEncoder.EXECUTOR_NAME)
+                .gauge().value(), 0);
+    }
+
+    private static void waitForQueuedCall(BoundedPasswordEncoder blocked) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (blocked.queuedCount() < 1) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Blocks every call until released, so that the pool stays busy.
+     */
+    private static final class BlockingPasswordEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        private BlockingPasswordEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package edu.uwm.capstone.security;
+
+import edu.uwm.capstone.security.exception.LoginThrottledException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class JWTAuthenticationFilterUnitTest {
+
+    private static final String EMAIL = "user@uwm.edu";
+    private static final String ADDRESS = "10.0.0.1";
+    private static final int FREE_FAILURES = 3;
+
+    private LoginThrottle throttle;
+    private AuthenticationException failure;
+    private JWTAuthenticationFilter filter;
+
+    @Before
+    public void setUp() {
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        throttle = new LoginThrottle(1024, FREE_FAILURES, 10, 1000, 8000, 60_000, now::get);
+        filter = new JWTAuthenticationFilter(SecurityConstants.AUTHENTICATE_URL, authentication -> {
+            throw failure;
+        }, throttle);
+    }
+
+    private void attemptLogins(int times) {
+        for (int i = 0; i < times; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", SecurityConstants.AUTHENTICATE_URL);
+            request.setRemoteAddr(ADDRESS);
+            request.setContent(("{\"email\":\"" + EMAIL + "\",\"password\":\"password\"}").getBytes(StandardCharsets.UTF_8));
+            try {
+                filter.attemptAuthentication(request, new MockHttpServletResponse());
+                fail("Expected an AuthenticationException");
+            } catch (AuthenticationException e) {
+                assertSame(failure, e);
+            }
+        }
+    }
+
+    @Test
+    public void badCredentialsAreCountedAsFailures() {
+        failure = new BadCredentialsException("Bad credentials");
+        attemptLogins(FREE_FAILURES + 1);
+
+        try {
+            throttle.check(EMAIL, ADDRESS);
+            fail("Expected a LoginThrottledException");
+        } catch (LoginThrottledException e) {
+            assertTrue(e.getRetryAfterMillis() > 0);
+        }
+    }
+
+    @Test
+    public void unavailablePasswordCheckIsNotCountedAsFailure() {
+        failure = new AuthenticationServiceException("Too many passwords are being hashed, try again later");
+        attemptLogins(FREE_FAILURES + 1);
+
+        throttle.check(EMAIL, ADDRESS);
+        assertEquals(0, throttle.rejectedByEmailCount());
+    }
+}
@@ -0,0 +1,63 @@
+package edu.uwm.capstone.security;
+
+import com.auth0.jwt.JWT;
+import edu.uwm.capstone.db.RevokedTokenDao;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static edu.uwm.capstone.security.SecurityConstants.*;
+
+/**
+ * Measures the requests per second {@link JWTAuthorizationFilter} authenticates with one bearer token on one thread,
+ * with and without the cache of verified tokens. It is not run by the build; run its {@code main} from the test
+ * classpath after {@code mvn test-compile}, e.g. with the classpath written by
+ * {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+public class JWTAuthorizationFilterBenchmark {
+
+    private static final int ROUNDS = 3;
+    private static final long ROUND_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    public static void main(String[] args) throws Exception {
+        String token = JWT.create()
+                .withSubject("1")
+                .withClaim(EMAIL_CLAIM, "user@uwm.edu")
+                .withClaim(AUTHORITIES_CLAIM, Authorities.toMask(EnumSet.of(Authorities.READ_ALL_USERS)))
+                .withIssuedAt(new Date())
+                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .sign(HMAC512(SECRET.getBytes()));
+        TokenRevocations tokenRevocations = new TokenRevocations(new RevokedTokenDao(),
+                TokenRevocations.DEFAULT_REFRESH_MILLIS, TokenRevocations.DEFAULT_EXPECTED_USERS);
+
+        // a cache of size 0 verifies the token on every request
+        run("uncached", new JWTAuthorizationFilter(authentication -> authentication, tokenRevocations,
+                0, System::currentTimeMillis), token);
+        run("cached", new JWTAuthorizationFilter(authentication -> authentication, tokenRevocations), token);
+    }
+
+    private static void run(String name, JWTAuthorizationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long requests = 0;
+            long start = System.nanoTime();
+            long end = start + TimeUnit.MILLISECONDS.toNanos(ROUND_MILLIS);
+            while (System.nanoTime() < end) {
+                filter.doFilter(request, response, new MockFilterChain());
+                SecurityContextHolder.clearContext();
+                requests++;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s round %d: %,.0f requests/s%n", name, round, requests / seconds);
+        }
+    }
+}
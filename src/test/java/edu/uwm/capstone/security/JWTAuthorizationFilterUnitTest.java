@@ -0,0 +1,187 @@
+package edu.uwm.capstone.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.uwm.capstone.db.RevokedTokenDao;
+import edu.uwm.capstone.model.RevokedToken;
+import edu.uwm.capstone.model.User;
+import edu.uwm.capstone.util.TestDataUtility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static edu.uwm.capstone.security.SecurityConstants.*;
+import static org.junit.Assert.*;
+
+public class JWTAuthorizationFilterUnitTest {
+
+    private AtomicLong now;
+    private TokenRevocations tokenRevocations;
+    private JWTAuthorizationFilter filter;
+    private User user;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(System.currentTimeMillis());
+        tokenRevocations = new TokenRevocations(new RevokedTokenDao() {
+            @Override
+            public RevokedToken create(RevokedToken revokedToken) {
+                // revoked a while ago, so that tokens can be issued after it
+                revokedToken.setCreatedDate(LocalDateTime.now().minusSeconds(10));
+                return revokedToken;
+            }
+        }, 1000, 100, now::get);
+        filter = new JWTAuthorizationFilter(authentication -> authentication, tokenRevocations, 100, now::get);
+        user = TestDataUtility.userWithTestValues();
+        user.setId(TestDataUtility.randomLong());
+        user.setAuthorities(EnumSet.of(Authorities.READ_ALL_USERS, Authorities.CREATE_FORM));
+        user.setRoleNames(Collections.singleton("role"));
+    }
+
+    @After
+    public void teardown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String token(long expiresAtMillis) {
+        return JWT.create()
+                .withSubject(String.valueOf(user.getId()))
+                .withClaim(EMAIL_CLAIM, user.getEmail())
+                .withClaim(AUTHORITIES_CLAIM, Authorities.toMask(user.getAuthorities()))
+                .withExpiresAt(new Date(expiresAtMillis))
+                .sign(HMAC512(SECRET.getBytes()));
+    }
+
+    private String token(long issuedAtMillis, long expiresAtMillis) {
+        return JWT.create()
+                .withSubject(String.valueOf(user.getId()))
+                .withClaim(EMAIL_CLAIM, user.getEmail())
+                .withClaim(AUTHORITIES_CLAIM, Authorities.toMask(user.getAuthorities()))
+                .withIssuedAt(new Date(issuedAtMillis))
+                .withExpiresAt(new Date(expiresAtMillis))
+                .sign(HMAC512(SECRET.getBytes()));
+    }
+
+    /**
+     * Creates a token in the format issued before the authorities were encoded as a bitmask.
+     */
+    private String legacyToken(long expiresAtMillis) throws Exception {
+        // the subject held the user's id, email, role names and authorities
+        Map<String, Object> subject = new LinkedHashMap<>();
+        subject.put("id", user.getId());
+        subject.put("email", user.getEmail());
+        subject.put("roleNames", user.getRoleNames());
+        subject.put("authorities", user.getAuthorities());
+        return JWT.create()
+                .withSubject(new ObjectMapper().writeValueAsString(subject))
+                .withExpiresAt(new Date(expiresAtMillis))
+                .sign(HMAC512(SECRET.getBytes()));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    public void repeatedTokenIsVerifiedOnce() throws Exception {
+        String token = token(now.get() + 60_000);
+
+        Authentication first = authenticate(token);
+        assertEquals(user.getEmail(), first.getPrincipal());
+        assertEquals(user.getAuthorities(), new HashSet<>(first.getAuthorities()));
+        assertEquals(new TokenDetails(user.getId()), first.getDetails());
+        assertEquals(1, filter.cacheSize());
+
+        // every request gets its own authentication, built from the cached token
+        Authentication second = authenticate(token);
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(1, filter.cacheSize());
+    }
+
+    @Test
+    public void legacyTokenIsAccepted() throws Exception {
+        Authentication authentication = authenticate(legacyToken(now.get() + 60_000));
+        assertEquals(user.getEmail(), authentication.getPrincipal());
+        assertEquals(user.getAuthorities(), new HashSet<>(authentication.getAuthorities()));
+        assertEquals(new TokenDetails(user.getId()), authentication.getDetails());
+    }
+
+    @Test
+    public void tokenWithoutAuthoritiesIsAccepted() throws Exception {
+        user.setAuthorities(null);
+        Authentication authentication = authenticate(token(now.get() + 60_000));
+        assertEquals(user.getEmail(), authentication.getPrincipal());
+        assertTrue(authentication.getAuthorities().isEmpty());
+    }
+
+    @Test
+    public void cachedTokenIsVerifiedAgainAfterItExpires() throws Exception {
+        String token = token(now.get() + 60_000);
+        Authentication first = authenticate(token);
+
+        now.addAndGet(61_000);
+        assertNotSame(first, authenticate(token));
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void expiredTokenIsRejected() throws Exception {
+        authenticate(token(now.get() - 1000));
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void tokenWithTheSignatureOfACachedTokenIsVerified() throws Exception {
+        String token = token(now.get() + 60_000);
+        assertNotNull(authenticate(token));
+
+        user.setAuthorities(EnumSet.allOf(Authorities.class));
+        String other = token(now.get() + 60_000);
+        String forged = other.substring(0, other.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+        authenticate(forged);
+    }
+
+    @Test
+    public void cachedTokenIsRejectedOnceRevoked() throws Exception {
+        String token = token(now.get() - 60_000, now.get() + 60_000);
+        assertNotNull(authenticate(token));
+
+        tokenRevocations.revoke(user.getId());
+        assertNull(authenticate(token));
+        assertNull(authenticate(legacyToken(now.get() + 60_000)));
+    }
+
+    @Test
+    public void tokenIssuedAfterTheRevocationIsAccepted() throws Exception {
+        tokenRevocations.revoke(user.getId());
+        assertNull(authenticate(token(System.currentTimeMillis() - 60_000, now.get() + 60_000)));
+        assertNotNull(authenticate(token(System.currentTimeMillis(), now.get() + 60_000)));
+    }
+
+    @Test
+    public void requestWithoutTokenIsNotAuthenticated() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(0, filter.cacheSize());
+    }
+}
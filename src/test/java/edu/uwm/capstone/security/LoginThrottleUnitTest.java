@@ -0,0 +1,150 @@
+package edu.uwm.capstone.security;
+
+import edu.uwm.capstone.security.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LoginThrottleUnitTest {
+
+    private static final String EMAIL = "user@uwm.edu";
+    private static final String ADDRESS = "10.0.0.1";
+    private static final long BASE_DELAY = 1000;
+    private static final long MAX_DELAY = 8000;
+    private static final long DECAY = 60_000;
+
+    private AtomicLong now;
+    private LoginThrottle throttle;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(System.currentTimeMillis());
+        throttle = new LoginThrottle(1024, 3, 10, BASE_DELAY, MAX_DELAY, DECAY, now::get);
+    }
+
+    private long retryAfter(String email, String address) {
+        try {
+            throttle.check(email, address);
+            return 0;
+        } catch (LoginThrottledException e) {
+            return e.getRetryAfterMillis();
+        }
+    }
+
+    private void failLogins(int times, String email, String address) {
+        for (int i = 0; i < times; i++) {
+            throttle.failed(email, address);
+        }
+    }
+
+    @Test
+    public void freeFailuresAreNotThrottled() {
+        failLogins(3, EMAIL, ADDRESS);
+        assertEquals(0, retryAfter(EMAIL, ADDRESS));
+        assertEquals(0, throttle.rejectedByEmailCount());
+    }
+
+    @Test
+    public void delayDoublesWithEveryFailureUpToTheMaximum() {
+        failLogins(4, EMAIL, ADDRESS);
+        assertEquals(BASE_DELAY, retryAfter(EMAIL, ADDRESS));
+        failLogins(1, EMAIL, ADDRESS);
+        assertEquals(2 * BASE_DELAY, retryAfter(EMAIL, ADDRESS));
+        failLogins(1, EMAIL, ADDRESS);
+        assertEquals(4 * BASE_DELAY, retryAfter(EMAIL, ADDRESS));
+        failLogins(10, EMAIL, ADDRESS);
+        assertEquals(MAX_DELAY, retryAfter(EMAIL, ADDRESS));
+        assertEquals(4, throttle.rejectedByEmailCount());
+    }
+
+    @Test
+    public void loginIsAllowedAgainOnceTheDelayHasPassed() {
+        failLogins(5, EMAIL, ADDRESS);
+        assertTrue(retryAfter(EMAIL, ADDRESS) > 0);
+
+        now.addAndGet(2 * BASE_DELAY);
+        assertEquals(0, retryAfter(EMAIL, ADDRESS));
+
+        // the failures are still counted, so the next failure waits longer
+        failLogins(1, EMAIL, ADDRESS);
+        assertEquals(4 * BASE_DELAY, retryAfter(EMAIL, ADDRESS));
+    }
+
+    @Test
+    public void failuresDecay() {
+        failLogins(6, EMAIL, ADDRESS);
+        now.addAndGet(DECAY);
+        assertEquals(0, retryAfter(EMAIL, ADDRESS));
+
+        failLogins(3, EMAIL, ADDRESS);
+        assertEquals(0, retryAfter(EMAIL, ADDRESS));
+    }
+
+    @Test
+    public void emailsAreThrottledRegardlessOfCase() {
+        failLogins(4, EMAIL.toUpperCase(), "10.0.0.2");
+        assertEquals(BASE_DELAY, retryAfter(" " + EMAIL, ADDRESS));
+    }
+
+    @Test
+    public void addressIsThrottledAcrossEmails() {
+        for (int i = 0; i < 11; i++) {
+            throttle.failed("user" + i + "@uwm.edu", ADDRESS);
+        }
+        assertEquals(BASE_DELAY, retryAfter("other@uwm.edu", ADDRESS));
+        assertEquals(0, retryAfter("other@uwm.edu", "10.0.0.2"));
+        assertEquals(1, throttle.rejectedByAddressCount());
+        assertEquals(0, throttle.rejectedByEmailCount());
+    }
+
+    @Test
+    public void concurrentFailuresAreAllCounted() throws Exception {
+        LoginThrottle counting = new LoginThrottle(1024, 400, 400, BASE_DELAY, MAX_DELAY, DECAY, now::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        counting.failed(EMAIL, ADDRESS);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        counting.check(EMAIL, ADDRESS);
+        counting.failed(EMAIL, ADDRESS);
+        try {
+            counting.check(EMAIL, ADDRESS);
+            fail("Expected the 401st failure to be throttled");
+        } catch (LoginThrottledException e) {
+            assertEquals(BASE_DELAY, e.getRetryAfterMillis());
+        }
+    }
+
+    @Test
+    public void metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        throttle.bindTo(registry);
+
+        failLogins(4, EMAIL, ADDRESS);
+        retryAfter(EMAIL, ADDRESS);
+
+        assertEquals(1, registry.get("login.throttle.rejected").tag("key", "email").functionCounter().count(), 0);
+        assertEquals(0, registry.get("login.throttle.rejected").tag("key", "address").functionCounter().count(), 0);
+        assertEquals(4, registry.get("login.throttle.failures").tag("key", "email").functionCounter().count(), 0);
+    }
+}
@@ -0,0 +1,49 @@
+package edu.uwm.capstone.security;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class OwnershipUnitTest {
+
+    private final Ownership ownership = new Ownership();
+
+    @After
+    public void teardown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(Object details) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("user@uwm.edu", null, Collections.emptySet());
+        authentication.setDetails(details);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    @Test
+    public void userOwnsItself() {
+        authenticate(new TokenDetails(42L));
+        assertEquals(Long.valueOf(42), Ownership.currentUserId());
+        assertTrue(ownership.isSelf(42L));
+        assertFalse(ownership.isSelf(43L));
+        assertFalse(ownership.isSelf(null));
+    }
+
+    @Test
+    public void authenticationWithoutTokenOwnsNothing() {
+        assertNull(Ownership.currentUserId());
+        assertFalse(ownership.isSelf(42L));
+
+        authenticate("other details");
+        assertNull(Ownership.currentUserId());
+        assertFalse(ownership.isSelf(42L));
+
+        authenticate(new TokenDetails(null));
+        assertFalse(ownership.isSelf(null));
+    }
+}
@@ -0,0 +1,203 @@
+package edu.uwm.capstone.security;
+
+import edu.uwm.capstone.db.RevokedTokenDao;
+import edu.uwm.capstone.model.RevokedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TokenRevocationsUnitTest {
+
+    /**
+     * Holds the committed revocations in memory.
+     */
+    private static class InMemoryRevokedTokenDao extends RevokedTokenDao {
+        private final List<RevokedToken> revokedTokens = new ArrayList<>();
+        private final List<LocalDateTime> readAfter = new ArrayList<>();
+        private boolean failing;
+        private int pruned;
+
+        void commit(long userId, LocalDateTime createdDate, LocalDateTime expiresDate) {
+            RevokedToken revokedToken = RevokedToken.builder().userId(userId).expiresDate(expiresDate).build();
+            revokedToken.setId((long) revokedTokens.size() + 1);
+            revokedToken.setCreatedDate(createdDate);
+            revokedTokens.add(revokedToken);
+        }
+
+        @Override
+        public RevokedToken create(RevokedToken revokedToken) {
+            revokedToken.setId((long) revokedTokens.size() + 1);
+            revokedToken.setCreatedDate(LocalDateTime.now());
+            revokedTokens.add(revokedToken);
+            return revokedToken;
+        }
+
+        @Override
+        public List<RevokedToken> readCreatedAfter(LocalDateTime after, LocalDateTime notExpiredAt) {
+            if (failing) throw new DataAccessResourceFailureException("database is down");
+            readAfter.add(after);
+            return revokedTokens.stream()
+                    .filter(t -> after == null || t.getCreatedDate().isAfter(after))
+                    .filter(t -> t.getExpiresDate().isAfter(notExpiredAt))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public int deleteExpiredBefore(LocalDateTime before) {
+            return ++pruned;
+        }
+    }
+
+    private static final long USER_ID = 42;
+
+    private AtomicLong now;
+    private InMemoryRevokedTokenDao dao;
+    private TokenRevocations revocations;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(System.currentTimeMillis());
+        dao = new InMemoryRevokedTokenDao();
+        revocations = new TokenRevocations(dao, 1000, 100, now::get);
+    }
+
+    @After
+    public void teardown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static long millis(LocalDateTime localDateTime) {
+        return localDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void tokensIssuedBeforeTheRevocationAreRevoked() {
+        long before = System.currentTimeMillis() - 1;
+        revocations.revoke(USER_ID);
+        long after = System.currentTimeMillis() + 1;
+
+        assertTrue(revocations.isRevoked(USER_ID, before));
+        assertFalse(revocations.isRevoked(USER_ID, after));
+        assertFalse(revocations.isRevoked(USER_ID + 1, before));
+        assertFalse(revocations.isRevoked(null, before));
+        assertEquals(1, revocations.revokedUserCount());
+    }
+
+    @Test
+    public void revocationWithinATransactionTakesEffectOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        revocations.revoke(USER_ID);
+        assertFalse(revocations.isRevoked(USER_ID, Long.MIN_VALUE));
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertTrue(revocations.isRevoked(USER_ID, Long.MIN_VALUE));
+    }
+
+    @Test
+    public void refreshReadsTheRevocationsOfOtherNodes() {
+        LocalDateTime created = LocalDateTime.now().minusSeconds(10);
+        dao.commit(USER_ID, created, created.plusDays(10));
+        assertFalse(revocations.isRevoked(USER_ID, millis(created) - 1));
+
+        revocations.refresh();
+        assertTrue(revocations.isRevoked(USER_ID, millis(created) - 1));
+        assertFalse(revocations.isRevoked(USER_ID, millis(created)));
+
+        // the next read overlaps the latest revocation, whose row changes nothing when read again
+        revocations.refresh();
+        assertEquals(2, dao.readAfter.size());
+        assertNull(dao.readAfter.get(0));
+        assertEquals(created.minus(TokenRevocations.OVERLAP_MILLIS, ChronoUnit.MILLIS), dao.readAfter.get(1));
+        assertTrue(revocations.isRevoked(USER_ID, millis(created) - 1));
+        assertEquals(1, revocations.revokedUserCount());
+    }
+
+    @Test
+    public void latestRevocationOfAUserApplies() {
+        LocalDateTime first = LocalDateTime.now().minusMinutes(2);
+        LocalDateTime second = first.plusMinutes(1);
+        dao.commit(USER_ID, second, second.plusDays(10));
+        dao.commit(USER_ID, first, first.plusDays(10));
+        revocations.refresh();
+
+        assertTrue(revocations.isRevoked(USER_ID, millis(second) - 1));
+        assertFalse(revocations.isRevoked(USER_ID, millis(second)));
+    }
+
+    @Test
+    public void expiredRevocationsAreDropped() {
+        LocalDateTime created = LocalDateTime.now();
+        dao.commit(USER_ID, created, created.plusMinutes(1));
+        revocations.refresh();
+        assertEquals(1, revocations.revokedUserCount());
+        assertEquals(1, dao.pruned);
+
+        now.addAndGet(TokenRevocations.PRUNE_INTERVAL_MILLIS);
+        revocations.refresh();
+        assertEquals(0, revocations.revokedUserCount());
+        assertFalse(revocations.isRevoked(USER_ID, Long.MIN_VALUE));
+        assertEquals(2, dao.pruned);
+    }
+
+    @Test
+    public void failedRefreshKeepsTheRevocations() {
+        revocations.revoke(USER_ID);
+        dao.failing = true;
+        revocations.refreshQuietly();
+        assertTrue(revocations.isRevoked(USER_ID, Long.MIN_VALUE));
+    }
+
+    @Test
+    public void filterGrowsBeyondTheExpectedUsers() {
+        LocalDateTime created = LocalDateTime.now();
+        for (long userId = 0; userId < 1000; userId++) {
+            dao.commit(userId, created, created.plusDays(10));
+        }
+        revocations.refresh();
+        assertEquals(1000, revocations.revokedUserCount());
+        for (long userId = 0; userId < 1000; userId++) {
+            assertTrue(revocations.isRevoked(userId, Long.MIN_VALUE));
+        }
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        revocations.bindTo(registry);
+        for (long userId = 1000; userId < 11_000; userId++) {
+            assertFalse(revocations.isRevoked(userId, Long.MIN_VALUE));
+        }
+        // users that were never revoked are almost all ruled out by the filter alone
+        double filtered = registry.get("token.revocation.checks").tag("result", "filtered").functionCounter().count();
+        double checked = registry.get("token.revocation.checks").tag("result", "checked").functionCounter().count();
+        assertEquals(10_000, filtered + checked, 0);
+        assertTrue("Filter false positives: " + checked, checked < 500);
+    }
+
+    @Test
+    public void metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        revocations.bindTo(registry);
+
+        revocations.revoke(USER_ID);
+        revocations.isRevoked(USER_ID, Long.MIN_VALUE);
+        revocations.isRevoked(USER_ID, Long.MAX_VALUE);
+
+        assertEquals(1, registry.get("token.revocation.checks").tag("result", "revoked").functionCounter().count(), 0);
+        assertEquals(1, registry.get("token.revocation.checks").tag("result", "checked").functionCounter().count(), 0);
+        assertEquals(1, registry.get("token.revocation.users").gauge().value(), 0);
+    }
+}
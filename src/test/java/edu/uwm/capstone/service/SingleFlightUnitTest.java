@@ -0,0 +1,195 @@
+package edu.uwm.capstone.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightUnitTest {
+
+    private static final String METHOD = "test.read";
+
+    private SingleFlights singleFlights;
+    private SingleFlight<Long, StringBuilder> flight;
+    private AtomicInteger loads;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        singleFlights = new SingleFlights(Collections.singleton(METHOD));
+        flight = singleFlights.forMethod(METHOD, StringBuilder::new);
+        loads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private StringBuilder load(Long id) {
+        loads.incrementAndGet();
+        return new StringBuilder("value" + id);
+    }
+
+    /**
+     * Starts a read of key 1 that does not finish until the returned latch is released, and waits until it is in
+     * flight.
+     */
+    private CountDownLatch startBlockedRead(List<Future<StringBuilder>> results, RuntimeException failure) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        results.add(executor.submit(() -> flight.read(1L, id -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) throw failure;
+            return load(id);
+        })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flight.coalescedCount() < count) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void concurrentReadsShareOneLoad() throws Exception {
+        List<Future<StringBuilder>> results = new ArrayList<>();
+        CountDownLatch release = startBlockedRead(results, null);
+        for (int i = 0; i < 5; i++) {
+            results.add(executor.submit(() -> flight.read(1L, this::load)));
+        }
+        awaitCoalesced(5);
+        release.countDown();
+
+        List<StringBuilder> values = new ArrayList<>();
+        for (Future<StringBuilder> result : results) {
+            values.add(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.loadedCount());
+        assertEquals(5, flight.coalescedCount());
+        values.forEach(value -> assertEquals("value1", value.toString()));
+        // every caller receives its own copy
+        assertEquals(values.size(), values.stream().map(System::identityHashCode).distinct().count());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    public void failureIsRethrownToWaitingCalls() throws Exception {
+        List<Future<StringBuilder>> results = new ArrayList<>();
+        IllegalStateException failure = new IllegalStateException("read failed");
+        CountDownLatch release = startBlockedRead(results, failure);
+        results.add(executor.submit(() -> flight.read(1L, this::load)));
+        awaitCoalesced(1);
+        release.countDown();
+
+        for (Future<StringBuilder> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("Expected the read to fail");
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+        assertEquals(0, loads.get());
+        assertEquals("value1", flight.read(1L, this::load).toString());
+    }
+
+    @Test
+    public void sequentialReadsAreNotCoalesced() {
+        flight.read(1L, this::load);
+        flight.read(1L, this::load);
+        flight.read(2L, this::load);
+        assertEquals(3, loads.get());
+        assertEquals(0, flight.coalescedCount());
+    }
+
+    @Test
+    public void nullResultIsShared() throws Exception {
+        List<Future<StringBuilder>> results = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        results.add(executor.submit(() -> flight.read(1L, id -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        results.add(executor.submit(() -> flight.read(1L, this::load)));
+        awaitCoalesced(1);
+        release.countDown();
+
+        for (Future<StringBuilder> result : results) {
+            assertNull(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void methodsThatAreNotEnabledReadOnTheirOwn() {
+        SingleFlight<Long, StringBuilder> disabled = singleFlights.forMethod("other.read", StringBuilder::new);
+        assertFalse(disabled.isEnabled());
+        disabled.read(1L, this::load);
+        assertEquals(1, disabled.bypassedCount());
+        assertSame(disabled, singleFlights.<Long, StringBuilder>forMethod("other.read", StringBuilder::new));
+    }
+
+    @Test
+    public void writingTransactionReadsOnItsOwn() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        flight.read(1L, this::load);
+        assertEquals(1, flight.bypassedCount());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        flight.read(1L, this::load);
+        assertEquals(1, flight.loadedCount());
+    }
+
+    @Test
+    public void metrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        singleFlights.bindTo(registry);
+        SingleFlight<Long, StringBuilder> later = singleFlights.forMethod("later.read", StringBuilder::new);
+
+        flight.read(1L, this::load);
+        later.read(1L, this::load);
+
+        assertEquals(1, calls(registry, METHOD, "loaded"), 0);
+        assertEquals(0, calls(registry, METHOD, "coalesced"), 0);
+        assertEquals(1, calls(registry, "later.read", "bypassed"), 0);
+    }
+
+    private static double calls(SimpleMeterRegistry registry, String method, String result) {
+        return registry.get("single.flight.calls").tag("method", method).tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,149 @@
+package edu.uwm.capstone.sql.dao;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class AggregateLoaderUnitTest {
+
+    private static class Parent {
+        private Long id;
+        private List<String> children;
+    }
+
+    private static class Child {
+        private Long parentId;
+        private String name;
+    }
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:aggregateLoader;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.getJdbcOperations().execute("CREATE TABLE parents (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.getJdbcOperations().execute("CREATE TABLE children (id BIGINT AUTO_INCREMENT PRIMARY KEY, parent_id BIGINT, name VARCHAR(32))");
+        jdbcTemplate.getJdbcOperations().execute("INSERT INTO parents VALUES (1), (2), (3), (4), (5)");
+        jdbcTemplate.getJdbcOperations().execute("INSERT INTO children (parent_id, name) VALUES " +
+                "(1, 'a'), (1, 'b'), (2, 'c'), (4, 'd'), (5, 'e'), (5, 'f')");
+    }
+
+    @After
+    public void teardown() {
+        jdbcTemplate.getJdbcOperations().execute("DROP ALL OBJECTS");
+    }
+
+    private AggregateLoader<Long, Parent, Child> loader(int chunkSize) {
+        return AggregateLoader.<Long, Parent, Child>builder()
+                .jdbcTemplate(jdbcTemplate)
+                .parentMapper((rs, i) -> {
+                    Parent parent = new Parent();
+                    parent.id = rs.getLong("id");
+                    return parent;
+                })
+                .parentKey(parent -> parent.id)
+                .childStatement("SELECT * FROM children WHERE parent_id IN (:parent_ids) ORDER BY id")
+                .childKeysParameter("parent_ids")
+                .childMapper((rs, i) -> {
+                    Child child = new Child();
+                    child.parentId = rs.getLong("parent_id");
+                    child.name = rs.getString("name");
+                    return child;
+                })
+                .childParentKey(child -> child.parentId)
+                .assembler((parent, children) -> {
+                    parent.children = new ArrayList<>();
+                    children.forEach(child -> parent.children.add(child.name));
+                })
+                .chunkSize(chunkSize)
+                .build();
+    }
+
+    @Test
+    public void load() {
+        List<Parent> parents = loader(AggregateLoader.DEFAULT_CHUNK_SIZE).load("SELECT * FROM parents ORDER BY id");
+        assertEquals(5, parents.size());
+        assertEquals(Arrays.asList("a", "b"), parents.get(0).children);
+        assertEquals(Collections.singletonList("c"), parents.get(1).children);
+        assertEquals(Collections.emptyList(), parents.get(2).children);
+        assertEquals(Collections.singletonList("d"), parents.get(3).children);
+        assertEquals(Arrays.asList("e", "f"), parents.get(4).children);
+    }
+
+    @Test
+    public void loadInChunks() {
+        List<Parent> parents = loader(2).load("SELECT * FROM parents ORDER BY id DESC");
+        assertEquals(5, parents.size());
+        assertEquals(Long.valueOf(5), parents.get(0).id);
+        assertEquals(Arrays.asList("e", "f"), parents.get(0).children);
+        assertEquals(Arrays.asList("a", "b"), parents.get(4).children);
+    }
+
+    @Test
+    public void loadOne() {
+        Parent parent = loader(AggregateLoader.DEFAULT_CHUNK_SIZE).loadOne("SELECT * FROM parents WHERE id = :id",
+                new MapSqlParameterSource("id", 5L));
+        assertNotNull(parent);
+        assertEquals(Arrays.asList("e", "f"), parent.children);
+    }
+
+    @Test
+    public void loadOneNonExistent() {
+        assertNull(loader(AggregateLoader.DEFAULT_CHUNK_SIZE).loadOne("SELECT * FROM parents WHERE id = :id",
+                new MapSqlParameterSource("id", 6L)));
+    }
+
+    @Test
+    public void assembleEmpty() {
+        List<Parent> parents = new ArrayList<>();
+        assertSame(parents, loader(AggregateLoader.DEFAULT_CHUNK_SIZE).assemble(parents));
+    }
+
+    @Test
+    public void assembleStreamInChunks() {
+        List<Long> ids = Arrays.asList(5L, 4L, 3L, 2L, 1L);
+        List<Long> consumed = new ArrayList<>();
+        boolean[] closed = {false};
+        Stream<Parent> source = ids.stream().map(id -> {
+            consumed.add(id);
+            Parent parent = new Parent();
+            parent.id = id;
+            return parent;
+        }).onClose(() -> closed[0] = true);
+
+        try (Stream<Parent> parents = loader(2).assemble(source)) {
+            Iterator<Parent> iterator = parents.iterator();
+            Parent first = iterator.next();
+            assertEquals(Long.valueOf(5), first.id);
+            assertEquals(Arrays.asList("e", "f"), first.children);
+            // only the first chunk has been read from the source
+            assertEquals(Arrays.asList(5L, 4L), consumed);
+
+            List<Parent> rest = new ArrayList<>();
+            iterator.forEachRemaining(rest::add);
+            assertEquals(4, rest.size());
+            assertEquals(Collections.emptyList(), rest.get(1).children);
+            assertEquals(Arrays.asList("a", "b"), rest.get(3).children);
+        }
+        assertTrue(closed[0]);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void buildWithoutChildStatement() {
+        AggregateLoader.<Long, Parent, Child>builder().jdbcTemplate(jdbcTemplate).build();
+    }
+}
@@ -0,0 +1,176 @@
+package edu.uwm.capstone.sql.dao;
+
+import edu.uwm.capstone.sql.exception.DaoException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BaseDaoUnitTest {
+
+    private static final String CREATE = "INSERT INTO items (id, name) VALUES (:id, :name)";
+    private static final String UPDATE = "UPDATE items SET name = :name WHERE id = :id";
+
+    /**
+     * Minimal {@link BaseDao} exposing the protected batch operations.
+     */
+    private static class ItemDao extends BaseDao<Long, String> {
+        @Override
+        public String create(String object) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String read(Long id) {
+            return jdbcTemplate.queryForObject("SELECT name FROM items WHERE id = :id", new MapSqlParameterSource("id", id), String.class);
+        }
+
+        @Override
+        public String update(String object) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(Long id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private ItemDao itemDao;
+
+    @Before
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:baseDao;DB_CLOSE_DELAY=-1");
+        itemDao = new ItemDao();
+        itemDao.setDataSource(dataSource);
+        itemDao.jdbcTemplate.getJdbcOperations().execute("CREATE TABLE items (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(32))");
+    }
+
+    @After
+    public void teardown() {
+        itemDao.jdbcTemplate.getJdbcOperations().execute("DROP ALL OBJECTS");
+    }
+
+    private List<MapSqlParameterSource> items(String... names) {
+        List<MapSqlParameterSource> batchArgs = new ArrayList<>();
+        for (String name : names) {
+            batchArgs.add(new MapSqlParameterSource("id", null).addValue("name", name));
+        }
+        return batchArgs;
+    }
+
+    @Test
+    public void batchCreate() {
+        itemDao.setBatchSize(2);
+        List<Number> ids = itemDao.batchCreate(CREATE, items("a", "b", "c", "d", "e"));
+        assertEquals(5, ids.size());
+        assertEquals("a", itemDao.read(ids.get(0).longValue()));
+        assertEquals("c", itemDao.read(ids.get(2).longValue()));
+        assertEquals("e", itemDao.read(ids.get(4).longValue()));
+    }
+
+    @Test
+    public void batchCreateEmpty() {
+        assertEquals(Collections.emptyList(), itemDao.batchCreate(CREATE, items()));
+    }
+
+    @Test
+    public void batchUpdate() {
+        List<Number> ids = itemDao.batchCreate(CREATE, items("a", "b", "c"));
+        itemDao.setBatchSize(2);
+        itemDao.batchUpdate(UPDATE, Arrays.asList(
+                new MapSqlParameterSource("id", ids.get(0)).addValue("name", "x"),
+                new MapSqlParameterSource("id", ids.get(2)).addValue("name", "z")));
+        assertEquals("x", itemDao.read(ids.get(0).longValue()));
+        assertEquals("b", itemDao.read(ids.get(1).longValue()));
+        assertEquals("z", itemDao.read(ids.get(2).longValue()));
+    }
+
+    @Test(expected = DaoException.class)
+    public void batchUpdateMissingRow() {
+        itemDao.batchUpdate(UPDATE, Collections.singletonList(new MapSqlParameterSource("id", 1L).addValue("name", "x")));
+    }
+
+    @Test
+    public void queryForStream() {
+        itemDao.batchCreate(CREATE, items("a", "b", "c", "d", "e"));
+        itemDao.setFetchSize(2);
+        try (Stream<String> names = itemDao.queryForStream("SELECT name FROM items WHERE name <> :name ORDER BY id",
+                new MapSqlParameterSource("name", "c"), (rs, i) -> rs.getString("name"))) {
+            assertEquals(Arrays.asList("a", "b", "d", "e"), names.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void queryForStreamIsLazy() {
+        itemDao.batchCreate(CREATE, items("a", "b", "c"));
+        List<Integer> mapped = new ArrayList<>();
+        try (Stream<String> names = itemDao.queryForStream("SELECT name FROM items ORDER BY id",
+                new MapSqlParameterSource(), (rs, i) -> {
+                    mapped.add(i);
+                    return rs.getString("name");
+                })) {
+            assertTrue(mapped.isEmpty());
+            assertEquals("a", names.findFirst().orElse(null));
+            assertEquals(Collections.singletonList(0), mapped);
+        }
+    }
+
+    @Test
+    public void queryForStreamTakesConnectionWhenConsumed() {
+        itemDao.batchCreate(CREATE, items("a", "b"));
+        AtomicInteger connections = new AtomicInteger();
+        JdbcDataSource dataSource = new JdbcDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                connections.incrementAndGet();
+                return super.getConnection();
+            }
+        };
+        dataSource.setURL("jdbc:h2:mem:baseDao;DB_CLOSE_DELAY=-1");
+        itemDao.setDataSource(dataSource);
+
+        // a stream that is closed without being consumed never takes a connection
+        itemDao.queryForStream("SELECT name FROM items", new MapSqlParameterSource(), (rs, i) -> rs.getString("name")).close();
+        assertEquals(0, connections.get());
+
+        try (Stream<String> names = itemDao.queryForStream("SELECT name FROM items ORDER BY id",
+                new MapSqlParameterSource(), (rs, i) -> rs.getString("name"))) {
+            assertEquals(0, connections.get());
+            assertEquals(Arrays.asList("a", "b"), names.collect(Collectors.toList()));
+            assertEquals(1, connections.get());
+        }
+    }
+
+    @Test(expected = DaoException.class)
+    public void queryForStreamInvalidStatement() {
+        try (Stream<String> names = itemDao.queryForStream("SELECT name FROM missing", new MapSqlParameterSource(),
+                (rs, i) -> rs.getString("name"))) {
+            names.findFirst();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setFetchSizeNotPositive() {
+        itemDao.setFetchSize(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setBatchSizeNotPositive() {
+        itemDao.setBatchSize(0);
+    }
+}
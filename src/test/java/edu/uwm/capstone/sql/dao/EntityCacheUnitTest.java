@@ -0,0 +1,196 @@
+package edu.uwm.capstone.sql.dao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class EntityCacheUnitTest {
+
+    private EntityCache<Long, StringBuilder> cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        cache = new EntityCache<>("test", 2, StringBuilder::new);
+        loads = new AtomicInteger();
+    }
+
+    @After
+    public void teardown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // the caches bind their writing transactions to their TransactionalInvalidation
+        new ArrayList<>(TransactionSynchronizationManager.getResourceMap().keySet())
+                .forEach(TransactionSynchronizationManager::unbindResourceIfPossible);
+    }
+
+    private StringBuilder load(Long id) {
+        loads.incrementAndGet();
+        return id > 0 ? new StringBuilder("value" + id) : null;
+    }
+
+    private List<StringBuilder> loadAll() {
+        loads.incrementAndGet();
+        return Arrays.asList(new StringBuilder("value1"), new StringBuilder("value2"));
+    }
+
+    private static List<String> strings(List<StringBuilder> values) {
+        return values.stream().map(StringBuilder::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void get() {
+        assertEquals("value1", cache.get(1L, this::load).toString());
+        assertEquals("value1", cache.get(1L, this::load).toString());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getCache().stats().hitCount());
+        assertEquals(1, cache.getCache().stats().missCount());
+    }
+
+    @Test
+    public void getReturnsCopies() {
+        cache.get(1L, this::load).append("modified");
+        StringBuilder first = cache.get(1L, this::load);
+        first.append("modified");
+        StringBuilder second = cache.get(1L, this::load);
+        assertNotSame(first, second);
+        assertEquals("value1", second.toString());
+    }
+
+    @Test
+    public void getMissingIsNotCached() {
+        assertNull(cache.get(-1L, this::load));
+        assertNull(cache.get(-1L, this::load));
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.getCache().size());
+    }
+
+    @Test
+    public void getIsBounded() {
+        for (long id = 1; id <= 5; id++) {
+            cache.get(id, this::load);
+        }
+        assertTrue(cache.getCache().size() <= 2);
+        assertTrue(cache.getCache().stats().evictionCount() >= 3);
+    }
+
+    @Test
+    public void getDropsValueInvalidatedWhileLoading() {
+        StringBuilder loaded = cache.get(1L, id -> {
+            cache.invalidate(id);
+            return load(id);
+        });
+        assertEquals("value1", loaded.toString());
+        assertEquals(0, cache.getCache().size());
+    }
+
+    @Test
+    public void getAll() {
+        assertEquals(Arrays.asList("value1", "value2"), strings(cache.getAll(this::loadAll, this::key)));
+        assertEquals(Arrays.asList("value1", "value2"), strings(cache.getAll(this::loadAll, this::key)));
+        assertEquals(1, loads.get());
+
+        // entities read with getAll are cached by key as well
+        assertEquals("value2", cache.get(2L, this::load).toString());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void getAllReturnsCopies() {
+        cache.getAll(this::loadAll, this::key).get(0).append("modified");
+        List<StringBuilder> all = cache.getAll(this::loadAll, this::key);
+        all.set(1, new StringBuilder("replaced"));
+        assertEquals(Arrays.asList("value1", "value2"), strings(cache.getAll(this::loadAll, this::key)));
+    }
+
+    @Test
+    public void invalidate() {
+        cache.get(1L, this::load);
+        cache.getAll(this::loadAll, this::key);
+        assertEquals(2, loads.get());
+
+        cache.invalidate(2L);
+        cache.get(1L, this::load);
+        assertEquals(2, loads.get());
+        cache.getAll(this::loadAll, this::key);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void invalidateAll() {
+        cache.get(1L, this::load);
+        cache.getAll(this::loadAll, this::key);
+        cache.invalidateAll();
+        assertEquals(0, cache.getCache().size());
+        cache.getAll(this::loadAll, this::key);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void invalidateAgainAfterTransactionCompletion() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(1L);
+
+        // a concurrent read that still sees the uncommitted write's old row
+        Thread thread = new Thread(() -> cache.get(1L, this::load));
+        thread.start();
+        thread.join();
+        assertEquals(1, cache.getCache().size());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(0, cache.getCache().size());
+    }
+
+    @Test
+    public void transactionThatWroteBypassesTheCache() {
+        cache.get(1L, this::load);
+        cache.getAll(this::loadAll, this::key);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(2L);
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        cache.getAll(this::loadAll, this::key);
+        assertEquals(5, loads.get());
+        assertEquals(1, cache.getCache().size());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        cache.get(1L, this::load);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void bindTo() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count(), 0);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "test").tag("result", "miss").functionCounter().count(), 0);
+        assertNotNull(registry.get("cache.evictions").tag("cache", "test").functionCounter());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMaximumSize() {
+        new EntityCache<Long, StringBuilder>("test", -1, StringBuilder::new);
+    }
+
+    private Long key(StringBuilder value) {
+        return Long.valueOf(value.substring("value".length()));
+    }
+}
@@ -0,0 +1,95 @@
+package edu.uwm.capstone.sql.dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SnapshotCacheUnitTest {
+
+    private SnapshotCache<String> cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        cache = new SnapshotCache<>("test");
+        loads = new AtomicInteger();
+    }
+
+    @After
+    public void teardown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // the caches bind their writing transactions to their TransactionalInvalidation
+        new ArrayList<>(TransactionSynchronizationManager.getResourceMap().keySet())
+                .forEach(TransactionSynchronizationManager::unbindResourceIfPossible);
+    }
+
+    private String load() {
+        return "snapshot" + loads.incrementAndGet();
+    }
+
+    private void completeTransaction() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void get() {
+        assertEquals("snapshot1", cache.get(this::load));
+        assertEquals("snapshot1", cache.get(this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidate() {
+        cache.get(this::load);
+        cache.invalidate();
+        assertEquals("snapshot2", cache.get(this::load));
+        assertEquals("snapshot2", cache.get(this::load));
+    }
+
+    @Test
+    public void getDropsSnapshotInvalidatedWhileLoading() {
+        assertEquals("snapshot1", cache.get(() -> {
+            cache.invalidate();
+            return load();
+        }));
+        assertEquals("snapshot2", cache.get(this::load));
+    }
+
+    @Test
+    public void transactionReadsItsOwnSnapshotUntilItCompletes() {
+        assertEquals("snapshot1", cache.get(this::load));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate();
+        // the writing transaction loads a private snapshot that includes its own writes
+        assertEquals("snapshot2", cache.get(this::load));
+        assertEquals("snapshot2", cache.get(this::load));
+        cache.invalidate();
+        assertEquals("snapshot3", cache.get(this::load));
+
+        // other threads never see the private snapshot
+        String[] otherThread = new String[1];
+        Thread thread = new Thread(() -> otherThread[0] = cache.get(() -> "committed"));
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        assertEquals("committed", otherThread[0]);
+
+        completeTransaction();
+        assertEquals("snapshot4", cache.get(this::load));
+    }
+}
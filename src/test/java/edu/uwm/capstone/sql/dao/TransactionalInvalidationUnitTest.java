@@ -0,0 +1,99 @@
+package edu.uwm.capstone.sql.dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TransactionalInvalidationUnitTest {
+
+    private TransactionalInvalidation invalidation;
+    private AtomicInteger invalidations;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        invalidation = new TransactionalInvalidation("test");
+        invalidations = new AtomicInteger();
+        loads = new AtomicInteger();
+    }
+
+    @After
+    public void teardown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(invalidation);
+    }
+
+    private String load() {
+        return "value" + loads.incrementAndGet();
+    }
+
+    private void completeTransaction() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void invalidateOutsideTransaction() {
+        long loadVersion = invalidation.version();
+        assertFalse(invalidation.changedSince(loadVersion));
+
+        invalidation.invalidate(invalidations::incrementAndGet);
+        assertEquals(1, invalidations.get());
+        assertTrue(invalidation.changedSince(loadVersion));
+        assertFalse(invalidation.inWritingTransaction());
+    }
+
+    @Test
+    public void invalidateNow() {
+        long loadVersion = invalidation.version();
+        TransactionSynchronizationManager.initSynchronization();
+
+        invalidation.invalidateNow(invalidations::incrementAndGet);
+        assertEquals(1, invalidations.get());
+        assertTrue(invalidation.changedSince(loadVersion));
+        assertFalse(invalidation.inWritingTransaction());
+        assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+    }
+
+    @Test
+    public void invalidateAgainAfterTransactionCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        invalidation.invalidate(invalidations::incrementAndGet);
+        assertEquals(1, invalidations.get());
+        assertTrue(invalidation.inWritingTransaction());
+
+        long loadVersion = invalidation.version();
+        completeTransaction();
+        assertEquals(2, invalidations.get());
+        assertTrue(invalidation.changedSince(loadVersion));
+        assertFalse(invalidation.inWritingTransaction());
+    }
+
+    @Test
+    public void getForTransactionLoadsOnceUntilNextInvalidation() {
+        TransactionSynchronizationManager.initSynchronization();
+        invalidation.invalidate(invalidations::incrementAndGet);
+
+        assertEquals("value1", invalidation.getForTransaction(this::load));
+        assertEquals("value1", invalidation.getForTransaction(this::load));
+        invalidation.invalidate(invalidations::incrementAndGet);
+        assertEquals("value2", invalidation.getForTransaction(this::load));
+
+        completeTransaction();
+        assertEquals(4, invalidations.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getForTransactionOutsideWritingTransaction() {
+        invalidation.getForTransaction(this::load);
+    }
+}
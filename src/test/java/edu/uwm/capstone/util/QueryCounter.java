@@ -0,0 +1,62 @@
+package edu.uwm.capstone.util;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts the statements executed against the H2 test database by reading H2's query statistics.
+ * Statements issued by the counter itself and the validation query of the connection pool are excluded from the count.
+ */
+public class QueryCounter {
+
+    /**
+     * Run by the connection pool when it lends a connection it has not validated recently, so whether it falls into a
+     * count depends on timing.
+     */
+    private static final String VALIDATION_QUERY = "SELECT 1";
+
+    private static final String COUNT_STATEMENTS = "SELECT COALESCE(SUM(execution_count), 0) " +
+            "FROM information_schema.query_statistics " +
+            "WHERE sql_statement NOT LIKE '%QUERY_STATISTICS%' AND sql_statement NOT LIKE '%query_statistics%' " +
+            "AND sql_statement <> '" + VALIDATION_QUERY + "'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueryCounter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.execute("SET QUERY_STATISTICS_MAX_ENTRIES 10000");
+        this.jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+    }
+
+    /**
+     * Run the provided {@link Runnable} and return the number of statements it executed.
+     *
+     * @param runnable {@link Runnable} to measure
+     * @return number of statements executed while running
+     */
+    public long count(Runnable runnable) {
+        long before = executed();
+        runnable.run();
+        return executed() - before;
+    }
+
+    /**
+     * Return the number of statements an empty transaction of the given manager executes, such as switching
+     * auto-commit off and back on and committing, so that they can be added to the count expected of a transactional
+     * call.
+     *
+     * @param transactionManager {@link PlatformTransactionManager} of the transactional calls
+     * @return number of statements executed by an empty transaction
+     */
+    public long countTransaction(PlatformTransactionManager transactionManager) {
+        return count(() -> new TransactionTemplate(transactionManager).execute(status -> null));
+    }
+
+    private long executed() {
+        Long executed = jdbcTemplate.queryForObject(COUNT_STATEMENTS, Long.class);
+        return executed == null ? 0 : executed;
+    }
+}